@@ -3,8 +3,10 @@ package com.pvz.controller;
 import com.pvz.controller.config.ControllerConfig;
 import com.pvz.controller.games.GameController;
 import com.pvz.controller.games.pvz.PvZGameController;
+import com.pvz.controller.memory.TrainerExecutor;
 import com.pvz.controller.server.HttpCommandServer;
 import com.pvz.controller.tiktok.GiftMapper;
+import com.pvz.controller.tiktok.TeamManager;
 import com.pvz.controller.tiktok.TikTokService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,15 +23,18 @@ public class Main {
 
     private static HttpCommandServer httpServer;
     private static TikTokService tikTokService;
+    private static TeamManager teamManager;
 
     public static void main(String[] args) {
         printBanner();
 
         Scanner scanner = new Scanner(System.in);
 
-        // ── Paso 1: Iniciar HTTP Server ──
+        // ── Paso 1: Equipos + HTTP Server (/teams se sirve desde memoria) ──
+        teamManager = new TeamManager();
+        teamManager.start();
         try {
-            httpServer = new HttpCommandServer();
+            httpServer = new HttpCommandServer(teamManager);
             httpServer.start();
             logger.info("✅ HTTP Server en puerto {}", ControllerConfig.getPort());
         } catch (Exception e) {
@@ -37,6 +42,14 @@ public class Main {
             System.exit(1);
         }
 
+        // Shutdown hook
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("👋 Cerrando...");
+            if (tikTokService != null) tikTokService.stop();
+            if (httpServer != null) httpServer.stop();
+            teamManager.shutdown();
+        }));
+
         // ── Paso 2: Elegir juego ──
         GameController game = selectGame(scanner);
         logger.info("🎮 Juego seleccionado: {}", game.getGameName());
@@ -56,14 +69,7 @@ public class Main {
         }
 
         // ── Paso 4: Conectar a TikTok ──
-        tikTokService = new TikTokService(tiktokUser, game);
-
-        // Shutdown hook
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            logger.info("👋 Cerrando...");
-            if (tikTokService != null) tikTokService.stop();
-            if (httpServer != null) httpServer.stop();
-        }));
+        tikTokService = new TikTokService(tiktokUser, game, teamManager);
 
         // ── Abrir overlay en 2 ventanas Chrome separadas ──
         openOverlayWindows();
@@ -185,18 +191,22 @@ public class Main {
 
                 switch (input) {
                     case "stats" -> {
-                        if (tikTokService != null) {
-                            System.out.println(tikTokService.getTeamManager().getStats());
-                        } else {
+                        System.out.println(teamManager.getStats());
+                        System.out.println(teamManager.getPersistenceStats());
+                        System.out.println(teamManager.getIndexStats());
+                        System.out.println(TrainerExecutor.getSchedulerStats());
+                        System.out.println(httpServer.getHttpStats());
+                        System.out.println(httpServer.getEventStats());
+                        if (tikTokService == null) {
                             System.out.println("⚠️ TikTok no conectado");
+                        } else {
+                            System.out.println(tikTokService.getVoteStats());
                         }
                     }
                     case "gifts" -> System.out.println(GiftMapper.getGuide());
                     case "reset" -> {
-                        if (tikTokService != null) {
-                            tikTokService.getTeamManager().reset();
-                            System.out.println("🔄 Equipos reseteados");
-                        }
+                        teamManager.reset();
+                        System.out.println("🔄 Equipos reseteados");
                     }
                     case "status" -> System.out.println(game.getStatusInfo());
                     case "help" -> printHelp();
@@ -204,6 +214,7 @@ public class Main {
                         System.out.println("👋 Cerrando...");
                         if (tikTokService != null) tikTokService.stop();
                         if (httpServer != null) httpServer.stop();
+                        teamManager.shutdown();
                         System.exit(0);
                     }
                     default -> {
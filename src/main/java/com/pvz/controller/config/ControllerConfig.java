@@ -1,5 +1,7 @@
 package com.pvz.controller.config;
 
+import com.pvz.controller.model.CommandSource;
+
 public class ControllerConfig {
 
     private static final int DEFAULT_PORT = 8080;
@@ -7,6 +9,24 @@ public class ControllerConfig {
     private static final String DEFAULT_AHK_EXECUTABLE = "C:\\Program Files\\AutoHotkey\\v2\\AutoHotkey64.exe";
     private static final int DEFAULT_SCRIPT_TIMEOUT = 10;
     private static final boolean DEFAULT_LOCALHOST_ONLY = true;
+    private static final boolean DEFAULT_MAILBOX_MODE = false;
+    private static final boolean DEFAULT_OVERLAY_WATCH = false;
+    private static final boolean DEFAULT_HTTP_VIRTUAL_THREADS = true;
+    private static final int DEFAULT_HTTP_THREADS = 4;
+    private static final int DEFAULT_HTTP_MAX_COMMANDS = 4;
+    private static final int DEFAULT_HTTP_MAX_READS = 64;
+    private static final int DEFAULT_HTTP_QUEUE_MS = 2000;
+    private static final int DEFAULT_JOBS_MAX = 4096;
+    private static final int DEFAULT_JOBS_TTL_MS = 60000;
+    private static final int DEFAULT_SCHED_WEIGHT = 1;
+    private static final int DEFAULT_BOARD_POLL_HZ = 10;
+    private static final int DEFAULT_TEAMS_FLUSH_MS = 1000;
+    private static final int DEFAULT_TEAMS_COMPACT_MS = 10 * 60 * 1000;
+    private static final long DEFAULT_TEAMS_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final int DEFAULT_TEAMS_SNAPSHOT_MS = 250;
+    private static final int DEFAULT_TEAMS_DELTA_RING = 65536;
+    private static final int DEFAULT_SSE_HEARTBEAT_MS = 15000;
+    private static final int DEFAULT_SSE_BOARD_MS = 1000;
 
     public static int getPort() {
         String port = System.getenv("CONTROLLER_PORT");
@@ -49,4 +69,319 @@ public class ControllerConfig {
         }
         return DEFAULT_LOCALHOST_ONLY;
     }
-}
\ No newline at end of file
+
+    /**
+     * Modo mailbox: rutina residente en el juego en lugar de un hilo remoto por acción
+     */
+    public static boolean isMailboxMode() {
+        String mailbox = System.getenv("PVZ_MAILBOX");
+        if (mailbox != null) {
+            return Boolean.parseBoolean(mailbox);
+        }
+        return DEFAULT_MAILBOX_MODE;
+    }
+
+    /**
+     * Frecuencia de refresco del espejo del Board (lecturas por segundo)
+     */
+    public static int getBoardPollHz() {
+        String hz = System.getenv("BOARD_POLL_HZ");
+        if (hz != null) {
+            try {
+                int value = Integer.parseInt(hz);
+                return value > 0 ? value : DEFAULT_BOARD_POLL_HZ;
+            } catch (NumberFormatException e) {
+                return DEFAULT_BOARD_POLL_HZ;
+            }
+        }
+        return DEFAULT_BOARD_POLL_HZ;
+    }
+
+    /**
+     * Volcado de memoria a usar en lugar del proceso del juego (desarrollo sin el juego).
+     * Requiere la tabla de regiones junto al archivo ({@code <dump>.regions}).
+     */
+    public static String getDumpFile() {
+        String dump = System.getenv("PVZ_DUMP_FILE");
+        return (dump != null && !dump.isEmpty()) ? dump : null;
+    }
+
+    /**
+     * Intervalo máximo entre flushes del journal de equipos (los registros se agrupan)
+     */
+    public static int getTeamsFlushMs() {
+        String ms = System.getenv("TEAMS_FLUSH_MS");
+        if (ms != null) {
+            try {
+                int value = Integer.parseInt(ms);
+                return value > 0 ? value : DEFAULT_TEAMS_FLUSH_MS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_TEAMS_FLUSH_MS;
+            }
+        }
+        return DEFAULT_TEAMS_FLUSH_MS;
+    }
+
+    /**
+     * Respaldo por tiempo para compactar el journal de equipos en data/teams.json (si hubo
+     * cambios). Lo normal es compactar por tamaño (TEAMS_COMPACT_BYTES) o al cerrar.
+     */
+    public static int getTeamsCompactMs() {
+        String ms = System.getenv("TEAMS_COMPACT_MS");
+        if (ms != null) {
+            try {
+                int value = Integer.parseInt(ms);
+                return value > 0 ? value : DEFAULT_TEAMS_COMPACT_MS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_TEAMS_COMPACT_MS;
+            }
+        }
+        return DEFAULT_TEAMS_COMPACT_MS;
+    }
+
+    /**
+     * Tamaño del journal de equipos que fuerza una compactación antes de tiempo
+     */
+    public static long getTeamsCompactBytes() {
+        String bytes = System.getenv("TEAMS_COMPACT_BYTES");
+        if (bytes != null) {
+            try {
+                long value = Long.parseLong(bytes);
+                return value > 0 ? value : DEFAULT_TEAMS_COMPACT_BYTES;
+            } catch (NumberFormatException e) {
+                return DEFAULT_TEAMS_COMPACT_BYTES;
+            }
+        }
+        return DEFAULT_TEAMS_COMPACT_BYTES;
+    }
+
+    /**
+     * Intervalo mínimo entre dos publicaciones de la foto de equipos (los cambios se agrupan)
+     */
+    public static int getTeamsSnapshotMs() {
+        String ms = System.getenv("TEAMS_SNAPSHOT_MS");
+        if (ms != null) {
+            try {
+                int value = Integer.parseInt(ms);
+                return value > 0 ? value : DEFAULT_TEAMS_SNAPSHOT_MS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_TEAMS_SNAPSHOT_MS;
+            }
+        }
+        return DEFAULT_TEAMS_SNAPSHOT_MS;
+    }
+
+    /**
+     * Cada cuánto se manda un comentario de keep-alive a los clientes de /events
+     */
+    public static int getSseHeartbeatMs() {
+        String ms = System.getenv("SSE_HEARTBEAT_MS");
+        if (ms != null) {
+            try {
+                int value = Integer.parseInt(ms);
+                return value > 0 ? value : DEFAULT_SSE_HEARTBEAT_MS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_SSE_HEARTBEAT_MS;
+            }
+        }
+        return DEFAULT_SSE_HEARTBEAT_MS;
+    }
+
+    /**
+     * Cada cuánto se revisa el Board para emitir eventos "board" en /events (solo si cambió)
+     */
+    public static int getSseBoardMs() {
+        String ms = System.getenv("SSE_BOARD_MS");
+        if (ms != null) {
+            try {
+                int value = Integer.parseInt(ms);
+                return value > 0 ? value : DEFAULT_SSE_BOARD_MS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_SSE_BOARD_MS;
+            }
+        }
+        return DEFAULT_SSE_BOARD_MS;
+    }
+
+    /**
+     * Cuántos cambios de equipos se guardan para /teams/deltas (más atrás → foto completa)
+     */
+    public static int getTeamsDeltaRing() {
+        String size = System.getenv("TEAMS_DELTA_RING");
+        if (size != null) {
+            try {
+                int value = Integer.parseInt(size);
+                return value > 0 ? value : DEFAULT_TEAMS_DELTA_RING;
+            } catch (NumberFormatException e) {
+                return DEFAULT_TEAMS_DELTA_RING;
+            }
+        }
+        return DEFAULT_TEAMS_DELTA_RING;
+    }
+
+    /**
+     * Vigilar overlay/ y recargar el caché en memoria cuando cambia (útil al desarrollar el overlay)
+     */
+    public static boolean isOverlayWatch() {
+        String watch = System.getenv("OVERLAY_WATCH");
+        if (watch != null) {
+            return Boolean.parseBoolean(watch);
+        }
+        return DEFAULT_OVERLAY_WATCH;
+    }
+
+    /**
+     * Un hilo virtual por petición HTTP; con false se usa un pool fijo de HTTP_THREADS hilos
+     */
+    public static boolean isHttpVirtualThreads() {
+        String virtual = System.getenv("HTTP_VIRTUAL_THREADS");
+        if (virtual != null) {
+            return Boolean.parseBoolean(virtual);
+        }
+        return DEFAULT_HTTP_VIRTUAL_THREADS;
+    }
+
+    /**
+     * Tamaño del pool de hilos HTTP cuando HTTP_VIRTUAL_THREADS=false
+     */
+    public static int getHttpThreads() {
+        String value = System.getenv("HTTP_THREADS");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_HTTP_THREADS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_HTTP_THREADS;
+            }
+        }
+        return DEFAULT_HTTP_THREADS;
+    }
+
+    /**
+     * Cuántos /command se atienden a la vez (el resto espera hasta HTTP_QUEUE_MS)
+     */
+    public static int getHttpMaxCommands() {
+        String value = System.getenv("HTTP_MAX_COMMANDS");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_HTTP_MAX_COMMANDS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_HTTP_MAX_COMMANDS;
+            }
+        }
+        return DEFAULT_HTTP_MAX_COMMANDS;
+    }
+
+    /**
+     * Cuántas lecturas (/overlay, /teams, /health...) se atienden a la vez
+     */
+    public static int getHttpMaxReads() {
+        String value = System.getenv("HTTP_MAX_READS");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_HTTP_MAX_READS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_HTTP_MAX_READS;
+            }
+        }
+        return DEFAULT_HTTP_MAX_READS;
+    }
+
+    /**
+     * Cuánto espera una petición por un cupo libre antes de responder 503
+     */
+    public static int getHttpQueueMs() {
+        String value = System.getenv("HTTP_QUEUE_MS");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_HTTP_QUEUE_MS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_HTTP_QUEUE_MS;
+            }
+        }
+        return DEFAULT_HTTP_QUEUE_MS;
+    }
+
+    /**
+     * Cuántos trabajos de /command?async=true se recuerdan como máximo
+     */
+    public static int getJobsMax() {
+        String value = System.getenv("JOBS_MAX");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_JOBS_MAX;
+            } catch (NumberFormatException e) {
+                return DEFAULT_JOBS_MAX;
+            }
+        }
+        return DEFAULT_JOBS_MAX;
+    }
+
+    /**
+     * Cuánto tiempo se puede consultar en /jobs/{id} un trabajo ya terminado
+     */
+    public static int getJobsTtlMs() {
+        String value = System.getenv("JOBS_TTL_MS");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_JOBS_TTL_MS;
+            } catch (NumberFormatException e) {
+                return DEFAULT_JOBS_TTL_MS;
+            }
+        }
+        return DEFAULT_JOBS_TTL_MS;
+    }
+
+    /**
+     * Cuánto puede esperar en cola un comando de este origen antes de descartarse (0 = sin plazo)
+     */
+    public static long getCommandDeadlineMs(CommandSource source) {
+        String ms = System.getenv("DEADLINE_" + source.name() + "_MS");
+        if (ms != null) {
+            try {
+                long value = Long.parseLong(ms);
+                return value >= 0 ? value : source.getDefaultDeadlineMs();
+            } catch (NumberFormatException e) {
+                return source.getDefaultDeadlineMs();
+            }
+        }
+        return source.getDefaultDeadlineMs();
+    }
+
+    /**
+     * Peso de Team Plantas en el reparto del actuador (2 = el doble de acciones que un equipo con peso 1)
+     */
+    public static int getSchedulerWeightPlantas() {
+        String value = System.getenv("SCHED_WEIGHT_PLANTAS");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_SCHED_WEIGHT;
+            } catch (NumberFormatException e) {
+                return DEFAULT_SCHED_WEIGHT;
+            }
+        }
+        return DEFAULT_SCHED_WEIGHT;
+    }
+
+    /**
+     * Peso de Team Zombies en el reparto del actuador
+     */
+    public static int getSchedulerWeightZombies() {
+        String value = System.getenv("SCHED_WEIGHT_ZOMBIES");
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return parsed > 0 ? parsed : DEFAULT_SCHED_WEIGHT;
+            } catch (NumberFormatException e) {
+                return DEFAULT_SCHED_WEIGHT;
+            }
+        }
+        return DEFAULT_SCHED_WEIGHT;
+    }
+}
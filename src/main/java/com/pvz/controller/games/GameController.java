@@ -1,5 +1,9 @@
 package com.pvz.controller.games;
 
+import com.pvz.controller.model.CommandSource;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface que todo juego debe implementar para ser controlado via TikTok LIVE.
  *
@@ -34,9 +38,10 @@ public interface GameController {
      * @param row fila (letra A-F o número)
      * @param col columna (1-9)
      * @param user usuario de TikTok que ejecuta
-     * @return resultado de la acción
+     * @param source origen (chat, gift, likes): decide cuánto puede esperar en cola
+     * @return resultado de la acción, cuando el juego la ejecute (no bloquea al llamador)
      */
-    ActionResult onTeamAAction(String type, String row, int col, String user);
+    CompletableFuture<ActionResult> onTeamAAction(String type, String row, int col, String user, CommandSource source);
 
     /**
      * Acción del Team Zombies (o equivalente "malo")
@@ -44,17 +49,18 @@ public interface GameController {
      * @param count cantidad
      * @param row fila (puede ser null para aleatorio)
      * @param user usuario de TikTok que ejecuta
-     * @return resultado de la acción
+     * @param source origen (chat, gift, likes): decide cuánto puede esperar en cola
+     * @return resultado de la acción, cuando el juego la ejecute (no bloquea al llamador)
      */
-    ActionResult onTeamBAction(String type, int count, String row, String user);
+    CompletableFuture<ActionResult> onTeamBAction(String type, int count, String row, String user, CommandSource source);
 
     /**
      * Acción de likes (bonus general)
      * @param sunAmount cantidad de recurso a agregar
      * @param user usuario origen
-     * @return resultado
+     * @return resultado, cuando el juego lo ejecute (no bloquea al llamador)
      */
-    ActionResult onLikeBonus(int sunAmount, String user);
+    CompletableFuture<ActionResult> onLikeBonus(int sunAmount, String user);
 
     /**
      * Obtener info del estado actual del juego
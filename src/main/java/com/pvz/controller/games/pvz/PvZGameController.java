@@ -2,10 +2,13 @@ package com.pvz.controller.games.pvz;
 
 import com.pvz.controller.games.GameController;
 import com.pvz.controller.memory.TrainerExecutor;
+import com.pvz.controller.model.CommandSource;
 import com.pvz.controller.model.GameCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * PvZGameController - Conecta la interface GameController con tu TrainerExecutor existente.
  *
@@ -32,6 +35,7 @@ public class PvZGameController implements GameController {
         GameCommand cmd = new GameCommand();
         cmd.setCommand("info");
         cmd.setUser("system");
+        cmd.setSource(CommandSource.SYSTEM);
 
         TrainerExecutor.ExecutionResult result = TrainerExecutor.execute(cmd);
         if (result.isSuccess()) {
@@ -54,11 +58,12 @@ public class PvZGameController implements GameController {
         GameCommand cmd = new GameCommand();
         cmd.setCommand("info");
         cmd.setUser("system");
+        cmd.setSource(CommandSource.SYSTEM);
         return TrainerExecutor.execute(cmd).isSuccess();
     }
 
     @Override
-    public ActionResult onTeamAAction(String type, String row, int col, String user) {
+    public CompletableFuture<ActionResult> onTeamAAction(String type, String row, int col, String user, CommandSource source) {
         // Team A = Plantas → plantar
         GameCommand cmd = new GameCommand();
         cmd.setCommand("plant");
@@ -66,45 +71,54 @@ public class PvZGameController implements GameController {
         cmd.setRow(row);
         cmd.setCol(col);
         cmd.setUser(user);
+        cmd.setSource(source);
 
         if (!cmd.isValid()) {
-            return ActionResult.fail("❌ Comando inválido: plant " + type + " " + row + col);
+            return CompletableFuture.completedFuture(ActionResult.fail("❌ Comando inválido: plant " + type + " " + row + col));
         }
 
-        TrainerExecutor.ExecutionResult result = TrainerExecutor.execute(cmd);
-        return new ActionResult(result.isSuccess(), result.getMessage());
+        return submit(cmd);
     }
 
     @Override
-    public ActionResult onTeamBAction(String type, int count, String row, String user) {
+    public CompletableFuture<ActionResult> onTeamBAction(String type, int count, String row, String user, CommandSource source) {
         // Team B = Zombies → spawn
         GameCommand cmd = new GameCommand();
         cmd.setCommand("spawn_zombie");
         cmd.setType(type);
         cmd.setCount(Math.min(count, 5));
         cmd.setUser(user);
+        cmd.setSource(source);
 
         if (row != null && !row.isEmpty()) {
             cmd.setRow(row);
         }
 
         if (!cmd.isValid()) {
-            return ActionResult.fail("❌ Comando inválido: spawn " + type + " x" + count);
+            return CompletableFuture.completedFuture(ActionResult.fail("❌ Comando inválido: spawn " + type + " x" + count));
         }
 
-        TrainerExecutor.ExecutionResult result = TrainerExecutor.execute(cmd);
-        return new ActionResult(result.isSuccess(), result.getMessage());
+        return submit(cmd);
     }
 
     @Override
-    public ActionResult onLikeBonus(int sunAmount, String user) {
+    public CompletableFuture<ActionResult> onLikeBonus(int sunAmount, String user) {
         GameCommand cmd = new GameCommand();
         cmd.setCommand("sun");
         cmd.setCount(sunAmount);
         cmd.setUser(user);
+        cmd.setSource(CommandSource.BONUS);
 
-        TrainerExecutor.ExecutionResult result = TrainerExecutor.execute(cmd);
-        return new ActionResult(result.isSuccess(), result.getMessage());
+        return submit(cmd);
+    }
+
+    /**
+     * Encola en el actuador sin esperar: el scheduler ordena por origen (un gift pasa
+     * delante del chat en cola) y descarta lo que venció antes de ejecutarse
+     */
+    private static CompletableFuture<ActionResult> submit(GameCommand cmd) {
+        return TrainerExecutor.submit(cmd)
+                .thenApply(result -> new ActionResult(result.isSuccess(), result.getMessage()));
     }
 
     @Override
@@ -112,8 +126,10 @@ public class PvZGameController implements GameController {
         GameCommand cmd = new GameCommand();
         cmd.setCommand("info");
         cmd.setUser("system");
+        cmd.setSource(CommandSource.SYSTEM);
 
         TrainerExecutor.ExecutionResult result = TrainerExecutor.execute(cmd);
-        return result.isSuccess() ? result.getMessage() : "❌ No conectado a PvZ";
+        String info = result.isSuccess() ? result.getMessage() : "❌ No conectado a PvZ";
+        return info + "\n" + TrainerExecutor.getStats();
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.pvz.controller.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.pvz.controller.config.ControllerConfig;
+import com.pvz.controller.memory.TrainerExecutor;
+import com.pvz.controller.model.GameCommand;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * POST /commands: varios comandos en una sola petición.
+ *
+ * El cuerpo es un arreglo JSON ({@code [{...},{...}]}) o NDJSON (un comando por línea).
+ * Se validan todos antes de ejecutar nada; si alguno es inválido se responde 400 con
+ * su índice. Los válidos se encolan como un lote (spawns y plantas seguidos comparten
+ * una inyección) y los resultados se devuelven en NDJSON a medida que terminan, en ese
+ * orden y no en el del pedido ({@code index} es la posición del comando en el cuerpo):
+ *
+ *   {"index":0,"success":true,"message":"🧟 ¡3 Zombie invocado(s)!"}
+ */
+public class BatchCommandRequestHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCommandRequestHandler.class);
+
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final Gson gson = new Gson();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String remoteAddress = exchange.getRemoteAddress().getAddress().getHostAddress();
+
+        // Check localhost only
+        if (ControllerConfig.isLocalhostOnly() && !isLocalhost(remoteAddress)) {
+            logger.warn("Rejected non-localhost request from: {}", remoteAddress);
+            sendResponse(exchange, 403, createErrorResponse("Access denied: localhost only", -1));
+            return;
+        }
+
+        // Only accept POST
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, createErrorResponse("Method not allowed", -1));
+            return;
+        }
+
+        List<GameCommand> commands;
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            commands = parse(body);
+        } catch (JsonSyntaxException e) {
+            logger.error("JSON parse error: {}", e.getMessage());
+            sendResponse(exchange, 400, createErrorResponse("Invalid JSON format", -1));
+            return;
+        }
+
+        if (commands.isEmpty()) {
+            sendResponse(exchange, 400, createErrorResponse("Empty batch", -1));
+            return;
+        }
+        if (commands.size() > MAX_BATCH_SIZE) {
+            sendResponse(exchange, 413, createErrorResponse("Too many commands (max " + MAX_BATCH_SIZE + ")", -1));
+            return;
+        }
+
+        // Validate every command before running any of them
+        for (int i = 0; i < commands.size(); i++) {
+            GameCommand command = commands.get(i);
+            if (command == null || !command.isValid()) {
+                logger.warn("Invalid command in batch at index {}: {}", i, command);
+                sendResponse(exchange, 400, createErrorResponse("Invalid command", i));
+                return;
+            }
+        }
+
+        logger.info("Executing batch of {} commands", commands.size());
+        List<CompletableFuture<TrainerExecutor.ExecutionResult>> results = TrainerExecutor.submitBatch(commands);
+
+        // Completion order, not request order: a later group can finish first ("index" says which one)
+        BlockingQueue<JsonObject> completed = new ArrayBlockingQueue<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            int index = i;
+            results.get(i).whenComplete((result, error) -> {
+                JsonObject line = new JsonObject();
+                line.addProperty("index", index);
+                line.addProperty("success", error == null && result.isSuccess());
+                line.addProperty("message", error == null ? result.getMessage() : "❌ Error: " + error.getMessage());
+                completed.add(line);
+            });
+        }
+
+        // Chunked NDJSON: one line per command, flushed as soon as it completes
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream os = exchange.getResponseBody()) {
+            for (int written = 0; written < results.size(); written++) {
+                os.write((gson.toJson(completed.take()) + "\n").getBytes(StandardCharsets.UTF_8));
+                os.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // El cliente se fue: los comandos ya están encolados y se ejecutan igual
+            logger.debug("Batch client disconnected: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Arreglo JSON si empieza con '[', si no NDJSON (las líneas vacías se ignoran)
+     */
+    private List<GameCommand> parse(String body) {
+        String trimmed = body.strip();
+        if (trimmed.startsWith("[")) {
+            GameCommand[] array = gson.fromJson(trimmed, GameCommand[].class);
+            return array != null ? Arrays.asList(array) : List.of();
+        }
+
+        List<GameCommand> commands = new ArrayList<>();
+        for (String line : trimmed.split("\n")) {
+            if (!line.isBlank()) {
+                commands.add(gson.fromJson(line, GameCommand.class));
+            }
+        }
+        return commands;
+    }
+
+    private boolean isLocalhost(String address) {
+        return "127.0.0.1".equals(address) ||
+                "0:0:0:0:0:0:0:1".equals(address) ||
+                "::1".equals(address);
+    }
+
+    private String createErrorResponse(String message, int index) {
+        JsonObject json = new JsonObject();
+        json.addProperty("success", false);
+        json.addProperty("message", message);
+        if (index >= 0) {
+            json.addProperty("index", index);
+        }
+        return gson.toJson(json);
+    }
+
+    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.google.gson.JsonSyntaxException;
 import com.pvz.controller.config.ControllerConfig;
 import com.pvz.controller.memory.TrainerExecutor;
 import com.pvz.controller.model.GameCommand;
+import com.pvz.controller.server.JobTable;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.slf4j.Logger;
@@ -21,6 +22,11 @@ public class CommandRequestHandler implements HttpHandler {
     private static final Logger logger = LoggerFactory.getLogger(CommandRequestHandler.class);
     private final Gson gson = new Gson();
     private final TrainerExecutor trainer = new TrainerExecutor();
+    private final JobTable jobs;
+
+    public CommandRequestHandler(JobTable jobs) {
+        this.jobs = jobs;
+    }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
@@ -61,6 +67,15 @@ public class CommandRequestHandler implements HttpHandler {
                 return;
             }
 
+            // Async mode: queue it and answer right away; the result is at /jobs/{id}
+            if (isAsync(exchange.getRequestURI().getRawQuery())) {
+                JobTable.Job job = jobs.submit(command);
+                logger.info("Queued command: {} from user: {} as job {}", command.getCommand(), command.getUser(), job.id());
+                exchange.getResponseHeaders().set("Location", "/jobs/" + job.id());
+                sendResponse(exchange, 202, createAcceptedResponse(job));
+                return;
+            }
+
             logger.info("Executing command: {} from user: {}", command.getCommand(), command.getUser());
 
             // Execute command using memory trainer
@@ -87,6 +102,31 @@ public class CommandRequestHandler implements HttpHandler {
                 "::1".equals(address);
     }
 
+    private boolean isAsync(String query) {
+        if (query == null) return false;
+        for (String param : query.split("&")) {
+            if (param.equals("async") || param.equals("async=true") || param.equals("async=1")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String createAcceptedResponse(JobTable.Job job) {
+        JsonObject json = new JsonObject();
+        json.addProperty("success", true);
+        json.addProperty("id", job.id());
+        int position = job.queuePosition();
+        if (position > 0) {
+            json.addProperty("status", "pending");
+            json.addProperty("queuePosition", position);
+        } else {
+            json.addProperty("status", "running");
+        }
+        json.addProperty("location", "/jobs/" + job.id());
+        return gson.toJson(json);
+    }
+
     private String createSuccessResponse(String message) {
         JsonObject json = new JsonObject();
         json.addProperty("success", true);
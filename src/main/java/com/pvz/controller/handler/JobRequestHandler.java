@@ -0,0 +1,114 @@
+package com.pvz.controller.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.pvz.controller.memory.TrainerExecutor;
+import com.pvz.controller.server.JobTable;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GET /jobs/{id}[?wait=ms]: estado de un comando enviado con {@code /command?async=true}.
+ *
+ * Con {@code wait} la respuesta se retiene hasta que el comando termina o pasa ese tiempo
+ * (long-poll, máximo {@value #MAX_WAIT_MS} ms). {@code queuePosition} se calcula en cada
+ * consulta y desaparece cuando el actuador ya lo tomó:
+ *   {"id":"...","command":"spawn_zombie","status":"pending","queuePosition":3}
+ *   {"id":"...","command":"spawn_zombie","status":"running"}
+ *   {"id":"...","command":"spawn_zombie","status":"done","success":true,"message":"..."}
+ */
+public class JobRequestHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobRequestHandler.class);
+
+    private static final long MAX_WAIT_MS = 30_000;
+
+    private final Gson gson = new Gson();
+    private final JobTable jobs;
+
+    public JobRequestHandler(JobTable jobs) {
+        this.jobs = jobs;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, error("Method not allowed"));
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        String id = path.startsWith("/jobs/") ? path.substring("/jobs/".length()) : "";
+        JobTable.Job job = id.isEmpty() ? null : jobs.get(id);
+        if (job == null) {
+            sendResponse(exchange, 404, error("Job not found or expired"));
+            return;
+        }
+
+        long waitMs = Math.min(parseWait(exchange.getRequestURI().getRawQuery()), MAX_WAIT_MS);
+        TrainerExecutor.ExecutionResult result;
+        try {
+            result = job.await(waitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = job.future().getNow(null);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("id", job.id());
+        json.addProperty("command", job.command());
+        if (result == null) {
+            int position = job.queuePosition();
+            if (position > 0) {
+                json.addProperty("status", "pending");
+                json.addProperty("queuePosition", position);
+            } else {
+                json.addProperty("status", "running");
+            }
+        } else {
+            json.addProperty("status", "done");
+            json.addProperty("success", result.isSuccess());
+            json.addProperty("message", result.getMessage());
+        }
+        logger.debug("Job {} polled: {}", job.id(), json.get("status").getAsString());
+        sendResponse(exchange, 200, gson.toJson(json));
+    }
+
+    private static long parseWait(String query) {
+        if (query == null) return 0;
+        for (String param : query.split("&")) {
+            if (param.startsWith("wait=")) {
+                try {
+                    return Math.max(0, Long.parseLong(param.substring("wait=".length())));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private String error(String message) {
+        JsonObject json = new JsonObject();
+        json.addProperty("success", false);
+        json.addProperty("message", message);
+        return gson.toJson(json);
+    }
+
+    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
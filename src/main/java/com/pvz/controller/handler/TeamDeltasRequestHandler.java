@@ -0,0 +1,142 @@
+package com.pvz.controller.handler;
+
+import com.google.gson.stream.JsonWriter;
+import com.pvz.controller.tiktok.PlayerIndex;
+import com.pvz.controller.tiktok.RosterDeltaLog;
+import com.pvz.controller.tiktok.RosterDeltaLog.Delta;
+import com.pvz.controller.tiktok.RosterSnapshot;
+import com.pvz.controller.tiktok.TeamManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GET /teams/deltas?since=V[&epoch=E]: cambios de equipos posteriores a la versión V.
+ *
+ * Respuesta compacta (un arreglo por cambio):
+ *   {"epoch":E,"since":V,"seq":S,"deltas":[["j",id,nick,"p",acciones],["s",id,nick,"z",acciones],["a",id,+N],["r"]]}
+ *   j = se unió, s = cambió de equipo, a = sumó N acciones, r = reset; equipo "p"/"z".
+ *
+ * Si V ya salió del ring, es de otra época (reinicio) o no vino, se responde la
+ * foto completa: {"epoch":E,"full":true,"seq":S,"players":{...formato de /teams...}}.
+ * En ambos casos el cliente sigue pidiendo desde {@code seq}.
+ */
+public class TeamDeltasRequestHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamDeltasRequestHandler.class);
+
+    private final TeamManager teamManager;
+
+    public TeamDeltasRequestHandler(TeamManager teamManager) {
+        this.teamManager = teamManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                send(exchange, 405, "{\"error\":\"Method not allowed\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            String query = exchange.getRequestURI().getRawQuery();
+            long since = parseLong(param(query, "since"), -1);
+            String epoch = param(query, "epoch");
+
+            RosterDeltaLog.Batch batch = null;
+            boolean sameEpoch = epoch == null || epoch.equals(teamManager.getEpoch());
+            if (since >= 0 && sameEpoch) {
+                batch = teamManager.getDeltasSince(since);
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch != null ? 64 + batch.deltas().size() * 32 : 4096);
+            try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+                 JsonWriter json = new JsonWriter(writer)) {
+                json.beginObject();
+                json.name("epoch").value(teamManager.getEpoch());
+                if (batch != null) {
+                    writeDeltas(json, since, batch);
+                } else {
+                    RosterSnapshot roster = teamManager.getRoster();
+                    writeFull(json, roster.getVersion(), roster.getPlayers());
+                }
+                json.endObject();
+            }
+            send(exchange, 200, bytes.toByteArray());
+        } catch (Exception e) {
+            logger.error("Error sirviendo deltas de equipos: {}", e.getMessage());
+            send(exchange, 500, "{\"error\":\"internal\"}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // Package-private: TeamDeltasBenchmark mide exactamente estos bytes
+    static void writeDeltas(JsonWriter json, long since, RosterDeltaLog.Batch batch) throws IOException {
+        json.name("since").value(since);
+        json.name("seq").value(batch.seq());
+        json.name("deltas").beginArray();
+        for (Delta delta : batch.deltas()) {
+            json.beginArray();
+            switch (delta.kind()) {
+                case JOIN, SWITCH -> {
+                    json.value(delta.kind() == RosterDeltaLog.Kind.JOIN ? "j" : "s");
+                    json.value(delta.uniqueId());
+                    json.value(delta.nickname());
+                    json.value(delta.team() == TeamManager.Team.PLANTAS ? "p" : "z");
+                    json.value(delta.value());
+                }
+                case ACTION -> {
+                    json.value("a");
+                    json.value(delta.uniqueId());
+                    json.value(delta.value());
+                }
+                case RESET -> json.value("r");
+            }
+            json.endArray();
+        }
+        json.endArray();
+    }
+
+    static void writeFull(JsonWriter json, long seq, PlayerIndex.View players) throws IOException {
+        json.name("full").value(true);
+        json.name("seq").value(seq);
+        json.name("players");
+        players.writeJson(json);
+    }
+
+    private static String param(String query, String name) {
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static long parseLong(String value, long fallback) {
+        if (value == null) return fallback;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.pvz.controller.handler;
+
+import com.google.gson.stream.JsonWriter;
+import com.pvz.controller.tiktok.RosterSnapshot;
+import com.pvz.controller.tiktok.TeamManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GET /teams: el roster completo en el formato de data/teams.json, servido desde memoria.
+ *
+ * El JSON se serializa una vez por versión de la foto publicada por TeamManager y se
+ * reutiliza para todas las peticiones. El ETag sale de esa versión (más la época de
+ * TeamManager, porque la versión vuelve a empezar al reiniciar), así que un overlay que
+ * ya tiene la última recibe un 304 sin cuerpo. La versión va también en X-Roster-Version
+ * para seguir con /teams/deltas?since=.
+ */
+public class TeamsRequestHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamsRequestHandler.class);
+
+    private record Rendered(long version, String etag, byte[] body) {}
+
+    private final TeamManager teamManager;
+    private volatile Rendered rendered;
+
+    public TeamsRequestHandler(TeamManager teamManager) {
+        this.teamManager = teamManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                send(exchange, 405, "application/json", "{\"error\":\"Method not allowed\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            Rendered current = render(teamManager.getRoster());
+            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+            exchange.getResponseHeaders().set("Access-Control-Expose-Headers", "ETag, X-Roster-Version, X-Roster-Epoch");
+            exchange.getResponseHeaders().set("ETag", current.etag());
+            exchange.getResponseHeaders().set("X-Roster-Version", Long.toString(current.version()));
+            exchange.getResponseHeaders().set("X-Roster-Epoch", teamManager.getEpoch());
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), current.etag())) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            if ("HEAD".equalsIgnoreCase(method)) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            send(exchange, 200, "application/json; charset=utf-8", current.body());
+        } catch (Exception e) {
+            logger.error("Error sirviendo teams: {}", e.getMessage());
+            send(exchange, 500, "application/json", "{\"error\":\"internal\"}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Bytes de la versión pedida; solo se serializa si la foto cambió desde la última vez
+     */
+    private Rendered render(RosterSnapshot roster) throws IOException {
+        Rendered current = rendered;
+        if (current != null && !roster.hasChangedSince(current.version())) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = rendered;
+            if (current != null && !roster.hasChangedSince(current.version())) {
+                return current;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(256, roster.getTotalPlayers() * 96));
+            try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+                 JsonWriter json = new JsonWriter(writer)) {
+                roster.getPlayers().writeJson(json);
+            }
+            current = new Rendered(roster.getVersion(),
+                    "\"" + teamManager.getEpoch() + "-" + roster.getVersion() + "\"", bytes.toByteArray());
+            if (rendered == null || current.version() > rendered.version()) {
+                rendered = current;
+            }
+            return current;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
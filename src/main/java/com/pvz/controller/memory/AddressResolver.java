@@ -0,0 +1,240 @@
+package com.pvz.controller.memory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Resuelve las direcciones del build en ejecución en lugar de probar BASE_ADDRESSES a ciegas.
+ *
+ * 1. Caché en disco por build (hash de headers PE + SizeOfImage): un arranque en
+ *    caliente no escanea nada.
+ * 2. Puntero a LawnApp: se buscan los accesos {@code mov r32,[abs32]; mov r32,[r32+BOARD]}
+ *    en el código y gana la dirección más referenciada que apunte a un LawnApp válido.
+ * 3. Funciones: se toma el build conocido con ese LawnApp y se verifica contra el
+ *    código (llamadas directas a cada función y bytes del salto del main loop).
+ *    Si no verifica, las funciones quedan desconocidas y no se inyecta código.
+ */
+public class AddressResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressResolver.class);
+
+    private static final Path CACHE_FILE = Path.of("data/addresses.json");
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    // mov r32, [r32 + BOARD] (ModRM mod=10, disp32)
+    private static final Signature BOARD_ACCESS = Signature.parse(String.format("8B ?? %02X %02X %02X %02X",
+            PvZOffsets.BOARD & 0xFF, (PvZOffsets.BOARD >> 8) & 0xFF,
+            (PvZOffsets.BOARD >> 16) & 0xFF, (PvZOffsets.BOARD >>> 24)));
+
+    // call rel32
+    private static final Signature CALL_REL32 = Signature.parse("E8");
+
+    private static final byte JMP_SHORT = (byte) 0xEB;
+    private static final byte MAIN_LOOP_JUMP = (byte) 0xC8;
+    private static final byte MAIN_LOOP_PARKED = (byte) 0xFE;
+
+    private static final Object cacheLock = new Object();
+
+    /**
+     * @return direcciones resueltas; {@code lawn() == 0} si no se pudo determinar
+     */
+    public static GameAddresses resolve(ProcessMemory memory) {
+        SignatureScanner scanner = SignatureScanner.forModule(memory, RemoteImports.GAME_IMAGE_BASE);
+        if (scanner == null) {
+            return GameAddresses.lawnOnly(0);
+        }
+
+        String key = scanner.moduleKey();
+        GameAddresses cached = loadCache().get(key);
+        if (cached != null) {
+            logger.info("Game addresses loaded from cache (lawn 0x{})", Long.toHexString(cached.lawn()));
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        long lawn = findLawn(memory, scanner);
+        if (lawn == 0) {
+            logger.warn("Signature scan did not find the LawnApp pointer");
+            return GameAddresses.lawnOnly(0);
+        }
+
+        GameAddresses resolved = verifyKnownBuild(memory, scanner, lawn);
+        logger.info("Signature scan done in {} ms: lawn 0x{}, functions {}",
+                (System.nanoTime() - start) / 1_000_000, Long.toHexString(lawn),
+                resolved.hasFunctions() ? "verified" : "unknown");
+        storeCache(key, resolved);
+        return resolved;
+    }
+
+    /**
+     * Direcciones para un LawnApp ya conocido (ej: encontrado probando BASE_ADDRESSES)
+     */
+    public static GameAddresses forLawn(ProcessMemory memory, long lawn) {
+        SignatureScanner scanner = SignatureScanner.forModule(memory, RemoteImports.GAME_IMAGE_BASE);
+        if (scanner == null) {
+            return GameAddresses.lawnOnly(lawn);
+        }
+        return verifyKnownBuild(memory, scanner, lawn);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LAWN
+    // ═══════════════════════════════════════════════════════════════════
+
+    private static long findLawn(ProcessMemory memory, SignatureScanner scanner) {
+        List<Long> references = scanner.scan(BOARD_ACCESS, 6, 0, AddressResolver::lawnReference);
+
+        Map<Long, Long> votes = references.stream()
+                .filter(scanner::containsAddress)
+                .collect(Collectors.groupingBy(address -> address, Collectors.counting()));
+
+        List<Map.Entry<Long, Long>> ranked = votes.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .toList();
+
+        for (Map.Entry<Long, Long> candidate : ranked) {
+            long lawn = candidate.getKey();
+            long gamePtr = memory.readPointer(lawn);
+            if (!isPlausiblePointer(gamePtr)) continue;
+
+            // En el menú el Board es 0; dentro de un nivel debe ser un puntero válido
+            long boardPtr = memory.readPointer(gamePtr + PvZOffsets.BOARD);
+            if (boardPtr != 0 && !isPlausiblePointer(boardPtr)) continue;
+
+            logger.debug("LawnApp pointer 0x{} ({} references)", Long.toHexString(lawn), candidate.getValue());
+            return lawn;
+        }
+        return 0;
+    }
+
+    /**
+     * En {@code data[index]} hay {@code 8B modrm <BOARD>}. Si la instrucción previa
+     * carga el mismo registro desde una dirección absoluta, retorna esa dirección.
+     */
+    private static Long lawnReference(byte[] data, int index, long address) {
+        int modrm = data[index + 1] & 0xFF;
+        int base = modrm & 0x07;
+        if ((modrm >> 6) != 0b10 || base == 0b100) return null; // disp32, sin SIB
+        if (index < 6) return null;
+
+        boolean movFromAbsolute = data[index - 6] == (byte) 0x8B && (data[index - 5] & 0xFF) == (0x05 | base << 3);
+        boolean movEaxFromAbsolute = base == 0 && data[index - 5] == (byte) 0xA1;
+        if (!movFromAbsolute && !movEaxFromAbsolute) return null;
+
+        return Integer.toUnsignedLong(ByteBuffer.wrap(data, index - 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+    }
+
+    private static boolean isPlausiblePointer(long pointer) {
+        return pointer > 0x10000 && pointer < 0x7FFFFFFF;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // FUNCIONES
+    // ═══════════════════════════════════════════════════════════════════
+
+    private static GameAddresses verifyKnownBuild(ProcessMemory memory, SignatureScanner scanner, long lawn) {
+        for (GameAddresses build : GameAddresses.KNOWN_BUILDS) {
+            if (build.lawn() != lawn) continue;
+
+            if (!isMainLoopJump(memory, build.blockMainLoop())) {
+                logger.warn("Main loop jump not found at 0x{}", Integer.toHexString(build.blockMainLoop()));
+                continue;
+            }
+
+            Map<Long, Long> calls = countCallsTo(scanner, build.callPutZombie(), build.callPutPlant());
+            long zombieCalls = calls.getOrDefault(Integer.toUnsignedLong(build.callPutZombie()), 0L);
+            long plantCalls = calls.getOrDefault(Integer.toUnsignedLong(build.callPutPlant()), 0L);
+            if (zombieCalls == 0 || plantCalls == 0) {
+                logger.warn("Known function addresses have no call sites (zombie: {}, plant: {})",
+                        zombieCalls, plantCalls);
+                continue;
+            }
+
+            logger.debug("Build verified: {} calls to put-zombie, {} calls to put-plant", zombieCalls, plantCalls);
+            return build;
+        }
+
+        logger.warn("Unknown game build (lawn 0x{}): code injection disabled", Long.toHexString(lawn));
+        return GameAddresses.lawnOnly(lawn);
+    }
+
+    private static boolean isMainLoopJump(ProcessMemory memory, int address) {
+        byte[] jump = memory.readBytes(address - 1, 2);
+        return jump != null && jump[0] == JMP_SHORT
+                && (jump[1] == MAIN_LOOP_JUMP || jump[1] == MAIN_LOOP_PARKED);
+    }
+
+    /**
+     * Cuenta las instrucciones {@code call rel32} hacia cada destino (una sola pasada)
+     */
+    private static Map<Long, Long> countCallsTo(SignatureScanner scanner, int... targets) {
+        long[] wanted = new long[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            wanted[i] = Integer.toUnsignedLong(targets[i]);
+        }
+
+        List<Long> hits = scanner.scan(CALL_REL32, 0, 4, (data, index, address) -> {
+            int rel = ByteBuffer.wrap(data, index + 1, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            long target = (address + 5 + rel) & 0xFFFFFFFFL;
+            for (long w : wanted) {
+                if (w == target) return target;
+            }
+            return null;
+        });
+        return hits.stream().collect(Collectors.groupingBy(target -> target, Collectors.counting()));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // CACHÉ
+    // ═══════════════════════════════════════════════════════════════════
+
+    private static Map<String, GameAddresses> loadCache() {
+        synchronized (cacheLock) {
+            if (!Files.exists(CACHE_FILE)) {
+                return new HashMap<>();
+            }
+            try (Reader reader = Files.newBufferedReader(CACHE_FILE)) {
+                Type type = new TypeToken<HashMap<String, GameAddresses>>() {}.getType();
+                Map<String, GameAddresses> cache = gson.fromJson(reader, type);
+                return cache != null ? cache : new HashMap<>();
+            } catch (Exception e) {
+                logger.warn("Ignoring unreadable address cache: {}", e.getMessage());
+                return new HashMap<>();
+            }
+        }
+    }
+
+    private static void storeCache(String key, GameAddresses addresses) {
+        synchronized (cacheLock) {
+            Map<String, GameAddresses> cache = loadCache();
+            cache.put(key, addresses);
+            try {
+                Files.createDirectories(CACHE_FILE.getParent());
+                Path temp = CACHE_FILE.resolveSibling(CACHE_FILE.getFileName() + ".tmp");
+                try (Writer writer = Files.newBufferedWriter(temp)) {
+                    gson.toJson(cache, writer);
+                }
+                Files.move(temp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warn("Failed to save address cache: {}", e.getMessage());
+            }
+        }
+    }
+}
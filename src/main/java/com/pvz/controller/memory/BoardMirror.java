@@ -0,0 +1,98 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Espejo del Board: un hilo de fondo lee toda la región relevante del Board con
+ * una sola lectura en bloque (más las dos del puntero) a una frecuencia fija y
+ * publica un {@link BoardSnapshot} inmutable. Los lectores nunca tocan el proceso.
+ */
+public class BoardMirror {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardMirror.class);
+
+    private final ProcessMemory memory;
+    private final long baseAddress;
+    private final long periodNanos;
+    private final ByteBuffer region = ByteBuffer.allocateDirect(BoardSnapshot.REGION_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    private volatile BoardSnapshot current;
+    private volatile long lastRefreshNanos;
+    private volatile boolean inLevel;
+    private ScheduledExecutorService poller;
+
+    public BoardMirror(ProcessMemory memory, long baseAddress, int hz) {
+        this.memory = memory;
+        this.baseAddress = baseAddress;
+        this.periodNanos = 1_000_000_000L / Math.max(1, hz);
+    }
+
+    public void start() {
+        refresh();
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "board-mirror");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleAtFixedRate(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                logger.debug("Board refresh failed: {}", e.getMessage());
+            }
+        }, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        logger.info("Board mirror started ({} Hz)", 1_000_000_000L / periodNanos);
+    }
+
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+        current = null;
+    }
+
+    /**
+     * Relee el Board ahora mismo y publica el resultado.
+     * @return el snapshot nuevo, o null si no hay un nivel activo
+     */
+    public synchronized BoardSnapshot refresh() {
+        long gamePtr = memory.readPointer(baseAddress);
+        long boardPtr = gamePtr != 0 ? memory.readPointer(gamePtr + PvZOffsets.BOARD) : 0;
+
+        BoardSnapshot snapshot = null;
+        if (boardPtr != 0) {
+            region.clear();
+            if (memory.readBlock(boardPtr + BoardSnapshot.REGION_START, region)) {
+                snapshot = BoardSnapshot.decode(boardPtr, region, System.nanoTime());
+            }
+        }
+
+        if ((snapshot != null) != inLevel) {
+            inLevel = snapshot != null;
+            logger.debug("Board mirror: {}", inLevel ? "level detected" : "not in a level");
+        }
+        current = snapshot;
+        lastRefreshNanos = System.nanoTime();
+        return snapshot;
+    }
+
+    /**
+     * Último snapshot publicado (null = no hay nivel). Si el poller se atrasó
+     * más de dos periodos, relee antes de responder.
+     */
+    public BoardSnapshot current() {
+        if (System.nanoTime() - lastRefreshNanos > 2 * periodNanos) {
+            return refresh();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,98 @@
+package com.pvz.controller.memory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Copia inmutable de los campos del Board que usa el controlador,
+ * capturada con una sola lectura en bloque (ver {@link BoardMirror}).
+ */
+public final class BoardSnapshot {
+
+    // Región del Board que cubre todos los campos: [ZOMBIE_COUNT, GAME_CLOCK + 4)
+    public static final int REGION_START = PvZOffsets.ZOMBIE_COUNT;
+    public static final int REGION_END = PvZOffsets.GAME_CLOCK + 4;
+    public static final int REGION_SIZE = REGION_END - REGION_START;
+
+    public static final int MAX_ROWS = 6;
+
+    private final long boardAddress;
+    private final int sun;
+    private final int scene;
+    private final int[] rowTypes;
+    private final int adventureLevel;
+    private final boolean paused;
+    private final int zombieCount;
+    private final int gameClock;
+    private final long capturedAtNanos;
+
+    private BoardSnapshot(long boardAddress, int sun, int scene, int[] rowTypes, int adventureLevel,
+                          boolean paused, int zombieCount, int gameClock, long capturedAtNanos) {
+        this.boardAddress = boardAddress;
+        this.sun = sun;
+        this.scene = scene;
+        this.rowTypes = rowTypes;
+        this.adventureLevel = adventureLevel;
+        this.paused = paused;
+        this.zombieCount = zombieCount;
+        this.gameClock = gameClock;
+        this.capturedAtNanos = capturedAtNanos;
+    }
+
+    /**
+     * Decodifica la región leída (little-endian, posición 0 = Board + REGION_START).
+     */
+    static BoardSnapshot decode(long boardAddress, ByteBuffer region, long capturedAtNanos) {
+        int[] rowTypes = new int[MAX_ROWS];
+        for (int i = 0; i < MAX_ROWS; i++) {
+            rowTypes[i] = field(region, PvZOffsets.ROW_TYPE + i * 4);
+        }
+        return new BoardSnapshot(
+                boardAddress,
+                field(region, PvZOffsets.SUN_COUNT),
+                field(region, PvZOffsets.SCENE),
+                rowTypes,
+                field(region, PvZOffsets.ADVENTURE_LEVEL),
+                field(region, PvZOffsets.GAME_PAUSED) != 0,
+                field(region, PvZOffsets.ZOMBIE_COUNT),
+                field(region, PvZOffsets.GAME_CLOCK),
+                capturedAtNanos
+        );
+    }
+
+    private static int field(ByteBuffer region, int boardOffset) {
+        return region.getInt(boardOffset - REGION_START);
+    }
+
+    public long getBoardAddress() { return boardAddress; }
+    public int getSun() { return sun; }
+    public int getScene() { return scene; }
+    public int getAdventureLevel() { return adventureLevel; }
+    public boolean isPaused() { return paused; }
+    public int getZombieCount() { return zombieCount; }
+    public int getGameClock() { return gameClock; }
+    public long getCapturedAtNanos() { return capturedAtNanos; }
+
+    public int getRowCount() {
+        return PvZOffsets.getRowCountForScene(scene);
+    }
+
+    public boolean hasPool() {
+        return PvZOffsets.hasPool(scene);
+    }
+
+    public int getRowType(int row) {
+        return rowTypes[row];
+    }
+
+    /**
+     * Tipos de fila del nivel actual (solo las filas que existen en la escena)
+     */
+    public int[] getRowTypes() {
+        return Arrays.copyOf(rowTypes, Math.min(getRowCount(), MAX_ROWS));
+    }
+
+    public long ageNanos() {
+        return System.nanoTime() - capturedAtNanos;
+    }
+}
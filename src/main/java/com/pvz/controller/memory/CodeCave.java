@@ -0,0 +1,111 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Code cave persistente dentro del proceso del juego.
+ *
+ * Se reserva una sola región ejecutable por conexión (un VirtualAllocEx) y se
+ * reparte en slots de tamaño fijo para shellcode, bloques de parámetros y áreas
+ * de resultados. La región solo se libera en {@link #release()}.
+ */
+public class CodeCave {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodeCave.class);
+
+    public static final int DEFAULT_SIZE = 4096;
+    public static final int SLOT_SIZE = 64;
+
+    private final ProcessMemory memory;
+    private final long baseAddress;
+    private final int size;
+    private final int[] slotOwners; // 0 = libre, n = cantidad de slots del bloque que empieza aquí
+    private final boolean[] used;
+    private boolean released;
+
+    private CodeCave(ProcessMemory memory, long baseAddress, int size) {
+        this.memory = memory;
+        this.baseAddress = baseAddress;
+        this.size = size;
+        this.slotOwners = new int[size / SLOT_SIZE];
+        this.used = new boolean[size / SLOT_SIZE];
+    }
+
+    /**
+     * Reserva la región ejecutable en el proceso remoto.
+     * @return el cave, o null si VirtualAllocEx falló
+     */
+    public static CodeCave allocate(ProcessMemory memory, int size) {
+        int rounded = ((size + SLOT_SIZE - 1) / SLOT_SIZE) * SLOT_SIZE;
+        long address = memory.allocateMemory(rounded, true);
+        if (address == 0) {
+            logger.error("Failed to allocate code cave ({} bytes)", rounded);
+            return null;
+        }
+        logger.info("Code cave allocated: {} bytes at 0x{}", rounded, Long.toHexString(address));
+        return new CodeCave(memory, address, rounded);
+    }
+
+    /**
+     * Reserva un bloque contiguo de slots (first-fit).
+     * @return dirección remota del bloque, o 0 si no hay espacio
+     */
+    public synchronized long alloc(int bytes) {
+        if (released) return 0;
+        int needed = Math.max(1, (bytes + SLOT_SIZE - 1) / SLOT_SIZE);
+
+        int run = 0;
+        for (int i = 0; i < used.length; i++) {
+            run = used[i] ? 0 : run + 1;
+            if (run == needed) {
+                int start = i - needed + 1;
+                for (int j = start; j <= i; j++) {
+                    used[j] = true;
+                }
+                slotOwners[start] = needed;
+                return baseAddress + (long) start * SLOT_SIZE;
+            }
+        }
+
+        logger.warn("Code cave full: cannot allocate {} bytes", bytes);
+        return 0;
+    }
+
+    /**
+     * Devuelve un bloque al cave (no toca la memoria remota).
+     */
+    public synchronized void free(long address) {
+        int start = (int) ((address - baseAddress) / SLOT_SIZE);
+        if (start < 0 || start >= used.length || slotOwners[start] == 0) {
+            logger.warn("Ignoring free of unknown cave block 0x{}", Long.toHexString(address));
+            return;
+        }
+        for (int j = start; j < start + slotOwners[start]; j++) {
+            used[j] = false;
+        }
+        slotOwners[start] = 0;
+    }
+
+    /**
+     * Libera toda la región remota. Solo se llama al desconectar.
+     */
+    public synchronized void release() {
+        if (released) return;
+        released = true;
+        memory.freeMemory(baseAddress);
+        logger.info("Code cave released at 0x{}", Long.toHexString(baseAddress));
+    }
+
+    public long getBaseAddress() {
+        return baseAddress;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+}
@@ -1,10 +1,12 @@
 package com.pvz.controller.memory;
 
+import com.pvz.controller.config.ControllerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Code Injector para Plants vs Zombies 1.2.0.1096 GOTY Steam
@@ -13,43 +15,164 @@ public class CodeInjector {
 
     private static final Logger logger = LoggerFactory.getLogger(CodeInjector.class);
 
-    private static final int LAWN_ADDRESS = 0x731C50;
-    private static final int BOARD_OFFSET = 0x868;
-    private static final int CHALLENGE_OFFSET = 0x178;
-    private static final int CALL_PUT_ZOMBIE = 0x0042DCE0;
-    private static final int CALL_PUT_PLANT = 0x004105A0;
+    private static final int BOARD_OFFSET = PvZOffsets.BOARD;
+    private static final int CHALLENGE_OFFSET = PvZOffsets.CHALLENGE;
 
-    private static final int BLOCK_MAIN_LOOP_ADDR = 0x005DD25E;
-    private static final byte BLOCK_MAIN_LOOP_ON = (byte) 0xFE;
-    private static final byte BLOCK_MAIN_LOOP_OFF = (byte) 0xC8;
+    // Rutinas residentes en el code cave: el código se escribe una vez por conexión
+    // y en cada acción solo se reescribe su bloque de parámetros.
+    private static final int ROUTINE_CODE_SIZE = 128;
+    private static final int ROUTINE_PARAM_SIZE = 16;
+
+    // Lotes: un solo hilo remoto llama CALL_PUT_* una vez por entrada y guarda
+    // el EAX de cada llamada (puntero a la entidad creada) en el área de resultados.
+    public static final int MAX_BATCH_ENTRIES = 16;
+    private static final int BATCH_ENTRY_SIZE = 45;
+    private static final int BATCH_SLOT_SIZE = 1024;
 
     private final ProcessMemory memory;
+    private final GameAddresses addresses;
+    private final int lawnAddress;
+    private final int callPutZombie;
+    private final int callPutPlant;
+    private CodeCave cave;
+    private Routine zombieRoutine;
+    private Routine plantRoutine;
+    private long batchSlot;
+    private CommandMailbox mailbox;
+    private FrameBarrier barrier;
+    private GameThreadProbe probe;
+
+    private record Routine(long codeAddress, long paramAddress) {}
+
+    /**
+     * Una entidad a colocar: tipo, fila (0-5) y columna (0-8)
+     */
+    public record Placement(int type, int row, int col) {}
+
+    public CodeInjector(ProcessMemory memory, GameAddresses addresses) {
+        this(memory, addresses, null);
+    }
 
-    public CodeInjector(ProcessMemory memory) {
+    /**
+     * Con una barrera ya armada no se abre {@link GameThreadProbe} (tests, backends sin hilos Win32)
+     */
+    CodeInjector(ProcessMemory memory, GameAddresses addresses, FrameBarrier barrier) {
         this.memory = memory;
+        this.addresses = addresses;
+        this.lawnAddress = (int) addresses.lawn();
+        this.callPutZombie = addresses.callPutZombie();
+        this.callPutPlant = addresses.callPutPlant();
+        this.barrier = barrier;
     }
 
-    private void blockMainLoop(boolean block) {
-        byte value = block ? BLOCK_MAIN_LOOP_ON : BLOCK_MAIN_LOOP_OFF;
-        memory.writeBytes(BLOCK_MAIN_LOOP_ADDR, new byte[]{value});
-        logger.debug("Main loop {}", block ? "BLOCKED" : "UNBLOCKED");
-    }
+    /**
+     * Reserva el code cave e instala las rutinas la primera vez que se necesitan.
+     */
+    private boolean ensureCave() {
+        if (cave != null && !cave.isReleased()) return true;
+        if (!memory.supportsRemoteExecution()) {
+            logger.warn("Code injection is not supported by this memory backend");
+            return false;
+        }
+        if (!addresses.hasFunctions()) {
+            logger.warn("Game function addresses unknown for this build");
+            return false;
+        }
+
+        cave = CodeCave.allocate(memory, CodeCave.DEFAULT_SIZE);
+        if (cave == null) return false;
+
+        if (barrier == null) {
+            probe = GameThreadProbe.open(memory.getProcessId(),
+                    FrameBarrier.parkedInstructionAddress(addresses.blockMainLoop()));
+            if (probe == null) {
+                logger.warn("Frame barrier probe unavailable, using fixed 20ms park");
+            }
+            barrier = new FrameBarrier(memory, addresses.blockMainLoop(), probe);
+        }
 
-    private boolean safeExecuteShellcode(byte[] shellcode) {
         try {
-            blockMainLoop(true);
-            Thread.sleep(20);
-            boolean success = executeShellcode(shellcode);
-            blockMainLoop(false);
-            return success;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            blockMainLoop(false);
+            zombieRoutine = installRoutine(this::buildPutZombieShellcode);
+            plantRoutine = installRoutine(this::buildPutPlantShellcode);
+        } catch (IOException e) {
+            logger.error("Failed to build cave routines: {}", e.getMessage());
+            zombieRoutine = null;
+            plantRoutine = null;
+        }
+
+        batchSlot = cave.alloc(BATCH_SLOT_SIZE);
+
+        if (zombieRoutine == null || plantRoutine == null || batchSlot == 0) {
+            release();
+            return false;
+        }
+
+        if (ControllerConfig.isMailboxMode()) {
+            mailbox = new CommandMailbox(memory, cave);
+            if (!mailbox.install(lawnAddress, BOARD_OFFSET, CHALLENGE_OFFSET, callPutZombie, callPutPlant)) {
+                logger.warn("Mailbox mode unavailable, falling back to remote thread per action");
+                mailbox = null;
+            }
+        }
+        return true;
+    }
+
+    private interface RoutineBuilder {
+        byte[] build(long paramAddress) throws IOException;
+    }
+
+    private Routine installRoutine(RoutineBuilder builder) throws IOException {
+        long params = cave.alloc(ROUTINE_PARAM_SIZE);
+        long code = cave.alloc(ROUTINE_CODE_SIZE);
+        if (params == 0 || code == 0) return null;
+
+        byte[] shellcode = builder.build(params);
+        if (!memory.writeBytes(code, shellcode)) {
+            logger.error("Failed to write routine into code cave");
+            return null;
+        }
+        logger.debug("Routine installed at 0x{} ({} bytes, params at 0x{})",
+                Long.toHexString(code), shellcode.length, Long.toHexString(params));
+        return new Routine(code, params);
+    }
+
+    /**
+     * Libera el code cave. Se llama desde PvZTrainer.disconnect().
+     */
+    public void release() {
+        if (mailbox != null) {
+            boolean stopped = mailbox.stop();
+            mailbox = null;
+            if (!stopped) {
+                // El hilo residente sigue ejecutando código del cave: liberar la región crashearía el juego
+                cave = null;
+            }
+        }
+        if (cave != null) {
+            cave.release();
+            cave = null;
+        }
+        zombieRoutine = null;
+        plantRoutine = null;
+        batchSlot = 0;
+        if (probe != null) {
+            probe.close();
+            probe = null;
+        }
+        barrier = null;
+    }
+
+    private boolean safeExecuteRoutine(Routine routine, int... params) {
+        if (!writeParams(routine, params) || !barrier.park()) {
             return false;
+        }
+        try {
+            return executeRoutine(routine);
         } catch (Exception e) {
             logger.error("Error in safe execute: {}", e.getMessage());
-            blockMainLoop(false);
             return false;
+        } finally {
+            barrier.release();
         }
     }
 
@@ -59,31 +182,39 @@ public class CodeInjector {
 
     public boolean spawnZombie(int zombieType, int row, int col) {
         logger.info("SpawnZombie: type={}, row={}, col={}", zombieType, row, col);
+        if (!ensureCave()) {
+            return false;
+        }
+        if (mailbox != null) {
+            return executeViaMailbox(CommandRing.OP_ZOMBIE, List.of(new Placement(zombieType, row, col)))[0];
+        }
         try {
-            byte[] shellcode = buildPutZombieShellcode(zombieType, row, col);
-            return safeExecuteShellcode(shellcode);
+            return safeExecuteRoutine(zombieRoutine, row, zombieType, col);
         } catch (Exception e) {
             logger.error("Failed to spawn zombie: {}", e.getMessage(), e);
             return false;
         }
     }
 
-    private byte[] buildPutZombieShellcode(int zombieType, int row, int col) throws IOException {
+    /**
+     * Parámetros: [p+0]=row, [p+4]=zombieType, [p+8]=col
+     */
+    private byte[] buildPutZombieShellcode(long params) throws IOException {
         ByteArrayOutputStream code = new ByteArrayOutputStream();
 
         code.write(0x60); // pushad
 
-        code.write(0x68); // push col
-        writeInt32LE(code, col);
+        code.write(0xFF); code.write(0x35); // push [p+8] (col)
+        writeInt32LE(code, (int) params + 8);
 
-        code.write(0x68); // push zombieType
-        writeInt32LE(code, zombieType);
+        code.write(0xFF); code.write(0x35); // push [p+4] (zombieType)
+        writeInt32LE(code, (int) params + 4);
 
-        code.write(0xB8); // mov eax, row
-        writeInt32LE(code, row);
+        code.write(0xA1); // mov eax, [p+0] (row)
+        writeInt32LE(code, (int) params);
 
         code.write(0x8B); code.write(0x0D); // mov ecx, [lawn]
-        writeInt32LE(code, LAWN_ADDRESS);
+        writeInt32LE(code, lawnAddress);
 
         code.write(0x8B); code.write(0x89); // mov ecx, [ecx+board]
         writeInt32LE(code, BOARD_OFFSET);
@@ -92,7 +223,7 @@ public class CodeInjector {
         writeInt32LE(code, CHALLENGE_OFFSET);
 
         code.write(0xBA); // mov edx, call_put_zombie
-        writeInt32LE(code, CALL_PUT_ZOMBIE);
+        writeInt32LE(code, callPutZombie);
 
         code.write(0xFF); code.write(0xD2); // call edx
         code.write(0x61); // popad
@@ -107,9 +238,16 @@ public class CodeInjector {
 
     public boolean plantPlant(int plantType, int row, int col, boolean imitater) {
         logger.info("PlantPlant: type={}, row={}, col={}, imitater={}", plantType, row, col, imitater);
+        if (!ensureCave()) {
+            return false;
+        }
+        if (mailbox != null && !imitater) {
+            return executeViaMailbox(CommandRing.OP_PLANT, List.of(new Placement(plantType, row, col)))[0];
+        }
         try {
-            byte[] shellcode = buildPutPlantShellcode(plantType, row, col, imitater);
-            return safeExecuteShellcode(shellcode);
+            int firstPush = imitater ? plantType : -1;
+            int secondPush = imitater ? 48 : plantType;
+            return safeExecuteRoutine(plantRoutine, row, col, firstPush, secondPush);
         } catch (Exception e) {
             logger.error("Failed to plant: {}", e.getMessage(), e);
             return false;
@@ -120,31 +258,29 @@ public class CodeInjector {
         return plantPlant(plantType, row, col, false);
     }
 
-    private byte[] buildPutPlantShellcode(int plantType, int row, int col, boolean imitater) throws IOException {
+    /**
+     * Parámetros: [p+0]=row, [p+4]=col, [p+8]/[p+12]=tipo
+     * Normal: push -1, push plantType | Imitador: push plantType, push 48
+     */
+    private byte[] buildPutPlantShellcode(long params) throws IOException {
         ByteArrayOutputStream code = new ByteArrayOutputStream();
 
         code.write(0x60); // pushad
 
-        if (imitater) {
-            code.write(0x68);
-            writeInt32LE(code, plantType);
-            code.write(0x68);
-            writeInt32LE(code, 48);
-        } else {
-            code.write(0x68); // push -1
-            writeInt32LE(code, -1);
-            code.write(0x68); // push plantType
-            writeInt32LE(code, plantType);
-        }
+        code.write(0xFF); code.write(0x35); // push [p+8]
+        writeInt32LE(code, (int) params + 8);
 
-        code.write(0xB8); // mov eax, row
-        writeInt32LE(code, row);
+        code.write(0xFF); code.write(0x35); // push [p+12]
+        writeInt32LE(code, (int) params + 12);
 
-        code.write(0x68); // push col
-        writeInt32LE(code, col);
+        code.write(0xA1); // mov eax, [p+0] (row)
+        writeInt32LE(code, (int) params);
+
+        code.write(0xFF); code.write(0x35); // push [p+4] (col)
+        writeInt32LE(code, (int) params + 4);
 
         code.write(0x8B); code.write(0x2D); // mov ebp, [lawn]
-        writeInt32LE(code, LAWN_ADDRESS);
+        writeInt32LE(code, lawnAddress);
 
         code.write(0x8B); code.write(0xAD); // mov ebp, [ebp+board]
         writeInt32LE(code, BOARD_OFFSET);
@@ -152,7 +288,7 @@ public class CodeInjector {
         code.write(0x55); // push ebp
 
         code.write(0xBA); // mov edx, call_put_plant
-        writeInt32LE(code, CALL_PUT_PLANT);
+        writeInt32LE(code, callPutPlant);
 
         code.write(0xFF); code.write(0xD2); // call edx
         code.write(0x61); // popad
@@ -164,35 +300,186 @@ public class CodeInjector {
     }
 
     // ═══════════════════════════════════════════════════════════════════
-    // UTILITIES
+    // BATCH INJECTION
     // ═══════════════════════════════════════════════════════════════════
 
-    private boolean executeShellcode(byte[] shellcode) {
-        long codeAddress = memory.allocateMemory(shellcode.length + 16, true);
-        if (codeAddress == 0) {
-            logger.error("Failed to allocate memory for shellcode");
-            return false;
+    /**
+     * Spawnea varios zombies con un solo bloqueo del main loop y un solo hilo remoto.
+     * @return éxito por entrada (mismo orden que la lista)
+     */
+    public boolean[] spawnZombies(List<Placement> zombies) {
+        logger.info("SpawnZombies batch: {} entries", zombies.size());
+        return executeBatch(zombies, false);
+    }
+
+    /**
+     * Planta varias plantas con un solo bloqueo del main loop y un solo hilo remoto.
+     * @return éxito por entrada (mismo orden que la lista)
+     */
+    public boolean[] plantPlants(List<Placement> plants) {
+        logger.info("PlantPlants batch: {} entries", plants.size());
+        return executeBatch(plants, true);
+    }
+
+    private boolean[] executeBatch(List<Placement> entries, boolean plants) {
+        boolean[] results = new boolean[entries.size()];
+        if (entries.isEmpty() || !ensureCave()) {
+            return results;
+        }
+
+        if (mailbox != null) {
+            return executeViaMailbox(plants ? CommandRing.OP_PLANT : CommandRing.OP_ZOMBIE, entries);
+        }
+
+        for (int start = 0; start < entries.size(); start += MAX_BATCH_ENTRIES) {
+            List<Placement> chunk = entries.subList(start, Math.min(entries.size(), start + MAX_BATCH_ENTRIES));
+            boolean[] chunkResults = executeBatchChunk(chunk, plants);
+            System.arraycopy(chunkResults, 0, results, start, chunkResults.length);
+        }
+        return results;
+    }
+
+    private boolean[] executeBatchChunk(List<Placement> entries, boolean plants) {
+        boolean[] results = new boolean[entries.size()];
+
+        // [código][resultados]: se escriben juntos (resultados en cero) con un solo WriteProcessMemory
+        int codeSize = 3 + entries.size() * BATCH_ENTRY_SIZE;
+        int resultOffset = (codeSize + 3) & ~3;
+        long resultAddress = batchSlot + resultOffset;
+
+        ByteArrayOutputStream code = new ByteArrayOutputStream(resultOffset + entries.size() * 4);
+        code.write(0x60); // pushad
+        for (int i = 0; i < entries.size(); i++) {
+            Placement p = entries.get(i);
+            if (plants) {
+                emitPutPlant(code, p.type(), p.row(), p.col());
+            } else {
+                emitPutZombie(code, p.type(), p.row(), p.col());
+            }
+            code.write(0xA3); // mov [result+i*4], eax
+            writeInt32LE(code, (int) (resultAddress + i * 4L));
+        }
+        code.write(0x61); // popad
+        code.write(0xC3); // ret
+        while (code.size() < resultOffset + entries.size() * 4) {
+            code.write(0);
+        }
+
+        if (!memory.writeBytes(batchSlot, code.toByteArray())) {
+            logger.error("Failed to write batch shellcode");
+            return results;
+        }
+        if (!barrier.park()) {
+            return results;
         }
 
         try {
-            if (!memory.writeBytes(codeAddress, shellcode)) {
-                logger.error("Failed to write shellcode");
-                return false;
+            boolean executed;
+            try {
+                executed = executeRoutine(new Routine(batchSlot, 0));
+            } finally {
+                barrier.release();
+            }
+            if (!executed) {
+                return results;
             }
 
-            boolean success = memory.executeRemoteThread(codeAddress, 0, 5000);
-            if (success) {
-                logger.info("Shellcode executed successfully");
-            } else {
-                logger.error("Shellcode execution failed or timed out");
+            byte[] raw = memory.readBytes(resultAddress, entries.size() * 4);
+            if (raw == null) {
+                logger.error("Failed to read batch results");
+                return results;
             }
-            return success;
+            for (int i = 0; i < results.length; i++) {
+                int entity = (raw[i * 4] & 0xFF)
+                        | (raw[i * 4 + 1] & 0xFF) << 8
+                        | (raw[i * 4 + 2] & 0xFF) << 16
+                        | (raw[i * 4 + 3] & 0xFF) << 24;
+                results[i] = entity != 0;
+            }
+        } catch (Exception e) {
+            logger.error("Error in batch execute: {}", e.getMessage());
+        }
+        return results;
+    }
 
+    private boolean[] executeViaMailbox(int op, List<Placement> entries) {
+        if (!barrier.park()) {
+            return new boolean[entries.size()];
+        }
+        try {
+            return mailbox.execute(op, entries, 5000);
         } finally {
-            memory.freeMemory(codeAddress);
+            barrier.release();
         }
     }
 
+    private void emitPutZombie(ByteArrayOutputStream code, int zombieType, int row, int col) {
+        code.write(0x68); // push col
+        writeInt32LE(code, col);
+        code.write(0x68); // push zombieType
+        writeInt32LE(code, zombieType);
+        code.write(0xB8); // mov eax, row
+        writeInt32LE(code, row);
+        code.write(0x8B); code.write(0x0D); // mov ecx, [lawn]
+        writeInt32LE(code, lawnAddress);
+        code.write(0x8B); code.write(0x89); // mov ecx, [ecx+board]
+        writeInt32LE(code, BOARD_OFFSET);
+        code.write(0x8B); code.write(0x89); // mov ecx, [ecx+challenge]
+        writeInt32LE(code, CHALLENGE_OFFSET);
+        code.write(0xBA); // mov edx, call_put_zombie
+        writeInt32LE(code, callPutZombie);
+        code.write(0xFF); code.write(0xD2); // call edx
+    }
+
+    private void emitPutPlant(ByteArrayOutputStream code, int plantType, int row, int col) {
+        code.write(0x68); // push -1
+        writeInt32LE(code, -1);
+        code.write(0x68); // push plantType
+        writeInt32LE(code, plantType);
+        code.write(0xB8); // mov eax, row
+        writeInt32LE(code, row);
+        code.write(0x68); // push col
+        writeInt32LE(code, col);
+        code.write(0x8B); code.write(0x2D); // mov ebp, [lawn]
+        writeInt32LE(code, lawnAddress);
+        code.write(0x8B); code.write(0xAD); // mov ebp, [ebp+board]
+        writeInt32LE(code, BOARD_OFFSET);
+        code.write(0x55); // push ebp
+        code.write(0xBA); // mov edx, call_put_plant
+        writeInt32LE(code, callPutPlant);
+        code.write(0xFF); code.write(0xD2); // call edx
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // UTILITIES
+    // ═══════════════════════════════════════════════════════════════════
+
+    private boolean writeParams(Routine routine, int... params) {
+        byte[] block = new byte[params.length * 4];
+        for (int i = 0; i < params.length; i++) {
+            int value = params[i];
+            block[i * 4] = (byte) value;
+            block[i * 4 + 1] = (byte) (value >> 8);
+            block[i * 4 + 2] = (byte) (value >> 16);
+            block[i * 4 + 3] = (byte) (value >> 24);
+        }
+        if (!memory.writeBytes(routine.paramAddress(), block)) {
+            logger.error("Failed to write routine parameters");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean executeRoutine(Routine routine) {
+        boolean success = memory.executeRemoteThread(routine.codeAddress(), 0, 5000);
+        if (success) {
+            logger.info("Shellcode executed successfully");
+        } else {
+            logger.error("Shellcode execution failed or timed out");
+        }
+        return success;
+    }
+
     private void writeInt32LE(ByteArrayOutputStream stream, int value) {
         stream.write(value & 0xFF);
         stream.write((value >> 8) & 0xFF);
@@ -206,9 +493,14 @@ public class CodeInjector {
                 (byte) 0x60, (byte) 0x90, (byte) 0x90, (byte) 0x61, (byte) 0xC3
         };
 
-        long codeAddress = memory.allocateMemory(16, true);
+        if (!ensureCave()) {
+            logger.error("Test failed: Could not allocate code cave");
+            return false;
+        }
+
+        long codeAddress = cave.alloc(testCode.length);
         if (codeAddress == 0) {
-            logger.error("Test failed: Could not allocate memory");
+            logger.error("Test failed: No space left in code cave");
             return false;
         }
 
@@ -223,7 +515,7 @@ public class CodeInjector {
             return success;
 
         } finally {
-            memory.freeMemory(codeAddress);
+            cave.free(codeAddress);
         }
     }
 }
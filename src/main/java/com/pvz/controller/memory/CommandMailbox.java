@@ -0,0 +1,262 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mailbox residente: una rutina instalada una sola vez en el code cave que corre en
+ * un hilo remoto permanente y drena un {@link CommandRing}. Cada acción pasa a ser
+ * WriteProcessMemory + sondeo del ack, sin CreateRemoteThread/WaitForSingleObject.
+ *
+ * La rutina solo llama funciones del juego cuando hay registros pendientes, y el
+ * controlador solo publica registros con el main loop bloqueado.
+ */
+public class CommandMailbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandMailbox.class);
+
+    public static final int RING_CAPACITY = 32;
+    private static final int ROUTINE_SIZE = 256;
+    private static final int IDLE_SLEEP_MS = 1;
+    private static final int STOP_TIMEOUT_MS = 1000;
+
+    private final ProcessMemory memory;
+    private final CodeCave cave;
+    private CommandRing ring;
+    private long ringAddress;
+    private long routineAddress;
+    private long thread;
+
+    public CommandMailbox(ProcessMemory memory, CodeCave cave) {
+        this.memory = memory;
+        this.cave = cave;
+    }
+
+    /**
+     * Reserva el ring y la rutina en el cave y arranca el hilo residente.
+     */
+    public boolean install(int lawnAddress, int boardOffset, int challengeOffset,
+                           int callPutZombie, int callPutPlant) {
+        long sleepSlot = RemoteImports.findImportSlot(memory, RemoteImports.GAME_IMAGE_BASE,
+                "kernel32.dll", "Sleep");
+        if (sleepSlot == 0) {
+            logger.warn("Mailbox not available: Sleep import not found");
+            return false;
+        }
+
+        ringAddress = cave.alloc(CommandRing.regionSize(RING_CAPACITY));
+        routineAddress = cave.alloc(ROUTINE_SIZE);
+        if (ringAddress == 0 || routineAddress == 0) {
+            freeSlots();
+            return false;
+        }
+
+        ring = new CommandRing(memory, ringAddress, RING_CAPACITY);
+        byte[] routine = buildDrainRoutine(ring, (int) sleepSlot,
+                lawnAddress, boardOffset, challengeOffset, callPutZombie, callPutPlant);
+
+        if (routine.length > ROUTINE_SIZE || !ring.initialize() || !memory.writeBytes(routineAddress, routine)) {
+            logger.error("Failed to install mailbox routine");
+            freeSlots();
+            return false;
+        }
+
+        thread = memory.startRemoteThread(routineAddress, 0);
+        if (thread == 0) {
+            freeSlots();
+            return false;
+        }
+
+        logger.info("Mailbox installed: ring at 0x{}, routine at 0x{} ({} bytes)",
+                Long.toHexString(ringAddress), Long.toHexString(routineAddress), routine.length);
+        return true;
+    }
+
+    /**
+     * Publica un lote y espera a que la rutina lo procese.
+     * El main loop debe estar bloqueado durante toda la llamada.
+     */
+    public boolean[] execute(int op, List<CodeInjector.Placement> entries, long timeoutMs) {
+        boolean[] results = new boolean[entries.size()];
+        if (!isActive()) return results;
+
+        for (int start = 0; start < entries.size(); start += RING_CAPACITY) {
+            List<CodeInjector.Placement> chunk = entries.subList(start, Math.min(entries.size(), start + RING_CAPACITY));
+            Integer first = ring.publish(op, chunk);
+            if (first == null || !ring.awaitAck(first + chunk.size(), timeoutMs)) {
+                return results;
+            }
+            boolean[] chunkResults = ring.readResults(first, chunk.size());
+            System.arraycopy(chunkResults, 0, results, start, chunkResults.length);
+        }
+        return results;
+    }
+
+    /**
+     * Detiene el hilo residente.
+     * @return false si el hilo no terminó (en ese caso el cave NO debe liberarse)
+     */
+    public boolean stop() {
+        if (thread == 0) return true;
+
+        ring.requestStop();
+        boolean exited = memory.joinRemoteThread(thread, STOP_TIMEOUT_MS);
+        if (exited) {
+            thread = 0;
+            freeSlots();
+            logger.info("Mailbox stopped");
+        } else {
+            logger.error("Mailbox thread still running; code cave will not be released");
+        }
+        return exited;
+    }
+
+    public boolean isActive() {
+        return thread != 0;
+    }
+
+    private void freeSlots() {
+        if (ringAddress != 0) cave.free(ringAddress);
+        if (routineAddress != 0) cave.free(routineAddress);
+        ringAddress = 0;
+        routineAddress = 0;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // RESIDENT ROUTINE (x86)
+    // ═══════════════════════════════════════════════════════════════════
+
+    private static byte[] buildDrainRoutine(CommandRing ring, int sleepSlot,
+                                            int lawn, int boardOffset, int challengeOffset,
+                                            int callPutZombie, int callPutPlant) {
+        X86 a = new X86();
+
+        // El hilo vuelve al thunk de kernel32: ebx/esi/edi/ebp se devuelven como estaban
+        a.bytes(0x53, 0x56, 0x57, 0x55);                                       // push ebx; push esi; push edi; push ebp
+
+        a.label("top");
+        a.bytes(0x83, 0x3D); a.int32((int) ring.stopAddress()); a.bytes(0x00); // cmp dword [stop], 0
+        a.jcc(0x85, "exit");                                                   // jne exit
+        a.bytes(0xA1); a.int32((int) ring.ackAddress());                        // mov eax, [ack]
+        a.bytes(0x3B, 0x05); a.int32((int) ring.headAddress());                 // cmp eax, [head]
+        a.jcc(0x85, "work");                                                   // jne work
+        a.bytes(0x6A, IDLE_SLEEP_MS);                                          // push 1
+        a.bytes(0xFF, 0x15); a.int32(sleepSlot);                               // call [Sleep]
+        a.jmp("top");
+
+        a.label("work");
+        a.bytes(0x89, 0xC6);                                                   // mov esi, eax
+        a.bytes(0x81, 0xE6); a.int32(ring.getCapacity() - 1);                  // and esi, mask
+        a.bytes(0x89, 0xF7);                                                   // mov edi, esi
+        a.bytes(0xC1, 0xE6, 0x04);                                             // shl esi, 4
+        a.bytes(0x81, 0xC6); a.int32((int) ring.recordsAddress());             // add esi, records
+        a.bytes(0xC1, 0xE7, 0x02);                                             // shl edi, 2
+        a.bytes(0x81, 0xC7); a.int32((int) ring.resultsAddress());             // add edi, results
+        a.bytes(0xC7, 0x07); a.int32(0);                                       // mov dword [edi], 0
+        a.bytes(0x8B, 0x06);                                                   // mov eax, [esi] (op)
+        a.bytes(0x83, 0xF8, CommandRing.OP_ZOMBIE);                            // cmp eax, OP_ZOMBIE
+        a.jcc(0x84, "zombie");
+        a.bytes(0x83, 0xF8, CommandRing.OP_PLANT);                             // cmp eax, OP_PLANT
+        a.jcc(0x84, "plant");
+        a.jmp("done");
+
+        a.label("zombie");
+        a.bytes(0xFF, 0x76, 0x0C);                                             // push [esi+12] (col)
+        a.bytes(0xFF, 0x76, 0x04);                                             // push [esi+4] (type)
+        a.bytes(0x8B, 0x46, 0x08);                                             // mov eax, [esi+8] (row)
+        a.bytes(0x8B, 0x0D); a.int32(lawn);                                    // mov ecx, [lawn]
+        a.bytes(0x8B, 0x89); a.int32(boardOffset);                             // mov ecx, [ecx+board]
+        a.bytes(0x8B, 0x89); a.int32(challengeOffset);                         // mov ecx, [ecx+challenge]
+        a.bytes(0xBA); a.int32(callPutZombie);                                 // mov edx, call_put_zombie
+        a.bytes(0xFF, 0xD2);                                                   // call edx
+        a.jmp("store");
+
+        a.label("plant");
+        a.bytes(0x6A, 0xFF);                                                   // push -1
+        a.bytes(0xFF, 0x76, 0x04);                                             // push [esi+4] (type)
+        a.bytes(0x8B, 0x46, 0x08);                                             // mov eax, [esi+8] (row)
+        a.bytes(0xFF, 0x76, 0x0C);                                             // push [esi+12] (col)
+        a.bytes(0x8B, 0x2D); a.int32(lawn);                                    // mov ebp, [lawn]
+        a.bytes(0x8B, 0xAD); a.int32(boardOffset);                             // mov ebp, [ebp+board]
+        a.bytes(0x55);                                                         // push ebp
+        a.bytes(0xBA); a.int32(callPutPlant);                                  // mov edx, call_put_plant
+        a.bytes(0xFF, 0xD2);                                                   // call edx
+
+        a.label("store");
+        a.bytes(0x89, 0x07);                                                   // mov [edi], eax
+
+        a.label("done");
+        a.bytes(0xFF, 0x05); a.int32((int) ring.ackAddress());                 // inc dword [ack]
+        a.jmp("top");
+
+        a.label("exit");
+        a.bytes(0x5D, 0x5F, 0x5E, 0x5B);                                       // pop ebp; pop edi; pop esi; pop ebx
+        a.bytes(0x31, 0xC0);                                                   // xor eax, eax
+        a.bytes(0xC2, 0x04, 0x00);                                             // ret 4
+
+        return a.assemble();
+    }
+
+    /**
+     * Ensamblador mínimo con etiquetas para saltos rel32.
+     */
+    private static class X86 {
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final Map<String, Integer> labels = new HashMap<>();
+        private final List<Map.Entry<Integer, String>> fixups = new ArrayList<>();
+
+        void bytes(int... values) {
+            for (int v : values) code.write(v);
+        }
+
+        void int32(int value) {
+            code.write(value & 0xFF);
+            code.write((value >> 8) & 0xFF);
+            code.write((value >> 16) & 0xFF);
+            code.write((value >> 24) & 0xFF);
+        }
+
+        void label(String name) {
+            labels.put(name, code.size());
+        }
+
+        void jmp(String label) {
+            code.write(0xE9);
+            rel32(label);
+        }
+
+        void jcc(int opcode, String label) {
+            code.write(0x0F);
+            code.write(opcode);
+            rel32(label);
+        }
+
+        private void rel32(String label) {
+            fixups.add(Map.entry(code.size(), label));
+            int32(0);
+        }
+
+        byte[] assemble() {
+            byte[] out = code.toByteArray();
+            for (Map.Entry<Integer, String> fixup : fixups) {
+                Integer target = labels.get(fixup.getValue());
+                if (target == null) {
+                    throw new IllegalStateException("Undefined label: " + fixup.getValue());
+                }
+                int at = fixup.getKey();
+                int rel = target - (at + 4);
+                out[at] = (byte) rel;
+                out[at + 1] = (byte) (rel >> 8);
+                out[at + 2] = (byte) (rel >> 16);
+                out[at + 3] = (byte) (rel >> 24);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Ring buffer de un solo productor en memoria del juego (protocolo del mailbox residente).
+ *
+ * Layout (todo little-endian, enteros de 32 bits):
+ * <pre>
+ *   +0   head      secuencia publicada por el controlador
+ *   +4   ack       secuencia consumida por la rutina residente
+ *   +8   stop      != 0 para que la rutina termine
+ *   +12  capacity  cantidad de registros (potencia de 2)
+ *   +16  records   capacity x [op, type, row, col]
+ *   ...  results   capacity x int (EAX de cada llamada, 0 = falló)
+ * </pre>
+ * El controlador solo escribe records y head; la rutina solo escribe results y ack.
+ * Las secuencias son enteros que dan la vuelta en 2^32 y se comparan por diferencia.
+ */
+public class CommandRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandRing.class);
+
+    public static final int OP_ZOMBIE = 1;
+    public static final int OP_PLANT = 2;
+
+    public static final int HEAD_OFFSET = 0;
+    public static final int ACK_OFFSET = 4;
+    public static final int STOP_OFFSET = 8;
+    public static final int CAPACITY_OFFSET = 12;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 16;
+
+    private final ProcessMemory memory;
+    private final long baseAddress;
+    private final int capacity;
+    private int head;
+
+    public CommandRing(ProcessMemory memory, long baseAddress, int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.memory = memory;
+        this.baseAddress = baseAddress;
+        this.capacity = capacity;
+    }
+
+    public static int regionSize(int capacity) {
+        return HEADER_SIZE + capacity * RECORD_SIZE + capacity * 4;
+    }
+
+    /**
+     * Escribe el header inicial (head = ack = 0, stop = 0).
+     */
+    public boolean initialize() {
+        byte[] header = new byte[HEADER_SIZE];
+        putInt(header, CAPACITY_OFFSET, capacity);
+        head = 0;
+        return memory.writeBytes(baseAddress, header);
+    }
+
+    /**
+     * Publica un lote de registros y avanza head.
+     * @return secuencia del primer registro, o null si no hay espacio
+     */
+    public Integer publish(int op, List<CodeInjector.Placement> entries) {
+        int count = entries.size();
+        if (count == 0 || count > capacity) return null;
+
+        int ack = readAck();
+        if (head - ack + count > capacity) {
+            logger.warn("Command ring full (head={}, ack={}, pending={})", head, ack, count);
+            return null;
+        }
+
+        int first = head;
+        int startIndex = first & (capacity - 1);
+        int firstPart = Math.min(count, capacity - startIndex);
+
+        if (!writeRecords(startIndex, op, entries.subList(0, firstPart))) return null;
+        if (firstPart < count && !writeRecords(0, op, entries.subList(firstPart, count))) return null;
+
+        // head se publica al final: la rutina nunca ve registros a medio escribir
+        if (!memory.writeInt(baseAddress + HEAD_OFFSET, first + count)) return null;
+        head = first + count;
+        return first;
+    }
+
+    private boolean writeRecords(int startIndex, int op, List<CodeInjector.Placement> entries) {
+        byte[] block = new byte[entries.size() * RECORD_SIZE];
+        for (int i = 0; i < entries.size(); i++) {
+            CodeInjector.Placement p = entries.get(i);
+            int offset = i * RECORD_SIZE;
+            putInt(block, offset, op);
+            putInt(block, offset + 4, p.type());
+            putInt(block, offset + 8, p.row());
+            putInt(block, offset + 12, p.col());
+        }
+        return memory.writeBytes(recordsAddress() + (long) startIndex * RECORD_SIZE, block);
+    }
+
+    /**
+     * Espera a que la rutina confirme hasta la secuencia indicada (exclusiva).
+     */
+    public boolean awaitAck(int sequence, long timeoutMs) {
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        int spins = 0;
+        while (true) {
+            if (readAck() - sequence >= 0) return true;
+            if (System.nanoTime() - deadline >= 0) {
+                logger.warn("Command ring ack timeout (waiting for {}, ack={})", sequence, readAck());
+                return false;
+            }
+            if (spins++ < 50) {
+                Thread.onSpinWait();
+            } else {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lee los resultados de {@code count} registros a partir de {@code firstSequence}.
+     */
+    public boolean[] readResults(int firstSequence, int count) {
+        boolean[] results = new boolean[count];
+        byte[] raw = memory.readBytes(resultsAddress(), capacity * 4);
+        if (raw == null) return results;
+
+        for (int i = 0; i < count; i++) {
+            int offset = ((firstSequence + i) & (capacity - 1)) * 4;
+            results[i] = (raw[offset] | raw[offset + 1] | raw[offset + 2] | raw[offset + 3]) != 0;
+        }
+        return results;
+    }
+
+    public int readAck() {
+        return memory.readInt(baseAddress + ACK_OFFSET);
+    }
+
+    public boolean requestStop() {
+        return memory.writeInt(baseAddress + STOP_OFFSET, 1);
+    }
+
+    public long headAddress() { return baseAddress + HEAD_OFFSET; }
+    public long ackAddress() { return baseAddress + ACK_OFFSET; }
+    public long stopAddress() { return baseAddress + STOP_OFFSET; }
+    public long recordsAddress() { return baseAddress + HEADER_SIZE; }
+    public long resultsAddress() { return recordsAddress() + (long) capacity * RECORD_SIZE; }
+    public int getCapacity() { return capacity; }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+}
@@ -0,0 +1,365 @@
+package com.pvz.controller.memory;
+
+import com.pvz.controller.memory.TrainerExecutor.ExecutionResult;
+import com.pvz.controller.model.CommandSource;
+import com.pvz.controller.model.GameCommand;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola del hilo actuador con clases de prioridad y reparto justo entre equipos.
+ *
+ * Clases (de mayor a menor, el orden de {@link CommandSource}): SYSTEM, GIFT, BONUS, HTTP,
+ * CHAT, LIKES. Siempre sale primero la clase más alta con trabajo pendiente, así un
+ * aluvión de acciones gratis por chat no retrasa un regalo.
+ *
+ * Dentro de una clase, Plantas, Zombies y el resto (sol, pausa...) tienen filas propias y
+ * se reparten el actuador por weighted fair queuing: cada tarea recibe un fin virtual
+ * {@code max(reloj de la clase, fin anterior de su fila) + costo / peso} y sale la de
+ * menor fin. El costo de un spawn es la cantidad de zombies, y el de un grupo de un lote
+ * (varios plant o spawn_zombie en una sola inyección) la suma de sus comandos.
+ *
+ * Acotada a {@code capacity}: si se llena se sacan primero las vencidas y, si no alcanza,
+ * se desplaza la más nueva de la clase más baja cuando la que entra es más prioritaria.
+ */
+final class CommandScheduler {
+
+    static final int LANE_PLANTAS = 0;
+    static final int LANE_ZOMBIES = 1;
+    static final int LANE_OTHER = 2;
+    private static final int LANES = 3;
+
+    private static final CommandSource[] CLASSES = CommandSource.values();
+    private static final int LATENCY_WINDOW = 1024;
+
+    /**
+     * Una tarea del actuador: un comando ({@code command}), un grupo de un lote que se
+     * ejecuta junto ({@code group}, con {@code command} null) o trabajo interno (ambos
+     * vacíos). {@code deadline} en nanoTime (0 = sin plazo).
+     */
+    record Task(GameCommand command, List<GameCommand> group, CommandSource source,
+                Callable<ExecutionResult> work, CompletableFuture<ExecutionResult> future,
+                long enqueuedAt, long deadline) {
+
+        boolean isExpired(long now) {
+            return deadline != 0 && now - deadline > 0;
+        }
+
+        /**
+         * Comandos que representa (0 para trabajo interno)
+         */
+        int size() {
+            return command != null ? 1 : group.size();
+        }
+
+        int lane() {
+            GameCommand first = command != null ? command : group.isEmpty() ? null : group.get(0);
+            if (first == null) return LANE_OTHER;
+            if (first.isPlantCommand()) return LANE_PLANTAS;
+            if (first.isSpawnCommand()) return LANE_ZOMBIES;
+            return LANE_OTHER;
+        }
+
+        double cost() {
+            if (command != null) return costOf(command);
+            double cost = 0;
+            for (GameCommand member : group) {
+                cost += costOf(member);
+            }
+            return Math.max(1, cost);
+        }
+
+        private static double costOf(GameCommand command) {
+            return command.isSpawnCommand() ? Math.max(1, command.getCount()) : 1;
+        }
+    }
+
+    /**
+     * Resultado de {@link #offer}: las vencidas y la desplazada las completa el llamador
+     */
+    record Admission(boolean accepted, List<Task> expired, Task displaced) {}
+
+    private record Entry(Task task, double finish) {}
+
+    /**
+     * Fila de un equipo dentro de una clase, con el fin virtual de su última tarea
+     */
+    private static final class Lane {
+        final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        double finish;
+    }
+
+    private final int capacity;
+    private final double[] weights;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    // [clase][fila]
+    private final Lane[][] lanes;
+    private final double[] virtualTime;
+    private final int[] classSize;
+    private int size;
+
+    private final LatencyWindow[] latency;
+
+    CommandScheduler(int capacity, double plantasWeight, double zombiesWeight) {
+        this.capacity = capacity;
+        this.weights = new double[]{plantasWeight, zombiesWeight, 1};
+        this.lanes = new Lane[CLASSES.length][LANES];
+        this.virtualTime = new double[CLASSES.length];
+        this.classSize = new int[CLASSES.length];
+        this.latency = new LatencyWindow[CLASSES.length];
+        for (int c = 0; c < CLASSES.length; c++) {
+            for (int l = 0; l < LANES; l++) {
+                lanes[c][l] = new Lane();
+            }
+            latency[c] = new LatencyWindow();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // ENCOLAR / SACAR
+    // ═══════════════════════════════════════════════════════════════════
+
+    Admission offer(Task task) {
+        lock.lock();
+        try {
+            List<Task> expired = List.of();
+            Task displaced = null;
+            if (size >= capacity) {
+                expired = removeExpired(System.nanoTime());
+            }
+            if (size >= capacity) {
+                displaced = displaceBelow(task.source().ordinal());
+                if (displaced == null) {
+                    return new Admission(false, expired, null);
+                }
+            }
+
+            int c = task.source().ordinal();
+            int l = task.lane();
+            Lane lane = lanes[c][l];
+            double start = Math.max(virtualTime[c], lane.finish);
+            lane.finish = start + task.cost() / weights[l];
+            lane.entries.addLast(new Entry(task, lane.finish));
+            classSize[c]++;
+            size++;
+            notEmpty.signal();
+            return new Admission(true, expired, displaced);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * La siguiente tarea: clase más alta con trabajo, y dentro de ella la de menor fin virtual
+     */
+    Task take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+
+            int c = 0;
+            while (classSize[c] == 0) c++;
+
+            Lane best = null;
+            for (Lane lane : lanes[c]) {
+                Entry head = lane.entries.peekFirst();
+                if (head != null && (best == null || head.finish() < best.entries.peekFirst().finish())) {
+                    best = lane;
+                }
+            }
+
+            Entry entry = best.entries.pollFirst();
+            virtualTime[c] = entry.finish();
+            classSize[c]--;
+            size--;
+            if (classSize[c] == 0) {
+                // Clase vacía: el reloj vuelve a cero (nadie queda con crédito acumulado)
+                virtualTime[c] = 0;
+                for (Lane lane : lanes[c]) {
+                    lane.finish = 0;
+                }
+            }
+            return entry.task();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Task> removeExpired(long now) {
+        List<Task> expired = new ArrayList<>();
+        for (int c = 0; c < CLASSES.length; c++) {
+            for (Lane lane : lanes[c]) {
+                Iterator<Entry> it = lane.entries.iterator();
+                while (it.hasNext()) {
+                    Task task = it.next().task();
+                    if (task.isExpired(now)) {
+                        it.remove();
+                        expired.add(task);
+                        classSize[c]--;
+                        size--;
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Saca la tarea más nueva de la clase más baja, si es menos prioritaria que {@code incomingClass}
+     */
+    private Task displaceBelow(int incomingClass) {
+        int c = CLASSES.length - 1;
+        while (c > incomingClass && classSize[c] == 0) c--;
+        if (c <= incomingClass) return null;
+
+        Lane newest = null;
+        for (Lane lane : lanes[c]) {
+            Entry tail = lane.entries.peekLast();
+            if (tail != null && (newest == null || tail.finish() > newest.entries.peekLast().finish())) {
+                newest = lane;
+            }
+        }
+
+        Entry entry = newest.entries.pollLast();
+        Entry previous = newest.entries.peekLast();
+        newest.finish = previous != null ? previous.finish() : virtualTime[c];
+        classSize[c]--;
+        size--;
+        return entry.task();
+    }
+
+    /**
+     * Lugar que ocupa ahora la tarea de {@code future} en el orden de {@link #take}: las
+     * clases más altas enteras, más las de su clase con menor fin virtual (en empate sale
+     * la fila de menor índice), más ella misma. Lo que llegue después con más prioridad
+     * puede pasarla, así que vale para el momento de la consulta.
+     *
+     * @return posición desde 1, o 0 si ya no está en cola (en el actuador o terminada)
+     */
+    int positionOf(CompletableFuture<ExecutionResult> future) {
+        lock.lock();
+        try {
+            for (int c = 0; c < CLASSES.length; c++) {
+                if (classSize[c] == 0) continue;
+                for (int l = 0; l < LANES; l++) {
+                    int inLane = 0;
+                    for (Entry entry : lanes[c][l].entries) {
+                        if (entry.task().future() == future) {
+                            return ahead(c, l, inLane, entry.finish()) + 1;
+                        }
+                        inLane++;
+                    }
+                }
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tareas que {@link #take} sacaría antes que la {@code inLane}-ésima de la fila {@code l}
+     */
+    private int ahead(int c, int l, int inLane, double finish) {
+        int ahead = inLane;
+        for (int higher = 0; higher < c; higher++) {
+            ahead += classSize[higher];
+        }
+        for (int other = 0; other < LANES; other++) {
+            if (other == l) continue;
+            for (Entry entry : lanes[c][other].entries) {
+                if (entry.finish() > finish || (entry.finish() == finish && other > l)) break;
+                ahead++;
+            }
+        }
+        return ahead;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LATENCIA POR CLASE
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Desde que se encoló hasta que terminó (espera + ejecución)
+     */
+    void recordLatency(CommandSource source, long nanos) {
+        latency[source.ordinal()].add(nanos);
+    }
+
+    /**
+     * Una línea por clase con tráfico: en cola y p50/p95/p99/máx de las últimas {@value #LATENCY_WINDOW}
+     */
+    String getStats() {
+        int[] queued;
+        lock.lock();
+        try {
+            queued = classSize.clone();
+        } finally {
+            lock.unlock();
+        }
+
+        StringBuilder sb = new StringBuilder("🚦 Prioridades (latencia encolado→listo, últimas " + LATENCY_WINDOW + "):");
+        boolean any = false;
+        for (CommandSource source : CLASSES) {
+            long[] samples = latency[source.ordinal()].snapshot();
+            if (samples.length == 0 && queued[source.ordinal()] == 0) continue;
+            any = true;
+            Arrays.sort(samples);
+            sb.append(String.format("%n   %-6s en cola %3d | p50 %s | p95 %s | p99 %s | máx %s (n=%d)",
+                    source, queued[source.ordinal()],
+                    percentileMs(samples, 0.50), percentileMs(samples, 0.95), percentileMs(samples, 0.99),
+                    percentileMs(samples, 1.0), samples.length));
+        }
+        if (!any) {
+            sb.append(" sin comandos todavía");
+        }
+        return sb.toString();
+    }
+
+    private static String percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) return "-";
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return String.format("%.1f ms", sorted[Math.max(0, index)] / 1e6);
+    }
+
+    /**
+     * Ring de las últimas muestras (lo escribe el actuador, lo lee quien pide stats)
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_WINDOW];
+        private int count;
+        private int next;
+
+        synchronized void add(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) count++;
+        }
+
+        synchronized long[] snapshot() {
+            return Arrays.copyOf(samples, count);
+        }
+    }
+}
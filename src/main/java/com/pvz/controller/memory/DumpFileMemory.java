@@ -0,0 +1,270 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Backend de solo lectura sobre un volcado de memoria capturado, mapeado con
+ * {@link FileChannel#map}. Permite correr el trainer (búsqueda de la base,
+ * espejo del Board, getLevelInfo, escáneres) sin el juego, de forma determinista.
+ *
+ * Tabla de regiones (archivo {@code <dump>.regions}, una por línea, en hex):
+ * <pre>
+ *   # vaddr    fileOffset  length
+ *   00400000   00000000    00351000
+ *   02A10000   00351000    00100000
+ * </pre>
+ */
+public class DumpFileMemory implements ProcessMemory {
+
+    private static final Logger logger = LoggerFactory.getLogger(DumpFileMemory.class);
+
+    public static final String REGIONS_SUFFIX = ".regions";
+
+    /**
+     * Una región del proceso: [address, address + length) está en el archivo a partir de fileOffset
+     */
+    public record Region(long address, long fileOffset, long length) {}
+
+    private final Path dumpFile;
+    private final long[] starts;
+    private final long[] ends;
+    private final MappedByteBuffer[] mapped;
+    private volatile boolean closed;
+
+    public DumpFileMemory(Path dumpFile, List<Region> regions) throws IOException {
+        this.dumpFile = dumpFile;
+
+        List<Region> sorted = new ArrayList<>(regions);
+        sorted.sort(Comparator.comparingLong(Region::address));
+
+        starts = new long[sorted.size()];
+        ends = new long[sorted.size()];
+        mapped = new MappedByteBuffer[sorted.size()];
+
+        try (FileChannel channel = FileChannel.open(dumpFile, StandardOpenOption.READ)) {
+            for (int i = 0; i < sorted.size(); i++) {
+                Region region = sorted.get(i);
+                if (region.length() <= 0 || region.length() > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid region length: " + region);
+                }
+                if (region.fileOffset() + region.length() > channel.size()) {
+                    throw new IOException("Region beyond end of dump: " + region);
+                }
+                if (i > 0 && region.address() < ends[i - 1]) {
+                    throw new IOException("Overlapping regions at 0x" + Long.toHexString(region.address()));
+                }
+                starts[i] = region.address();
+                ends[i] = region.address() + region.length();
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, region.fileOffset(), region.length());
+                mapped[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        logger.info("Memory dump mapped: {} ({} regions)", dumpFile, sorted.size());
+    }
+
+    /**
+     * Abre un volcado usando su tabla de regiones {@code <dump>.regions}
+     */
+    public static DumpFileMemory open(Path dumpFile) throws IOException {
+        Path table = dumpFile.resolveSibling(dumpFile.getFileName() + REGIONS_SUFFIX);
+        return new DumpFileMemory(dumpFile, readRegionTable(table));
+    }
+
+    public static List<Region> readRegionTable(Path table) throws IOException {
+        List<Region> regions = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(table)) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+
+            String[] parts = trimmed.split("\\s+");
+            if (parts.length != 3) {
+                throw new IOException(table + ":" + lineNumber + ": expected 'vaddr fileOffset length'");
+            }
+            try {
+                regions.add(new Region(
+                        Long.parseUnsignedLong(parts[0], 16),
+                        Long.parseUnsignedLong(parts[1], 16),
+                        Long.parseUnsignedLong(parts[2], 16)));
+            } catch (NumberFormatException e) {
+                throw new IOException(table + ":" + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return regions;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LECTURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Índice de la región que contiene {@code address}, o -1
+     */
+    private int regionOf(long address) {
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (address < starts[mid]) {
+                high = mid - 1;
+            } else if (address >= ends[mid]) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Vista de solo lectura sobre el volcado (sin copia).
+     * @return la vista, o null si el rango no está completo dentro de una región
+     */
+    public ByteBuffer slice(long address, int length) {
+        int index = regionOf(address);
+        if (index < 0 || address + length > ends[index]) {
+            return null;
+        }
+        return mapped[index].slice((int) (address - starts[index]), length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Copia [address, address + length) en {@code target} desde su posición
+     * (puede cruzar regiones contiguas). No modifica la posición.
+     */
+    private boolean copy(long address, int length, ByteBuffer target) {
+        int written = 0;
+        while (written < length) {
+            long current = address + written;
+            int index = regionOf(current);
+            if (index < 0) {
+                logger.error("Failed to read {} bytes at address: 0x{} (not in dump)",
+                        length, Long.toHexString(address));
+                return false;
+            }
+            int chunk = (int) Math.min(length - written, ends[index] - current);
+            target.put(target.position() + written, mapped[index], (int) (current - starts[index]), chunk);
+            written += chunk;
+        }
+        return true;
+    }
+
+    @Override
+    public int readInt(long address) {
+        int index = regionOf(address);
+        if (index >= 0 && address + 4 <= ends[index]) {
+            return mapped[index].getInt((int) (address - starts[index]));
+        }
+        byte[] bytes = readBytes(address, 4);
+        return bytes != null ? ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt() : 0;
+    }
+
+    @Override
+    public byte[] readBytes(long address, int length) {
+        byte[] bytes = new byte[length];
+        return copy(address, length, ByteBuffer.wrap(bytes)) ? bytes : null;
+    }
+
+    @Override
+    public boolean readBlock(long address, ByteBuffer target) {
+        return copy(address, target.remaining(), target);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // SOLO LECTURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    private boolean readOnly(long address) {
+        logger.warn("Ignoring write at 0x{}: memory dump is read-only", Long.toHexString(address));
+        return false;
+    }
+
+    @Override
+    public boolean writeInt(long address, int value) {
+        return readOnly(address);
+    }
+
+    @Override
+    public boolean writeBytes(long address, byte[] data) {
+        return readOnly(address);
+    }
+
+    @Override
+    public boolean writeBlock(long address, ByteBuffer source) {
+        return readOnly(address);
+    }
+
+    @Override
+    public boolean supportsRemoteExecution() {
+        return false;
+    }
+
+    @Override
+    public long allocateMemory(int size, boolean executable) {
+        return 0;
+    }
+
+    @Override
+    public boolean freeMemory(long address) {
+        return false;
+    }
+
+    @Override
+    public boolean executeRemoteThread(long codeAddress, long paramAddress, int timeout) {
+        return false;
+    }
+
+    @Override
+    public long startRemoteThread(long codeAddress, long paramAddress) {
+        return 0;
+    }
+
+    @Override
+    public boolean joinRemoteThread(long thread, int timeout) {
+        return false;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PROCESO
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Un volcado no tiene proceso asociado
+     */
+    @Override
+    public int getProcessId() {
+        return -1;
+    }
+
+    public Path getDumpFile() {
+        return dumpFile;
+    }
+
+    @Override
+    public void close() {
+        // Los MappedByteBuffer se liberan con el GC
+        closed = true;
+        logger.info("Memory dump closed: {}", dumpFile);
+    }
+
+    @Override
+    public boolean isValid() {
+        return !closed;
+    }
+}
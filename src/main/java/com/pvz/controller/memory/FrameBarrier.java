@@ -0,0 +1,143 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Barrera sincronizada con el frame loop del juego.
+ *
+ * En lugar de parchear el salto del main loop y dormir 20 ms "esperando" que el
+ * juego se detenga, la barrera hace un handshake: solicita el bloqueo, sondea con
+ * backoff acotado hasta que el {@link ParkProbe} confirma que el hilo del juego está
+ * estacionado, ejecuta, y libera. La latencia sigue el frame real del juego.
+ *
+ * Estados: RELEASED → REQUESTED → PARKED → RELEASED
+ */
+public class FrameBarrier {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameBarrier.class);
+
+    private static final byte BLOCK_MAIN_LOOP_ON = (byte) 0xFE;
+    private static final byte BLOCK_MAIN_LOOP_OFF = (byte) 0xC8;
+
+    // Sin sonda disponible se conserva el comportamiento anterior
+    private static final long FALLBACK_PARK_MS = 20;
+
+    private static final int SPIN_POLLS = 32;
+    private static final long MAX_BACKOFF_MICROS = 2_000;
+    private static final long DEFAULT_PARK_TIMEOUT_MS = 250;
+
+    public enum State { RELEASED, REQUESTED, PARKED }
+
+    /**
+     * Indica si el hilo del juego está detenido en el salto parcheado.
+     */
+    @FunctionalInterface
+    public interface ParkProbe {
+        boolean isParked();
+    }
+
+    private final ProcessMemory memory;
+    private final long blockAddress;
+    private final ParkProbe probe;
+    private final long parkTimeoutMs;
+    private volatile State state = State.RELEASED;
+    private long lastParkNanos;
+
+    /**
+     * @param blockAddress byte del salto del main loop a parchear (ver {@link GameAddresses#blockMainLoop()})
+     */
+    public FrameBarrier(ProcessMemory memory, long blockAddress, ParkProbe probe) {
+        this(memory, blockAddress, probe, DEFAULT_PARK_TIMEOUT_MS);
+    }
+
+    public FrameBarrier(ProcessMemory memory, long blockAddress, ParkProbe probe, long parkTimeoutMs) {
+        this.memory = memory;
+        this.blockAddress = blockAddress;
+        this.probe = probe;
+        this.parkTimeoutMs = parkTimeoutMs;
+    }
+
+    /**
+     * Solicita el bloqueo y espera a que el juego esté estacionado.
+     * @return true si el juego quedó estacionado; si falla, la barrera queda liberada
+     */
+    public boolean park() {
+        long start = System.nanoTime();
+
+        if (!memory.writeBytes(blockAddress, new byte[]{BLOCK_MAIN_LOOP_ON})) {
+            return false;
+        }
+        state = State.REQUESTED;
+
+        if (probe == null) {
+            try {
+                Thread.sleep(FALLBACK_PARK_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                release();
+                return false;
+            }
+            state = State.PARKED;
+            lastParkNanos = System.nanoTime() - start;
+            return true;
+        }
+
+        long deadline = start + parkTimeoutMs * 1_000_000L;
+        long backoffMicros = 50;
+        int polls = 0;
+
+        while (!probe.isParked()) {
+            if (System.nanoTime() - deadline >= 0) {
+                logger.warn("Game did not park within {}ms, releasing", parkTimeoutMs);
+                release();
+                return false;
+            }
+            if (polls++ < SPIN_POLLS) {
+                Thread.onSpinWait();
+            } else {
+                try {
+                    Thread.sleep(backoffMicros / 1000, (int) (backoffMicros % 1000) * 1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    release();
+                    return false;
+                }
+                backoffMicros = Math.min(backoffMicros * 2, MAX_BACKOFF_MICROS);
+            }
+        }
+
+        state = State.PARKED;
+        lastParkNanos = System.nanoTime() - start;
+        logger.debug("Main loop PARKED after {} polls ({} µs)", polls, lastParkNanos / 1000);
+        return true;
+    }
+
+    /**
+     * Quita el parche del main loop. Seguro de llamar en cualquier estado.
+     */
+    public void release() {
+        memory.writeBytes(blockAddress, new byte[]{BLOCK_MAIN_LOOP_OFF});
+        state = State.RELEASED;
+        logger.debug("Main loop RELEASED");
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Tiempo que tardó el último park (para métricas)
+     */
+    public long getLastParkNanos() {
+        return lastParkNanos;
+    }
+
+    /**
+     * Dirección donde queda girando el hilo del juego mientras está bloqueado
+     * ({@code EB FE} = jmp a sí mismo).
+     */
+    public static long parkedInstructionAddress(long blockAddress) {
+        return blockAddress - 1;
+    }
+}
@@ -0,0 +1,35 @@
+package com.pvz.controller.memory;
+
+import java.util.List;
+
+/**
+ * Direcciones del build del juego en ejecución, resueltas al conectar
+ * (ver {@link AddressResolver}). Una dirección en 0 significa "desconocida".
+ *
+ * @param lawn          puntero estático a LawnApp
+ * @param callPutZombie función que crea un zombie (ecx = Challenge)
+ * @param callPutPlant  función que crea una planta
+ * @param blockMainLoop byte del salto del main loop que parchea {@link FrameBarrier}
+ */
+public record GameAddresses(long lawn, int callPutZombie, int callPutPlant, int blockMainLoop) {
+
+    /**
+     * Builds conocidos. Sus funciones se verifican contra el código del proceso
+     * antes de usarse (ver {@link AddressResolver}).
+     */
+    public static final List<GameAddresses> KNOWN_BUILDS = List.of(
+            // PvZ 1.2.0.1096 GOTY Steam
+            new GameAddresses(0x731C50, 0x0042DCE0, 0x004105A0, 0x005DD25E)
+    );
+
+    public static GameAddresses lawnOnly(long lawn) {
+        return new GameAddresses(lawn, 0, 0, 0);
+    }
+
+    /**
+     * true si se conocen todas las direcciones necesarias para inyectar código
+     */
+    public boolean hasFunctions() {
+        return callPutZombie != 0 && callPutPlant != 0 && blockMainLoop != 0;
+    }
+}
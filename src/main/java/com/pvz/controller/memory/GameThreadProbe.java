@@ -0,0 +1,104 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Memory;
+import com.sun.jna.platform.win32.Kernel32;
+import com.sun.jna.platform.win32.Tlhelp32;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinNT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sonda de "estacionado" para {@link FrameBarrier}: lee el EIP del hilo principal
+ * del juego (WOW64) y confirma que está girando en el salto parcheado del main loop.
+ */
+public class GameThreadProbe implements FrameBarrier.ParkProbe {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameThreadProbe.class);
+
+    private final WinNT.HANDLE threadHandle;
+    private final long parkedEip;
+    private final Memory context = new Memory(Kernel32Interface.WOW64_CONTEXT_SIZE);
+
+    private GameThreadProbe(WinNT.HANDLE threadHandle, long parkedEip) {
+        this.threadHandle = threadHandle;
+        this.parkedEip = parkedEip;
+    }
+
+    /**
+     * Abre el hilo principal (el primero del snapshot) del proceso.
+     * @return la sonda, o null si no se pudo abrir
+     */
+    public static GameThreadProbe open(int processId, long parkedEip) {
+        int threadId = findMainThreadId(processId);
+        if (threadId == -1) {
+            logger.warn("Main thread of PID {} not found", processId);
+            return null;
+        }
+
+        WinNT.HANDLE handle = Kernel32.INSTANCE.OpenThread(
+                Kernel32Interface.THREAD_SUSPEND_RESUME
+                        | Kernel32Interface.THREAD_GET_CONTEXT
+                        | Kernel32Interface.THREAD_QUERY_INFORMATION,
+                false, threadId);
+        if (handle == null) {
+            logger.warn("Failed to open main thread {} (Error: {})", threadId, Kernel32.INSTANCE.GetLastError());
+            return null;
+        }
+
+        GameThreadProbe probe = new GameThreadProbe(handle, parkedEip);
+        if (probe.readEip() == -1) {
+            probe.close();
+            return null;
+        }
+        logger.info("Frame barrier probe attached to main thread {}", threadId);
+        return probe;
+    }
+
+    @Override
+    public boolean isParked() {
+        return readEip() == parkedEip;
+    }
+
+    private long readEip() {
+        if (Kernel32Interface.INSTANCE.Wow64SuspendThread(threadHandle) == -1) {
+            return -1;
+        }
+        try {
+            context.clear();
+            context.setInt(0, Kernel32Interface.WOW64_CONTEXT_CONTROL);
+            if (!Kernel32Interface.INSTANCE.Wow64GetThreadContext(threadHandle, context)) {
+                return -1;
+            }
+            return Integer.toUnsignedLong(context.getInt(Kernel32Interface.WOW64_CONTEXT_EIP_OFFSET));
+        } finally {
+            Kernel32Interface.INSTANCE.ResumeThread(threadHandle);
+        }
+    }
+
+    public void close() {
+        Kernel32.INSTANCE.CloseHandle(threadHandle);
+    }
+
+    private static int findMainThreadId(int processId) {
+        WinNT.HANDLE snapshot = Kernel32.INSTANCE.CreateToolhelp32Snapshot(
+                Tlhelp32.TH32CS_SNAPTHREAD, new WinDef.DWORD(0));
+        if (snapshot == WinNT.INVALID_HANDLE_VALUE) {
+            return -1;
+        }
+
+        try {
+            Tlhelp32.THREADENTRY32 entry = new Tlhelp32.THREADENTRY32();
+            if (Kernel32.INSTANCE.Thread32First(snapshot, entry)) {
+                do {
+                    if (entry.th32OwnerProcessID == processId) {
+                        return entry.th32ThreadID;
+                    }
+                } while (Kernel32.INSTANCE.Thread32Next(snapshot, entry));
+            }
+        } finally {
+            Kernel32.INSTANCE.CloseHandle(snapshot);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.win32.StdCallLibrary;
+
+import java.util.Map;
+
+/**
+ * JNA direct mapping of ReadProcessMemory/WriteProcessMemory for the hot paths of
+ * {@link Kernel32ProcessMemory}. HANDLE, pointers and SIZE_T are mapped to Java long
+ * (64-bit JVM only).
+ *
+ * Solo primitivos: la llamada va directo a la función, sin el proxy de
+ * {@link Kernel32Interface} (que arma un Object[] y boxea cada argumento). El error
+ * queda en {@link Native#getLastError()}.
+ */
+final class Kernel32Direct {
+
+    static {
+        Native.register(Kernel32Direct.class, NativeLibrary.getInstance("kernel32",
+                Map.of(Library.OPTION_CALLING_CONVENTION, StdCallLibrary.STDCALL_CONVENTION)));
+    }
+
+    private Kernel32Direct() {}
+
+    static native boolean ReadProcessMemory(long hProcess, long lpBaseAddress, long lpBuffer,
+                                            long nSize, long lpNumberOfBytesRead);
+
+    static native boolean WriteProcessMemory(long hProcess, long lpBaseAddress, long lpBuffer,
+                                             long nSize, long lpNumberOfBytesWritten);
+}
@@ -22,6 +22,16 @@ public interface Kernel32Interface extends StdCallLibrary {
     int PROCESS_QUERY_INFORMATION = 0x0400;
     int PROCESS_ALL_ACCESS = 0x001F0FFF;
 
+    // Thread access flags
+    int THREAD_SUSPEND_RESUME = 0x0002;
+    int THREAD_GET_CONTEXT = 0x0008;
+    int THREAD_QUERY_INFORMATION = 0x0040;
+
+    // WOW64_CONTEXT (proceso de 32 bits visto desde un proceso de 64 bits)
+    int WOW64_CONTEXT_SIZE = 0x2CC;
+    int WOW64_CONTEXT_CONTROL = 0x00010001;
+    int WOW64_CONTEXT_EIP_OFFSET = 0xB8;
+
     // Memory allocation types
     int MEM_COMMIT = 0x1000;
     int MEM_RESERVE = 0x2000;
@@ -50,6 +60,12 @@ public interface Kernel32Interface extends StdCallLibrary {
                                     Pointer lpParameter, int dwCreationFlags,
                                     IntByReference lpThreadId);
 
+    int Wow64SuspendThread(WinNT.HANDLE hThread);
+
+    int ResumeThread(WinNT.HANDLE hThread);
+
+    boolean Wow64GetThreadContext(WinNT.HANDLE hThread, Pointer lpContext);
+
     int WaitForSingleObject(WinNT.HANDLE hHandle, int dwMilliseconds);
 
     boolean CloseHandle(WinNT.HANDLE hObject);
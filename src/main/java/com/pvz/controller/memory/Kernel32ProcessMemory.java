@@ -0,0 +1,274 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.ptr.IntByReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Backend de Windows: ReadProcessMemory/WriteProcessMemory con mapeo directo
+ * ({@link Kernel32Direct}), VirtualAllocEx y CreateRemoteThread a través de
+ * {@link Kernel32Interface}.
+ */
+public class Kernel32ProcessMemory implements ProcessMemory {
+
+    private static final Logger logger = LoggerFactory.getLogger(Kernel32ProcessMemory.class);
+    private WinNT.HANDLE processHandle;
+    private long processHandleValue;
+    private final int processId;
+
+    public Kernel32ProcessMemory(int processId) {
+        if (Native.POINTER_SIZE != 8) {
+            throw new UnsupportedOperationException("Windows backend requires a 64-bit JVM");
+        }
+        this.processId = processId;
+        openProcess();
+    }
+
+    private void openProcess() {
+        processHandle = Kernel32Interface.INSTANCE.OpenProcess(
+                Kernel32Interface.PROCESS_ALL_ACCESS,
+                false,
+                processId);
+
+        if (processHandle == null) {
+            logger.error("Failed to open process: {} - Make sure you run as Administrator!", processId);
+            throw new RuntimeException("Cannot open process " + processId + ". Run as Administrator!");
+        }
+        processHandleValue = Pointer.nativeValue(processHandle.getPointer());
+        logger.info("Process opened successfully. PID: {}", processId);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // BUFFERS NATIVOS REUTILIZABLES
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Buffer directo + contador de bytes (SIZE_T) confinados a un hilo, así las
+     * lecturas/escrituras pequeñas no reservan nada.
+     */
+    private static final class Scratch extends ScratchBuffer {
+        private final Memory transferred = new Memory(8);
+        private final long transferredAddress = Pointer.nativeValue(transferred);
+    }
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private boolean read(Scratch s, long address, long destination, int length) {
+        boolean success = Kernel32Direct.ReadProcessMemory(
+                processHandleValue, address, destination, length, s.transferredAddress);
+
+        if (!success || s.transferred.getLong(0) != length) {
+            int error = Native.getLastError();
+            logger.error("Failed to read {} bytes at address: 0x{} (Error: {})",
+                    length, Long.toHexString(address), error);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean write(Scratch s, long address, long source, int length) {
+        boolean success = Kernel32Direct.WriteProcessMemory(
+                processHandleValue, address, source, length, s.transferredAddress);
+
+        if (!success || s.transferred.getLong(0) != length) {
+            int error = Native.getLastError();
+            logger.error("Failed to write {} bytes at address: 0x{} (Error: {})",
+                    length, Long.toHexString(address), error);
+            return false;
+        }
+        return true;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LECTURA / ESCRITURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public int readInt(long address) {
+        Scratch s = scratch.get();
+        if (!read(s, address, s.address(4), 4)) {
+            return 0;
+        }
+        return s.pointer(4).getInt(0);
+    }
+
+    @Override
+    public byte[] readBytes(long address, int length) {
+        Scratch s = scratch.get();
+        if (!read(s, address, s.address(length), length)) {
+            return null;
+        }
+        return s.pointer(length).getByteArray(0, length);
+    }
+
+    @Override
+    public boolean readBlock(long address, ByteBuffer target) {
+        Scratch s = scratch.get();
+        return read(s, address, s.addressAt(target), target.remaining());
+    }
+
+    @Override
+    public boolean writeBlock(long address, ByteBuffer source) {
+        Scratch s = scratch.get();
+        return write(s, address, s.addressAt(source), source.remaining());
+    }
+
+    @Override
+    public boolean writeInt(long address, int value) {
+        Scratch s = scratch.get();
+        s.pointer(4).setInt(0, value);
+        return write(s, address, s.address(4), 4);
+    }
+
+    @Override
+    public boolean writeBytes(long address, byte[] data) {
+        Scratch s = scratch.get();
+        s.pointer(data.length).write(0, data, 0, data.length);
+        return write(s, address, s.address(data.length), data.length);
+    }
+
+    @Override
+    public long allocateMemory(int size, boolean executable) {
+        int protection = executable ?
+                Kernel32Interface.PAGE_EXECUTE_READWRITE :
+                Kernel32Interface.PAGE_READWRITE;
+
+        Pointer address = Kernel32Interface.INSTANCE.VirtualAllocEx(
+                processHandle,
+                null,
+                size,
+                Kernel32Interface.MEM_COMMIT | Kernel32Interface.MEM_RESERVE,
+                protection
+        );
+
+        if (address == null) {
+            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
+            logger.error("Failed to allocate {} bytes (Error: {})", size, error);
+            return 0;
+        }
+
+        long addr = Pointer.nativeValue(address);
+        logger.debug("Allocated {} bytes at 0x{}", size, Long.toHexString(addr));
+        return addr;
+    }
+
+    @Override
+    public boolean freeMemory(long address) {
+        boolean success = Kernel32Interface.INSTANCE.VirtualFreeEx(
+                processHandle,
+                Pointer.createConstant(address),
+                0,
+                Kernel32Interface.MEM_RELEASE
+        );
+
+        if (!success) {
+            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
+            logger.error("Failed to free memory at 0x{} (Error: {})", Long.toHexString(address), error);
+        }
+
+        return success;
+    }
+
+    @Override
+    public boolean executeRemoteThread(long codeAddress, long paramAddress, int timeout) {
+        IntByReference threadId = new IntByReference();
+
+        WinNT.HANDLE threadHandle = Kernel32Interface.INSTANCE.CreateRemoteThread(
+                processHandle,
+                null,
+                0,
+                Pointer.createConstant(codeAddress),
+                paramAddress != 0 ? Pointer.createConstant(paramAddress) : null,
+                0,
+                threadId
+        );
+
+        if (threadHandle == null) {
+            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
+            logger.error("Failed to create remote thread (Error: {})", error);
+            return false;
+        }
+
+        logger.debug("Created remote thread ID: {}", threadId.getValue());
+
+        int waitResult = Kernel32Interface.INSTANCE.WaitForSingleObject(threadHandle, timeout);
+
+        Kernel32Interface.INSTANCE.CloseHandle(threadHandle);
+
+        if (waitResult == Kernel32Interface.WAIT_OBJECT_0) {
+            logger.debug("Remote thread completed successfully");
+            return true;
+        } else if (waitResult == Kernel32Interface.WAIT_TIMEOUT) {
+            logger.warn("Remote thread timed out after {}ms", timeout);
+            return false;
+        } else {
+            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
+            logger.error("WaitForSingleObject failed (Error: {})", error);
+            return false;
+        }
+    }
+
+    @Override
+    public long startRemoteThread(long codeAddress, long paramAddress) {
+        IntByReference threadId = new IntByReference();
+
+        WinNT.HANDLE threadHandle = Kernel32Interface.INSTANCE.CreateRemoteThread(
+                processHandle,
+                null,
+                0,
+                Pointer.createConstant(codeAddress),
+                paramAddress != 0 ? Pointer.createConstant(paramAddress) : null,
+                0,
+                threadId
+        );
+
+        if (threadHandle == null) {
+            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
+            logger.error("Failed to create remote thread (Error: {})", error);
+            return 0;
+        }
+
+        logger.debug("Started resident remote thread ID: {}", threadId.getValue());
+        return Pointer.nativeValue(threadHandle.getPointer());
+    }
+
+    @Override
+    public boolean joinRemoteThread(long thread, int timeout) {
+        WinNT.HANDLE threadHandle = new WinNT.HANDLE(new Pointer(thread));
+        int waitResult = Kernel32Interface.INSTANCE.WaitForSingleObject(threadHandle, timeout);
+        if (waitResult != Kernel32Interface.WAIT_OBJECT_0) {
+            logger.warn("Resident remote thread did not exit after {}ms", timeout);
+            return false;
+        }
+        Kernel32Interface.INSTANCE.CloseHandle(threadHandle);
+        return true;
+    }
+
+    @Override
+    public int getProcessId() {
+        return processId;
+    }
+
+    public WinNT.HANDLE getProcessHandle() {
+        return processHandle;
+    }
+
+    @Override
+    public void close() {
+        if (processHandle != null) {
+            Kernel32Interface.INSTANCE.CloseHandle(processHandle);
+            logger.info("Process handle closed");
+        }
+    }
+
+    @Override
+    public boolean isValid() {
+        return processHandle != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Native;
+
+/**
+ * JNA direct mapping of the Linux libc calls used by {@link LinuxProcessMemory}.
+ * size_t/ssize_t/unsigned long and pointers are mapped to Java long (64-bit JVM only).
+ *
+ * Solo primitivos: la llamada va directo a la función, sin el proxy de una interfaz
+ * Library (que arma un Object[] y boxea cada argumento). errno queda en
+ * {@link Native#getLastError()}.
+ */
+public final class LinuxLibC {
+
+    static {
+        Native.register("c");
+    }
+
+    private LinuxLibC() {}
+
+    public static final int EPERM = 1;
+    public static final int ESRCH = 3;
+    public static final int EFAULT = 14;
+
+    // Máximo de iovecs por llamada (UIO_MAXIOV)
+    public static final int IOV_MAX = 1024;
+
+    /**
+     * struct iovec { void *iov_base; size_t iov_len; }. Se escriben a mano en un
+     * buffer nativo reutilizable: un Structure[] se convierte por reflexión en cada llamada.
+     */
+    public static final int IOVEC_SIZE = 16;
+    public static final int IOVEC_LENGTH_OFFSET = 8;
+
+    public static native long process_vm_readv(int pid, long localIov, long localCount,
+                                               long remoteIov, long remoteCount, long flags);
+
+    public static native long process_vm_writev(int pid, long localIov, long localCount,
+                                                long remoteIov, long remoteCount, long flags);
+}
@@ -0,0 +1,275 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Backend de Linux para el juego corriendo bajo Wine/Proton.
+ *
+ * Lee y escribe con process_vm_readv/process_vm_writev (scatter/gather: varias
+ * regiones remotas en una sola llamada). Las escrituras sobre páginas de solo
+ * lectura (parches de código) caen a /proc/[pid]/mem, que ignora la protección.
+ *
+ * No puede reservar memoria ni crear hilos en el proceso, así que la inyección
+ * de código no está disponible con este backend.
+ */
+public class LinuxProcessMemory implements ProcessMemory {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinuxProcessMemory.class);
+
+    private final int processId;
+    private volatile boolean closed;
+    private FileChannel procMem;
+
+    /**
+     * iovecs + buffer directo confinados a un hilo
+     */
+    private static final class Scratch extends ScratchBuffer {
+        private final Memory local = new Memory(LinuxLibC.IOVEC_SIZE);
+        private final long localAddress = Pointer.nativeValue(local);
+        private Memory remote = new Memory(LinuxLibC.IOVEC_SIZE);
+        private long remoteAddress = Pointer.nativeValue(remote);
+
+        Memory remote(int count) {
+            if (remote.size() < (long) count * LinuxLibC.IOVEC_SIZE) {
+                remote = new Memory((long) count * LinuxLibC.IOVEC_SIZE);
+                remoteAddress = Pointer.nativeValue(remote);
+            }
+            return remote;
+        }
+
+        static void setIovec(Memory iovecs, int index, long base, long length) {
+            long offset = (long) index * LinuxLibC.IOVEC_SIZE;
+            iovecs.setLong(offset, base);
+            iovecs.setLong(offset + LinuxLibC.IOVEC_LENGTH_OFFSET, length);
+        }
+    }
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public LinuxProcessMemory(int processId) {
+        if (Native.LONG_SIZE != 8) {
+            throw new UnsupportedOperationException("Linux backend requires a 64-bit JVM");
+        }
+        if (!Files.isDirectory(Path.of("/proc", Integer.toString(processId)))) {
+            logger.error("Process {} does not exist", processId);
+            throw new RuntimeException("Cannot open process " + processId);
+        }
+        this.processId = processId;
+        logger.info("Process opened successfully (process_vm_readv). PID: {}", processId);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // TRANSFERENCIAS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private boolean transfer(Scratch s, boolean write, long address, long local, int length) {
+        Scratch.setIovec(s.local, 0, local, length);
+        Scratch.setIovec(s.remote(1), 0, address, length);
+
+        long done = write
+                ? LinuxLibC.process_vm_writev(processId, s.localAddress, 1, s.remoteAddress, 1, 0)
+                : LinuxLibC.process_vm_readv(processId, s.localAddress, 1, s.remoteAddress, 1, 0);
+        if (done == length) {
+            return true;
+        }
+
+        int error = Native.getLastError();
+        if (write && writeViaProcMem(address, local, length)) {
+            return true;
+        }
+        logFailure(write ? "write" : "read", length, address, done, error);
+        return false;
+    }
+
+    /**
+     * Escritura vía /proc/[pid]/mem: necesaria para páginas de código (r-x),
+     * que process_vm_writev rechaza con EFAULT.
+     */
+    private synchronized boolean writeViaProcMem(long address, long local, int length) {
+        try {
+            if (procMem == null) {
+                procMem = FileChannel.open(Path.of("/proc", Integer.toString(processId), "mem"),
+                        StandardOpenOption.WRITE);
+            }
+            ByteBuffer data = new Pointer(local).getByteBuffer(0, length);
+            long position = address;
+            while (data.hasRemaining()) {
+                position += procMem.write(data, position);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.debug("/proc/{}/mem write failed: {}", processId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void logFailure(String operation, int length, long address, long done, int error) {
+        if (error == LinuxLibC.EPERM) {
+            logger.error("Failed to {} {} bytes at address: 0x{} (EPERM) - check kernel.yama.ptrace_scope",
+                    operation, length, Long.toHexString(address));
+        } else {
+            logger.error("Failed to {} {} bytes at address: 0x{} (transferred: {}, errno: {})",
+                    operation, length, Long.toHexString(address), done, error);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LECTURA / ESCRITURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public int readInt(long address) {
+        Scratch s = scratch.get();
+        if (!transfer(s, false, address, s.address(4), 4)) {
+            return 0;
+        }
+        return s.pointer(4).getInt(0);
+    }
+
+    @Override
+    public byte[] readBytes(long address, int length) {
+        Scratch s = scratch.get();
+        if (!transfer(s, false, address, s.address(length), length)) {
+            return null;
+        }
+        return s.pointer(length).getByteArray(0, length);
+    }
+
+    @Override
+    public boolean readBlock(long address, ByteBuffer target) {
+        Scratch s = scratch.get();
+        return transfer(s, false, address, s.addressAt(target), target.remaining());
+    }
+
+    /**
+     * Gather remoto en una sola llamada: N iovecs remotos hacia un único iovec
+     * local contiguo (en bloques de IOV_MAX regiones).
+     */
+    @Override
+    public boolean readRegions(long[] addresses, int[] lengths, ByteBuffer target) {
+        int total = 0;
+        for (int length : lengths) total += length;
+        if (addresses.length != lengths.length || total > target.remaining()) {
+            throw new IllegalArgumentException("Regions do not fit in the target buffer");
+        }
+
+        Scratch s = scratch.get();
+        long destination = s.addressAt(target);
+        Memory remoteIov = s.remote(Math.min(addresses.length, LinuxLibC.IOV_MAX));
+
+        int offset = 0;
+        for (int start = 0; start < addresses.length; start += LinuxLibC.IOV_MAX) {
+            int count = Math.min(LinuxLibC.IOV_MAX, addresses.length - start);
+            int chunkBytes = 0;
+            for (int i = 0; i < count; i++) {
+                Scratch.setIovec(remoteIov, i, addresses[start + i], lengths[start + i]);
+                chunkBytes += lengths[start + i];
+            }
+            Scratch.setIovec(s.local, 0, destination + offset, chunkBytes);
+
+            long done = LinuxLibC.process_vm_readv(processId, s.localAddress, 1, s.remoteAddress, count, 0);
+            if (done != chunkBytes) {
+                logFailure("gather-read", chunkBytes, addresses[start], done, Native.getLastError());
+                return false;
+            }
+            offset += chunkBytes;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean writeInt(long address, int value) {
+        Scratch s = scratch.get();
+        s.pointer(4).setInt(0, value);
+        return transfer(s, true, address, s.address(4), 4);
+    }
+
+    @Override
+    public boolean writeBytes(long address, byte[] data) {
+        Scratch s = scratch.get();
+        s.pointer(data.length).write(0, data, 0, data.length);
+        return transfer(s, true, address, s.address(data.length), data.length);
+    }
+
+    @Override
+    public boolean writeBlock(long address, ByteBuffer source) {
+        Scratch s = scratch.get();
+        return transfer(s, true, address, s.addressAt(source), source.remaining());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // EJECUCIÓN REMOTA (no soportada)
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public boolean supportsRemoteExecution() {
+        return false;
+    }
+
+    @Override
+    public long allocateMemory(int size, boolean executable) {
+        logger.warn("Remote allocation is not supported on Linux");
+        return 0;
+    }
+
+    @Override
+    public boolean freeMemory(long address) {
+        return false;
+    }
+
+    @Override
+    public boolean executeRemoteThread(long codeAddress, long paramAddress, int timeout) {
+        logger.warn("Remote threads are not supported on Linux");
+        return false;
+    }
+
+    @Override
+    public long startRemoteThread(long codeAddress, long paramAddress) {
+        logger.warn("Remote threads are not supported on Linux");
+        return 0;
+    }
+
+    @Override
+    public boolean joinRemoteThread(long thread, int timeout) {
+        return false;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PROCESO
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public int getProcessId() {
+        return processId;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (procMem != null) {
+            try {
+                procMem.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close /proc/{}/mem: {}", processId, e.getMessage());
+            }
+            procMem = null;
+        }
+        logger.info("Process closed");
+    }
+
+    @Override
+    public boolean isValid() {
+        return !closed;
+    }
+}
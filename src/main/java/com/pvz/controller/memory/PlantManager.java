@@ -3,6 +3,9 @@ package com.pvz.controller.memory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * PlantManager - Gestiona la colocación de plantas en PvZ
  *
@@ -33,31 +36,101 @@ public class PlantManager {
      * @return PlantResult con el resultado
      */
     public PlantResult plant(String plantName, String row, int col) {
+        Resolution target = resolve(plantName, row, col);
+        if (target.failure() != null) {
+            return target.failure();
+        }
+
+        logger.info("Plantando {} en {}", target.plant(), target.cell());
+
+        // Ejecutar plantación
+        try {
+            CodeInjector.Placement placement = target.placement();
+            boolean success = codeInjector.plantPlant(placement.type(), placement.row(), placement.col());
+
+            if (success) {
+                return PlantResult.success(target.plant() + " plantado en " + target.cell());
+            } else {
+                return PlantResult.failure("Error al plantar (code injection falló)");
+            }
+
+        } catch (Exception e) {
+            logger.error("Excepción al plantar: {}", e.getMessage(), e);
+            return PlantResult.failure("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Planta varias plantas con una sola inyección; las que no pasan la validación
+     * fallan sin afectar al resto.
+     *
+     * @return un resultado por pedido (mismo orden)
+     */
+    public PlantResult[] plantAll(List<String> plantNames, List<String> rows, List<Integer> cols) {
+        PlantResult[] results = new PlantResult[plantNames.size()];
+        Resolution[] targets = new Resolution[plantNames.size()];
+        List<CodeInjector.Placement> batch = new ArrayList<>();
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = resolve(plantNames.get(i), rows.get(i), cols.get(i));
+            if (targets[i].failure() != null) {
+                results[i] = targets[i].failure();
+            } else {
+                batch.add(targets[i].placement());
+            }
+        }
+        if (batch.isEmpty()) {
+            return results;
+        }
+
+        logger.info("Plantando lote de {} planta(s)", batch.size());
+        boolean[] planted;
+        try {
+            planted = codeInjector.plantPlants(batch);
+        } catch (Exception e) {
+            logger.error("Excepción al plantar lote: {}", e.getMessage(), e);
+            planted = null;
+        }
+
+        int next = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (results[i] != null) continue;
+            boolean success = planted != null && planted[next++];
+            results[i] = success
+                    ? PlantResult.success(targets[i].plant() + " plantado en " + targets[i].cell())
+                    : PlantResult.failure("Error al plantar (code injection falló)");
+        }
+        return results;
+    }
+
+    /**
+     * Valida el pedido y lo convierte en una posición del Board
+     */
+    private Resolution resolve(String plantName, String row, int col) {
         // Validar conexión
         if (!trainer.isConnected()) {
-            return PlantResult.failure("No conectado al juego");
+            return Resolution.failed("No conectado al juego");
         }
 
         if (!trainer.isCodeInjectionReady()) {
-            return PlantResult.failure("Code injection no disponible");
+            return Resolution.failed("Code injection no disponible");
         }
 
         // Obtener ID de la planta
         int plantId = PvZOffsets.getPlantTypeId(plantName);
         if (plantId < 0 || plantId > 47) {
-            return PlantResult.failure("Planta no reconocida: " + plantName + ". Usa `!plants` para ver la lista.");
+            return Resolution.failed("Planta no reconocida: " + plantName + ". Usa `!plants` para ver la lista.");
         }
 
         // Convertir fila
         int rowIndex = parseRow(row);
         if (rowIndex < 0) {
-            return PlantResult.failure("Fila inválida: " + row + " (usa A-F o 0-5)");
+            return Resolution.failed("Fila inválida: " + row + " (usa A-F o 0-5)");
         }
 
         // Validar fila según escena
         int maxRows = trainer.getRowCount();
         if (rowIndex >= maxRows) {
-            return PlantResult.failure("Fila " + row + " no existe (máx: " + maxRows + ")");
+            return Resolution.failed("Fila " + row + " no existe (máx: " + maxRows + ")");
         }
 
         // Convertir columna (de 1-based a 0-based)
@@ -66,31 +139,21 @@ public class PlantManager {
         // Validar columna (Cob Cannon necesita 2 columnas)
         int maxCol = (plantId == 46) ? 7 : 8;
         if (colIndex < 0 || colIndex > maxCol) {
-            return PlantResult.failure("Columna inválida: " + col + " (usa 1-" + (maxCol + 1) + ")");
+            return Resolution.failed("Columna inválida: " + col + " (usa 1-" + (maxCol + 1) + ")");
         }
 
-        // Info para el log
-        String plantDisplayName = PvZOffsets.getPlantName(plantId);
-        String plantEmoji = PvZOffsets.getPlantEmoji(plantId);
-        char rowLetter = PvZOffsets.rowIndexToLetter(rowIndex);
-
-        logger.info("Plantando {} {} en {}{}", plantEmoji, plantDisplayName, rowLetter, col);
-
-        // Ejecutar plantación
-        try {
-            boolean success = codeInjector.plantPlant(plantId, rowIndex, colIndex);
-
-            if (success) {
-                String msg = String.format("%s %s plantado en %s%d",
-                        plantEmoji, plantDisplayName, rowLetter, col);
-                return PlantResult.success(msg);
-            } else {
-                return PlantResult.failure("Error al plantar (code injection falló)");
-            }
+        // Info para el log y el mensaje
+        String plant = PvZOffsets.getPlantEmoji(plantId) + " " + PvZOffsets.getPlantName(plantId);
+        String cell = "" + PvZOffsets.rowIndexToLetter(rowIndex) + col;
+        return new Resolution(new CodeInjector.Placement(plantId, rowIndex, colIndex), plant, cell, null);
+    }
 
-        } catch (Exception e) {
-            logger.error("Excepción al plantar: {}", e.getMessage(), e);
-            return PlantResult.failure("Error: " + e.getMessage());
+    /**
+     * Pedido validado (placement, nombre para mostrar y casilla) o el motivo del rechazo
+     */
+    private record Resolution(CodeInjector.Placement placement, String plant, String cell, PlantResult failure) {
+        static Resolution failed(String message) {
+            return new Resolution(null, null, null, PlantResult.failure(message));
         }
     }
 
@@ -112,8 +175,10 @@ public class PlantManager {
     public String getPlantingGrid() {
         StringBuilder sb = new StringBuilder();
 
-        int rows = trainer.getRowCount();
-        int scene = trainer.getScene();
+        // Un solo snapshot para que filas y escena sean consistentes
+        BoardSnapshot board = trainer.getBoardSnapshot();
+        int rows = board != null ? board.getRowCount() : 5;
+        int scene = board != null ? board.getScene() : -1;
 
         sb.append("```\n");
         sb.append("    1   2   3   4   5   6   7   8   9\n");
@@ -1,85 +1,90 @@
 package com.pvz.controller.memory;
 
-import com.sun.jna.Memory;
-import com.sun.jna.Pointer;
-import com.sun.jna.platform.win32.WinNT;
-import com.sun.jna.ptr.IntByReference;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-public class ProcessMemory {
-
-    private static final Logger logger = LoggerFactory.getLogger(ProcessMemory.class);
-    private WinNT.HANDLE processHandle;
-    private final int processId;
-
-    public ProcessMemory(int processId) {
-        this.processId = processId;
-        openProcess();
-    }
-
-    private void openProcess() {
-        processHandle = Kernel32Interface.INSTANCE.OpenProcess(
-                Kernel32Interface.PROCESS_ALL_ACCESS,
-                false,
-                processId);
-
-        if (processHandle == null) {
-            logger.error("Failed to open process: {} - Make sure you run as Administrator!", processId);
-            throw new RuntimeException("Cannot open process " + processId + ". Run as Administrator!");
+import com.sun.jna.Platform;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Acceso a la memoria del proceso del juego.
+ *
+ * Backends:
+ * - {@link Kernel32ProcessMemory}: Windows (lectura, escritura y ejecución remota)
+ * - {@link LinuxProcessMemory}: juego bajo Wine/Proton en Linux (solo lectura/escritura)
+ */
+public interface ProcessMemory {
+
+    /**
+     * Abre el proceso con el backend de la plataforma actual
+     */
+    static ProcessMemory open(int processId) {
+        if (Platform.isWindows()) {
+            return new Kernel32ProcessMemory(processId);
         }
-        logger.info("Process opened successfully. PID: {}", processId);
+        if (Platform.isLinux()) {
+            return new LinuxProcessMemory(processId);
+        }
+        throw new UnsupportedOperationException("No process memory backend for " + System.getProperty("os.name"));
     }
 
-    public int readInt(long address) {
-        Memory buffer = new Memory(4);
-        IntByReference bytesRead = new IntByReference();
-
-        boolean success = Kernel32Interface.INSTANCE.ReadProcessMemory(
-                processHandle,
-                Pointer.createConstant(address),
-                buffer,
-                4,
-                bytesRead
-        );
-
-        if (!success || bytesRead.getValue() != 4) {
-            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
-            logger.error("Failed to read memory at address: 0x{} (Error: {})",
-                    Long.toHexString(address), error);
-            return 0;
+    // ═══════════════════════════════════════════════════════════════════
+    // LECTURA / ESCRITURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * @return el valor leído, o 0 si la lectura falló
+     */
+    int readInt(long address);
+
+    /**
+     * @return los bytes leídos, o null si la lectura falló
+     */
+    byte[] readBytes(long address, int length);
+
+    /**
+     * Lee {@code target.remaining()} bytes directamente en un ByteBuffer directo
+     * (sin buffers intermedios). La posición del buffer no se modifica.
+     */
+    boolean readBlock(long address, ByteBuffer target);
+
+    /**
+     * Lee varias regiones remotas, una tras otra, en {@code target} a partir de su
+     * posición (la región i ocupa {@code lengths[i]} bytes). La posición no se modifica.
+     * Los backends que lo soportan lo hacen con una sola llamada al sistema.
+     */
+    default boolean readRegions(long[] addresses, int[] lengths, ByteBuffer target) {
+        int total = 0;
+        for (int length : lengths) total += length;
+        if (addresses.length != lengths.length || total > target.remaining()) {
+            throw new IllegalArgumentException("Regions do not fit in the target buffer");
         }
 
-        return buffer.getInt(0);
+        ByteBuffer view = target.duplicate();
+        int position = target.position();
+        for (int i = 0; i < addresses.length; i++) {
+            view.limit(position + lengths[i]).position(position);
+            if (!readBlock(addresses[i], view)) {
+                return false;
+            }
+            position += lengths[i];
+        }
+        return true;
     }
 
-    public boolean writeInt(long address, int value) {
-        Memory buffer = new Memory(4);
-        buffer.setInt(0, value);
-        IntByReference bytesWritten = new IntByReference();
-
-        boolean success = Kernel32Interface.INSTANCE.WriteProcessMemory(
-                processHandle,
-                Pointer.createConstant(address),
-                buffer,
-                4,
-                bytesWritten
-        );
-
-        if (!success) {
-            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
-            logger.error("Failed to write memory at address: 0x{} (Error: {})",
-                    Long.toHexString(address), error);
-        }
+    boolean writeInt(long address, int value);
 
-        return success;
-    }
+    boolean writeBytes(long address, byte[] data);
+
+    /**
+     * Escribe {@code source.remaining()} bytes desde un ByteBuffer directo.
+     * La posición del buffer no se modifica.
+     */
+    boolean writeBlock(long address, ByteBuffer source);
 
-    public long readPointer(long address) {
+    default long readPointer(long address) {
         return Integer.toUnsignedLong(readInt(address));
     }
 
-    public long resolvePointerChain(long baseAddress, int... offsets) {
+    default long resolvePointerChain(long baseAddress, int... offsets) {
         long address = readPointer(baseAddress);
 
         for (int i = 0; i < offsets.length - 1; i++) {
@@ -93,119 +98,46 @@ public class ProcessMemory {
         return address;
     }
 
-    public boolean writeBytes(long address, byte[] data) {
-        Memory buffer = new Memory(data.length);
-        buffer.write(0, data, 0, data.length);
-        IntByReference bytesWritten = new IntByReference();
-
-        boolean success = Kernel32Interface.INSTANCE.WriteProcessMemory(
-                processHandle,
-                Pointer.createConstant(address),
-                buffer,
-                data.length,
-                bytesWritten
-        );
-
-        if (!success || bytesWritten.getValue() != data.length) {
-            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
-            logger.error("Failed to write {} bytes at address: 0x{} (Error: {})",
-                    data.length, Long.toHexString(address), error);
-            return false;
-        }
+    // ═══════════════════════════════════════════════════════════════════
+    // EJECUCIÓN REMOTA
+    // ═══════════════════════════════════════════════════════════════════
 
+    /**
+     * Indica si el backend puede reservar memoria y crear hilos en el proceso
+     * (necesario para {@link CodeInjector}).
+     */
+    default boolean supportsRemoteExecution() {
         return true;
     }
 
-    public long allocateMemory(int size, boolean executable) {
-        int protection = executable ?
-                Kernel32Interface.PAGE_EXECUTE_READWRITE :
-                Kernel32Interface.PAGE_READWRITE;
-
-        Pointer address = Kernel32Interface.INSTANCE.VirtualAllocEx(
-                processHandle,
-                null,
-                size,
-                Kernel32Interface.MEM_COMMIT | Kernel32Interface.MEM_RESERVE,
-                protection
-        );
-
-        if (address == null) {
-            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
-            logger.error("Failed to allocate {} bytes (Error: {})", size, error);
-            return 0;
-        }
-
-        long addr = Pointer.nativeValue(address);
-        logger.debug("Allocated {} bytes at 0x{}", size, Long.toHexString(addr));
-        return addr;
-    }
-
-    public boolean freeMemory(long address) {
-        boolean success = Kernel32Interface.INSTANCE.VirtualFreeEx(
-                processHandle,
-                Pointer.createConstant(address),
-                0,
-                Kernel32Interface.MEM_RELEASE
-        );
-
-        if (!success) {
-            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
-            logger.error("Failed to free memory at 0x{} (Error: {})", Long.toHexString(address), error);
-        }
-
-        return success;
-    }
+    /**
+     * @return dirección de la región reservada, o 0 si falló
+     */
+    long allocateMemory(int size, boolean executable);
 
-    public boolean executeRemoteThread(long codeAddress, long paramAddress, int timeout) {
-        IntByReference threadId = new IntByReference();
-
-        WinNT.HANDLE threadHandle = Kernel32Interface.INSTANCE.CreateRemoteThread(
-                processHandle,
-                null,
-                0,
-                Pointer.createConstant(codeAddress),
-                paramAddress != 0 ? Pointer.createConstant(paramAddress) : null,
-                0,
-                threadId
-        );
-
-        if (threadHandle == null) {
-            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
-            logger.error("Failed to create remote thread (Error: {})", error);
-            return false;
-        }
+    boolean freeMemory(long address);
 
-        logger.debug("Created remote thread ID: {}", threadId.getValue());
+    boolean executeRemoteThread(long codeAddress, long paramAddress, int timeout);
 
-        int waitResult = Kernel32Interface.INSTANCE.WaitForSingleObject(threadHandle, timeout);
+    /**
+     * Crea un hilo remoto sin esperar a que termine (ej: rutinas residentes).
+     * @return handle del hilo como valor nativo, o 0 si falló
+     */
+    long startRemoteThread(long codeAddress, long paramAddress);
 
-        Kernel32Interface.INSTANCE.CloseHandle(threadHandle);
+    /**
+     * Espera a un hilo creado con {@link #startRemoteThread} y cierra su handle.
+     * Si hay timeout el handle queda abierto y retorna false.
+     */
+    boolean joinRemoteThread(long thread, int timeout);
 
-        if (waitResult == Kernel32Interface.WAIT_OBJECT_0) {
-            logger.debug("Remote thread completed successfully");
-            return true;
-        } else if (waitResult == Kernel32Interface.WAIT_TIMEOUT) {
-            logger.warn("Remote thread timed out after {}ms", timeout);
-            return false;
-        } else {
-            int error = com.sun.jna.platform.win32.Kernel32.INSTANCE.GetLastError();
-            logger.error("WaitForSingleObject failed (Error: {})", error);
-            return false;
-        }
-    }
+    // ═══════════════════════════════════════════════════════════════════
+    // PROCESO
+    // ═══════════════════════════════════════════════════════════════════
 
-    public WinNT.HANDLE getProcessHandle() {
-        return processHandle;
-    }
+    int getProcessId();
 
-    public void close() {
-        if (processHandle != null) {
-            Kernel32Interface.INSTANCE.CloseHandle(processHandle);
-            logger.info("Process handle closed");
-        }
-    }
+    void close();
 
-    public boolean isValid() {
-        return processHandle != null;
-    }
-}
\ No newline at end of file
+    boolean isValid();
+}
@@ -1,5 +1,6 @@
 package com.pvz.controller.memory;
 
+import com.sun.jna.Platform;
 import com.sun.jna.platform.win32.Kernel32;
 import com.sun.jna.platform.win32.Tlhelp32;
 import com.sun.jna.platform.win32.WinDef;
@@ -7,6 +8,13 @@ import com.sun.jna.platform.win32.WinNT;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 public class PvZProcess {
 
     private static final Logger logger = LoggerFactory.getLogger(PvZProcess.class);
@@ -18,6 +26,10 @@ public class PvZProcess {
     };
 
     public static int findProcessId() {
+        if (Platform.isLinux()) {
+            return findLinuxProcessId();
+        }
+
         WinNT.HANDLE snapshot = Kernel32.INSTANCE.CreateToolhelp32Snapshot(
                 Tlhelp32.TH32CS_SNAPPROCESS, new WinDef.DWORD(0));
 
@@ -63,6 +75,59 @@ public class PvZProcess {
         return -1;
     }
 
+    /**
+     * Bajo Wine/Proton el argv[0] del proceso es la ruta de Windows del .exe,
+     * así que se busca en /proc/[pid]/cmdline.
+     */
+    private static int findLinuxProcessId() {
+        int[] foundPids = new int[PROCESS_NAMES.length];
+        Arrays.fill(foundPids, -1);
+
+        try (DirectoryStream<Path> procs = Files.newDirectoryStream(Path.of("/proc"), "[0-9]*")) {
+            for (Path proc : procs) {
+                String exeName = readExeName(proc.resolve("cmdline"));
+                if (exeName == null) continue;
+
+                for (int i = 0; i < PROCESS_NAMES.length; i++) {
+                    if (exeName.equalsIgnoreCase(PROCESS_NAMES[i])) {
+                        int pid = Integer.parseInt(proc.getFileName().toString());
+                        logger.info("Found process: {} (PID: {})", exeName, pid);
+                        foundPids[i] = pid;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to list /proc: {}", e.getMessage());
+            return -1;
+        }
+
+        for (int i = 0; i < foundPids.length; i++) {
+            if (foundPids[i] != -1) {
+                logger.info("Using process: {} (PID: {})", PROCESS_NAMES[i], foundPids[i]);
+                return foundPids[i];
+            }
+        }
+
+        logger.warn("PvZ process not found");
+        return -1;
+    }
+
+    private static String readExeName(Path cmdline) {
+        try {
+            byte[] raw = Files.readAllBytes(cmdline);
+            int end = 0;
+            while (end < raw.length && raw[end] != 0) end++;
+            if (end == 0) return null;
+
+            String argv0 = new String(raw, 0, end, StandardCharsets.UTF_8);
+            int slash = Math.max(argv0.lastIndexOf('/'), argv0.lastIndexOf('\\'));
+            return argv0.substring(slash + 1);
+        } catch (IOException e) {
+            // El proceso terminó o no es accesible
+            return null;
+        }
+    }
+
     public static boolean isGameRunning() {
         return findProcessId() != -1;
     }
@@ -1,8 +1,11 @@
 package com.pvz.controller.memory;
 
+import com.pvz.controller.config.ControllerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,6 +25,7 @@ public class PvZTrainer {
 
     private ProcessMemory memory;
     private CodeInjector codeInjector;
+    private BoardMirror mirror;
     private long baseAddress;
     private long gameBase;
     private long boardAddress;
@@ -33,7 +37,21 @@ public class PvZTrainer {
         this.codeInjectionTested = false;
     }
 
+    /**
+     * Conecta al juego en ejecución, o a un volcado de memoria si PVZ_DUMP_FILE está definido
+     */
     public boolean connect() {
+        String dumpFile = ControllerConfig.getDumpFile();
+        if (dumpFile != null) {
+            try {
+                logger.info("Using memory dump instead of the live process: {}", dumpFile);
+                return connect(DumpFileMemory.open(Path.of(dumpFile)));
+            } catch (IOException e) {
+                logger.error("Failed to open memory dump {}: {}", dumpFile, e.getMessage());
+                return false;
+            }
+        }
+
         int pid = PvZProcess.findProcessId();
 
         if (pid == -1) {
@@ -42,11 +60,38 @@ public class PvZTrainer {
         }
 
         try {
-            memory = new ProcessMemory(pid);
-            codeInjector = new CodeInjector(memory);
+            return connect(ProcessMemory.open(pid));
+        } catch (Exception e) {
+            logger.error("Failed to connect: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Conecta usando un backend de memoria ya abierto (proceso, volcado, etc.).
+     * Si ya había una conexión se libera antes; si falla, {@code memory} queda cerrado.
+     */
+    public boolean connect(ProcessMemory memory) {
+        if (this.memory != null) {
+            logger.info("Reconnecting: releasing previous connection");
+            release();
+        }
+
+        try {
+            this.memory = memory;
+
+            // Primero la dirección resuelta por firmas/caché; BASE_ADDRESSES queda como respaldo
+            GameAddresses addresses = AddressResolver.resolve(memory);
+            List<Long> candidates = new ArrayList<>();
+            if (addresses.lawn() != 0) {
+                candidates.add(addresses.lawn());
+            }
+            for (long base : PvZOffsets.BASE_ADDRESSES) {
+                if (!candidates.contains(base)) candidates.add(base);
+            }
 
             boolean found = false;
-            for (long tryBase : PvZOffsets.BASE_ADDRESSES) {
+            for (long tryBase : candidates) {
                 logger.info("Trying base address: 0x{}", Long.toHexString(tryBase));
 
                 long gamePtr = memory.readPointer(tryBase);
@@ -76,9 +121,18 @@ public class PvZTrainer {
             if (!found) {
                 logger.error("Could not find valid game base address");
                 logger.error("Make sure you are IN A LEVEL (not main menu)");
+                release();
                 return false;
             }
 
+            if (addresses.lawn() != baseAddress) {
+                addresses = AddressResolver.forLawn(memory, baseAddress);
+            }
+            codeInjector = new CodeInjector(memory, addresses);
+
+            mirror = new BoardMirror(memory, baseAddress, ControllerConfig.getBoardPollHz());
+            mirror.start();
+
             connected = true;
             logger.info("Trainer connected successfully!");
 
@@ -100,31 +154,61 @@ public class PvZTrainer {
 
         } catch (Exception e) {
             logger.error("Failed to connect: {}", e.getMessage(), e);
+            release();
             return false;
         }
     }
 
     public void disconnect() {
+        release();
+        logger.info("Trainer disconnected");
+    }
+
+    /**
+     * Para el espejo, libera la cueva de código y cierra el handle (lo que exista)
+     */
+    private void release() {
+        if (mirror != null) {
+            mirror.stop();
+            mirror = null;
+        }
+        if (codeInjector != null) {
+            codeInjector.release();
+            codeInjector = null;
+        }
         if (memory != null) {
             memory.close();
+            memory = null;
         }
         connected = false;
         codeInjectionTested = false;
-        logger.info("Trainer disconnected");
     }
 
     public boolean isConnected() {
         return connected && memory != null && memory.isValid();
     }
 
-    private boolean refreshBoardAddress() {
-        if (!isConnected()) return false;
+    /**
+     * Último snapshot del Board publicado por el espejo (null si no hay nivel).
+     * Las lecturas usan esto; no tocan el proceso.
+     */
+    public BoardSnapshot getBoardSnapshot() {
+        if (!isConnected() || mirror == null) return null;
+        return mirror.current();
+    }
 
-        gameBase = memory.readPointer(baseAddress);
-        if (gameBase == 0) return false;
+    /**
+     * Relee el Board ahora mismo. Lo usan las operaciones que escriben,
+     * para no actuar sobre un Board que ya no existe.
+     */
+    private BoardSnapshot refreshBoard() {
+        if (!isConnected() || mirror == null) return null;
 
-        boardAddress = memory.readPointer(gameBase + PvZOffsets.BOARD);
-        return boardAddress != 0;
+        BoardSnapshot snapshot = mirror.refresh();
+        if (snapshot != null) {
+            boardAddress = snapshot.getBoardAddress();
+        }
+        return snapshot;
     }
 
     // ==================== SCENE & ROW DETECTION ====================
@@ -134,8 +218,8 @@ public class PvZTrainer {
      * 0=Day, 1=Night, 2=Pool, 3=Fog, 4=Roof, 5=Moon
      */
     public int getScene() {
-        if (!refreshBoardAddress()) return -1;
-        return memory.readInt(boardAddress + PvZOffsets.SCENE);
+        BoardSnapshot snapshot = getBoardSnapshot();
+        return snapshot != null ? snapshot.getScene() : -1;
     }
 
     /**
@@ -150,9 +234,11 @@ public class PvZTrainer {
      * Obtiene el número total de filas del nivel actual
      */
     public int getRowCount() {
-        int scene = getScene();
-        if (scene < 0) return 5;
-        return PvZOffsets.getRowCountForScene(scene);
+        return rowCount(getBoardSnapshot());
+    }
+
+    private static int rowCount(BoardSnapshot snapshot) {
+        return snapshot != null ? snapshot.getRowCount() : 5;
     }
 
     /**
@@ -160,26 +246,20 @@ public class PvZTrainer {
      * 0=Normal, 1=Pool, 2=High (techo)
      */
     public int[] getRowTypes() {
-        if (!refreshBoardAddress()) return new int[]{0, 0, 0, 0, 0};
-
-        int rowCount = getRowCount();
-        int[] rowTypes = new int[rowCount];
-
-        for (int i = 0; i < rowCount; i++) {
-            rowTypes[i] = memory.readInt(boardAddress + PvZOffsets.ROW_TYPE + (i * 4));
-        }
+        return rowTypes(getBoardSnapshot());
+    }
 
-        return rowTypes;
+    private static int[] rowTypes(BoardSnapshot snapshot) {
+        return snapshot != null ? snapshot.getRowTypes() : new int[]{0, 0, 0, 0, 0};
     }
 
     /**
      * Obtiene las filas activas según el nivel de aventura (tutorial)
      * Los primeros niveles tienen filas limitadas
      */
-    private List<Integer> getActiveRowsForLevel() {
-        int level = getAdventureLevel();
-        int scene = getScene();
-        int maxRows = getRowCount();
+    private static List<Integer> getActiveRowsForLevel(BoardSnapshot snapshot) {
+        int level = snapshot != null ? snapshot.getAdventureLevel() : -1;
+        int maxRows = rowCount(snapshot);
 
         List<Integer> activeRows = new ArrayList<>();
 
@@ -208,9 +288,13 @@ public class PvZTrainer {
      * (excluye filas de agua en niveles de piscina Y respeta niveles de tutorial)
      */
     public List<Integer> getValidLandRows() {
+        return getValidLandRows(getBoardSnapshot());
+    }
+
+    private static List<Integer> getValidLandRows(BoardSnapshot snapshot) {
         List<Integer> validRows = new ArrayList<>();
-        int[] rowTypes = getRowTypes();
-        List<Integer> activeRows = getActiveRowsForLevel();
+        int[] rowTypes = rowTypes(snapshot);
+        List<Integer> activeRows = getActiveRowsForLevel(snapshot);
 
         for (int i = 0; i < rowTypes.length; i++) {
             // Verificar que la fila esté activa para este nivel
@@ -238,15 +322,19 @@ public class PvZTrainer {
      * Solo retorna filas si estamos en un nivel con piscina
      */
     public List<Integer> getPoolRows() {
+        return getPoolRows(getBoardSnapshot());
+    }
+
+    private static List<Integer> getPoolRows(BoardSnapshot snapshot) {
         List<Integer> poolRows = new ArrayList<>();
 
         // Solo los niveles de piscina/niebla tienen agua
-        if (!hasPool()) {
+        if (snapshot == null || !snapshot.hasPool()) {
             return poolRows;  // Lista vacía si no hay piscina
         }
 
-        int[] rowTypes = getRowTypes();
-        List<Integer> activeRows = getActiveRowsForLevel();
+        int[] rowTypes = snapshot.getRowTypes();
+        List<Integer> activeRows = getActiveRowsForLevel(snapshot);
 
         for (int i = 0; i < rowTypes.length; i++) {
             // Verificar que la fila esté activa para este nivel
@@ -266,26 +354,27 @@ public class PvZTrainer {
      * Verifica si el nivel actual tiene piscina
      */
     public boolean hasPool() {
-        int scene = getScene();
-        return PvZOffsets.hasPool(scene);
+        BoardSnapshot snapshot = getBoardSnapshot();
+        return snapshot != null && snapshot.hasPool();
     }
 
     /**
      * Obtiene el nivel de aventura actual (1-50)
      */
     public int getAdventureLevel() {
-        if (!refreshBoardAddress()) return -1;
-        return memory.readInt(boardAddress + PvZOffsets.ADVENTURE_LEVEL);
+        BoardSnapshot snapshot = getBoardSnapshot();
+        return snapshot != null ? snapshot.getAdventureLevel() : -1;
     }
 
     // ==================== SUN FUNCTIONS ====================
 
     public int getSun() {
-        if (!refreshBoardAddress()) {
+        BoardSnapshot snapshot = getBoardSnapshot();
+        if (snapshot == null) {
             logger.warn("Not in a level");
             return -1;
         }
-        return memory.readInt(boardAddress + PvZOffsets.SUN_COUNT);
+        return snapshot.getSun();
     }
 
     /**
@@ -298,7 +387,7 @@ public class PvZTrainer {
     }
 
     public boolean setSun(int amount) {
-        if (!refreshBoardAddress()) {
+        if (refreshBoard() == null) {
             logger.warn("Not in a level");
             return false;
         }
@@ -318,8 +407,10 @@ public class PvZTrainer {
     }
 
     public boolean addSun(int amount) {
-        int current = getSun();
-        if (current == -1) return false;
+        // Lectura fresca: sumar sobre un valor viejo perdería sol recolectado
+        BoardSnapshot snapshot = refreshBoard();
+        if (snapshot == null) return false;
+        int current = snapshot.getSun();
 
         // Calcular nuevo valor y redondear
         int newAmount = roundToSunIncrement(current + amount);
@@ -329,12 +420,12 @@ public class PvZTrainer {
     // ==================== GAME STATE ====================
 
     public boolean isGamePaused() {
-        if (!refreshBoardAddress()) return false;
-        return memory.readInt(boardAddress + PvZOffsets.GAME_PAUSED) != 0;
+        BoardSnapshot snapshot = getBoardSnapshot();
+        return snapshot != null && snapshot.isPaused();
     }
 
     public boolean pauseGame() {
-        if (!refreshBoardAddress()) {
+        if (refreshBoard() == null) {
             logger.warn("Not in a level");
             return false;
         }
@@ -346,7 +437,7 @@ public class PvZTrainer {
     }
 
     public boolean resumeGame() {
-        if (!refreshBoardAddress()) {
+        if (refreshBoard() == null) {
             logger.warn("Not in a level");
             return false;
         }
@@ -358,8 +449,8 @@ public class PvZTrainer {
     }
 
     public int getZombieCount() {
-        if (!refreshBoardAddress()) return -1;
-        return memory.readInt(boardAddress + PvZOffsets.ZOMBIE_COUNT);
+        BoardSnapshot snapshot = getBoardSnapshot();
+        return snapshot != null ? snapshot.getZombieCount() : -1;
     }
 
     // ==================== ZOMBIE SPAWN ====================
@@ -381,7 +472,8 @@ public class PvZTrainer {
      * @return true si al menos un zombie fue spawneado
      */
     public boolean spawnZombie(String type, int count, int row) {
-        if (!refreshBoardAddress()) {
+        BoardSnapshot board = refreshBoard();
+        if (board == null) {
             logger.warn("Not in a level - cannot spawn zombies");
             return false;
         }
@@ -393,19 +485,7 @@ public class PvZTrainer {
 
         int zombieType = PvZOffsets.getZombieTypeId(type);
         String zombieName = PvZOffsets.getZombieName(zombieType);
-        boolean isAquatic = isAquaticZombie(zombieType);
-
-        // Get valid rows based on zombie type
-        List<Integer> validRows;
-        if (isAquatic && hasPool()) {
-            validRows = getPoolRows();
-            if (validRows.isEmpty()) {
-                // Fallback to land if no pool (shouldn't happen)
-                validRows = getValidLandRows();
-            }
-        } else {
-            validRows = getValidLandRows();
-        }
+        List<Integer> validRows = spawnRows(board, zombieType);
 
         if (validRows.isEmpty()) {
             logger.error("No valid rows available for spawning");
@@ -413,18 +493,14 @@ public class PvZTrainer {
         }
 
         logger.info("Spawning {} x{} (type ID: {})", zombieName, count, zombieType);
-        logger.info("Valid rows: {}, Scene: {}", validRows, getSceneName());
+        logger.info("Valid rows: {}, Scene: {}", validRows, PvZOffsets.getSceneName(board.getScene()));
 
         try {
-            int successCount = 0;
+            // Column 9 = right side of screen
+            int spawnCol = 9;
 
+            List<CodeInjector.Placement> batch = new ArrayList<>(count);
             for (int i = 0; i < count; i++) {
-                if (!refreshBoardAddress()) {
-                    logger.error("Lost connection to game");
-                    break;
-                }
-
-                // Determine row
                 int spawnRow;
                 if (row >= 0 && validRows.contains(row)) {
                     spawnRow = row;
@@ -432,22 +508,22 @@ public class PvZTrainer {
                     // Random row from valid rows
                     spawnRow = validRows.get((int) (Math.random() * validRows.size()));
                 }
+                batch.add(new CodeInjector.Placement(zombieType, spawnRow, spawnCol));
+            }
 
-                // Column 9 = right side of screen
-                int spawnCol = 9;
-
-                boolean success = codeInjector.spawnZombie(zombieType, spawnRow, spawnCol);
+            // Un solo hilo remoto para todo el lote
+            boolean[] results = count == 1
+                    ? new boolean[]{codeInjector.spawnZombie(zombieType, batch.get(0).row(), spawnCol)}
+                    : codeInjector.spawnZombies(batch);
 
-                if (success) {
+            int successCount = 0;
+            for (int i = 0; i < results.length; i++) {
+                if (results[i]) {
                     successCount++;
-                    logger.info("Zombie {} spawned on row {}", i + 1, spawnRow);
+                    logger.info("Zombie {} spawned on row {}", i + 1, batch.get(i).row());
                 } else {
                     logger.error("Failed to spawn zombie {} of {}", i + 1, count);
                 }
-
-                if (i < count - 1) {
-                    Thread.sleep(200);
-                }
             }
 
             logger.info("Successfully spawned {} of {} {} zombie(s)", successCount, count, zombieName);
@@ -459,6 +535,70 @@ public class PvZTrainer {
         }
     }
 
+    /**
+     * Spawnea varios pedidos (tipo x cantidad) con una sola inyección para todos.
+     * Cada zombie va a una fila válida aleatoria según su tipo, como en {@link #spawnZombie}.
+     *
+     * @param types Tipo de cada pedido (nombre o ID)
+     * @param counts Cantidad de cada pedido
+     * @return cuántos zombies de cada pedido se spawnearon (mismo orden), o null si no se pudo intentar
+     */
+    public int[] spawnZombieGroups(List<String> types, int[] counts) {
+        BoardSnapshot board = refreshBoard();
+        if (board == null) {
+            logger.warn("Not in a level - cannot spawn zombies");
+            return null;
+        }
+
+        if (!codeInjectionTested) {
+            logger.error("Code injection not available");
+            return null;
+        }
+
+        // Todas las entradas del lote, recordando a qué pedido pertenece cada una
+        List<CodeInjector.Placement> batch = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int group = 0; group < types.size(); group++) {
+            int zombieType = PvZOffsets.getZombieTypeId(types.get(group));
+            List<Integer> validRows = spawnRows(board, zombieType);
+            if (validRows.isEmpty()) continue;
+
+            for (int i = 0; i < counts[group]; i++) {
+                int spawnRow = validRows.get((int) (Math.random() * validRows.size()));
+                batch.add(new CodeInjector.Placement(zombieType, spawnRow, 9));
+                owners.add(group);
+            }
+        }
+
+        int[] spawned = new int[types.size()];
+        if (batch.isEmpty()) {
+            return spawned;
+        }
+
+        logger.info("Spawning batch of {} zombie(s) for {} request(s)", batch.size(), types.size());
+        boolean[] results = codeInjector.spawnZombies(batch);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i]) {
+                spawned[owners.get(i)]++;
+            }
+        }
+        return spawned;
+    }
+
+    /**
+     * Filas donde puede aparecer un tipo de zombie: agua para los acuáticos (si hay piscina), tierra para el resto
+     */
+    private List<Integer> spawnRows(BoardSnapshot board, int zombieType) {
+        if (isAquaticZombie(zombieType) && board.hasPool()) {
+            List<Integer> poolRows = getPoolRows(board);
+            if (!poolRows.isEmpty()) {
+                return poolRows;
+            }
+            // Fallback to land if no pool (shouldn't happen)
+        }
+        return getValidLandRows(board);
+    }
+
     // ==================== UTILITY ====================
 
     public boolean isCodeInjectionReady() {
@@ -481,17 +621,19 @@ public class PvZTrainer {
      * Obtiene información completa del nivel actual en formato visual
      */
     public String getLevelInfo() {
-        int sun = getSun();
-        if (sun == -1) {
+        // Todos los campos salen del mismo snapshot
+        BoardSnapshot board = getBoardSnapshot();
+        if (board == null) {
             return null;  // No estamos en un nivel
         }
 
-        int scene = getScene();
-        int level = getAdventureLevel();
-        int zombies = getZombieCount();
-        boolean paused = isGamePaused();
-        List<Integer> landRows = getValidLandRows();
-        List<Integer> poolRows = getPoolRows();
+        int sun = board.getSun();
+        int scene = board.getScene();
+        int level = board.getAdventureLevel();
+        int zombies = board.getZombieCount();
+        boolean paused = board.isPaused();
+        List<Integer> landRows = getValidLandRows(board);
+        List<Integer> poolRows = getPoolRows(board);
 
         StringBuilder sb = new StringBuilder();
 
@@ -510,7 +652,7 @@ public class PvZTrainer {
         sb.append("━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
 
         // Filas visuales
-        int totalRows = getRowCount();
+        int totalRows = board.getRowCount();
         for (int row = 0; row < totalRows; row++) {
             boolean isActive = landRows.contains(row);
             boolean isPool = poolRows.contains(row);
@@ -0,0 +1,82 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lee la tabla de imports (PE32) de un módulo cargado en el proceso remoto.
+ * Sirve para que el shellcode llame funciones del sistema (ej: Sleep) a través
+ * de la IAT del propio juego, sin conocer la base de kernel32 en el proceso de 32 bits.
+ */
+public class RemoteImports {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteImports.class);
+
+    // popcapgame1.exe no usa ASLR
+    public static final long GAME_IMAGE_BASE = 0x400000;
+
+    private static final int IMPORT_DESCRIPTOR_SIZE = 20;
+    private static final int MAX_DESCRIPTORS = 256;
+    private static final int MAX_THUNKS = 4096;
+
+    /**
+     * Busca el slot de la IAT para {@code dll!function}.
+     * @return dirección del slot (para {@code call [slot]}), o 0 si no se encontró
+     */
+    public static long findImportSlot(ProcessMemory memory, long imageBase, String dll, String function) {
+        if ((memory.readInt(imageBase) & 0xFFFF) != 0x5A4D) { // "MZ"
+            logger.warn("No PE image at 0x{}", Long.toHexString(imageBase));
+            return 0;
+        }
+
+        long ntHeaders = imageBase + memory.readInt(imageBase + 0x3C);
+        if (memory.readInt(ntHeaders) != 0x00004550) { // "PE\0\0"
+            logger.warn("Invalid NT headers at 0x{}", Long.toHexString(ntHeaders));
+            return 0;
+        }
+
+        long optionalHeader = ntHeaders + 0x18;
+        int importDirRva = memory.readInt(optionalHeader + 0x68);
+        if (importDirRva == 0) return 0;
+
+        for (int d = 0; d < MAX_DESCRIPTORS; d++) {
+            long descriptor = imageBase + importDirRva + (long) d * IMPORT_DESCRIPTOR_SIZE;
+            int originalFirstThunk = memory.readInt(descriptor);
+            int nameRva = memory.readInt(descriptor + 12);
+            int firstThunk = memory.readInt(descriptor + 16);
+
+            if (nameRva == 0 && firstThunk == 0) break;
+            if (!dll.equalsIgnoreCase(readCString(memory, imageBase + nameRva))) continue;
+
+            int lookupRva = originalFirstThunk != 0 ? originalFirstThunk : firstThunk;
+            for (int t = 0; t < MAX_THUNKS; t++) {
+                int thunk = memory.readInt(imageBase + lookupRva + t * 4L);
+                if (thunk == 0) break;
+                if (thunk < 0) continue; // import por ordinal
+
+                // IMAGE_IMPORT_BY_NAME: hint (2 bytes) + nombre
+                String name = readCString(memory, imageBase + Integer.toUnsignedLong(thunk) + 2);
+                if (function.equals(name)) {
+                    long slot = imageBase + firstThunk + t * 4L;
+                    logger.debug("Import {}!{} at IAT slot 0x{}", dll, function, Long.toHexString(slot));
+                    return slot;
+                }
+            }
+        }
+
+        logger.warn("Import {}!{} not found", dll, function);
+        return 0;
+    }
+
+    private static String readCString(ProcessMemory memory, long address) {
+        byte[] raw = memory.readBytes(address, 64);
+        if (raw == null) return "";
+        int length = 0;
+        while (length < raw.length && raw[length] != 0) {
+            length++;
+        }
+        return new String(raw, 0, length, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,74 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Buffer directo reutilizable para los backends de {@link ProcessMemory}.
+ * Crece a la siguiente potencia de 2 cuando hace falta; pensado para vivir
+ * en un ThreadLocal (no es thread-safe).
+ */
+class ScratchBuffer {
+
+    private static final int INITIAL_SIZE = 256;
+
+    private ByteBuffer buffer;
+    private Pointer pointer;
+    private long address;
+
+    // Último buffer del llamador y su dirección base: obtenerla crea un Pointer cada vez
+    private ByteBuffer lastTarget;
+    private long lastTargetAddress;
+
+    /**
+     * Puntero al inicio de un buffer de al menos {@code size} bytes
+     */
+    Pointer pointer(int size) {
+        ensure(size);
+        return pointer;
+    }
+
+    /**
+     * Dirección nativa del inicio de un buffer de al menos {@code size} bytes
+     */
+    long address(int size) {
+        ensure(size);
+        return address;
+    }
+
+    /**
+     * Vista [0, size) del buffer, lista para leer/escribir
+     */
+    ByteBuffer buffer(int size) {
+        ensure(size);
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    private void ensure(int size) {
+        if (buffer == null || buffer.capacity() < size) {
+            int capacity = Math.max(INITIAL_SIZE, Integer.highestOneBit(Math.max(1, size - 1)) << 1);
+            buffer = ByteBuffer.allocateDirect(capacity);
+            pointer = Native.getDirectBufferPointer(buffer);
+            address = Pointer.nativeValue(pointer);
+        }
+    }
+
+    /**
+     * Dirección nativa de la posición actual de un ByteBuffer directo del llamador. La
+     * base del último buffer queda guardada, así leer una y otra vez en el mismo buffer
+     * no asigna nada (a costa de retenerlo mientras viva el hilo).
+     */
+    long addressAt(ByteBuffer target) {
+        if (target != lastTarget) {
+            if (!target.isDirect()) {
+                throw new IllegalArgumentException("Block transfers require a direct ByteBuffer");
+            }
+            lastTargetAddress = Pointer.nativeValue(Native.getDirectBufferPointer(target));
+            lastTarget = target;
+        }
+        return lastTargetAddress + target.position();
+    }
+}
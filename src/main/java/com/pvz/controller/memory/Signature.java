@@ -0,0 +1,87 @@
+package com.pvz.controller.memory;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Patrón de bytes (AOB) con comodines, buscado con Boyer-Moore-Horspool.
+ *
+ * Formato: {@code "8B 0D ?? ?? ?? ?? 8B 89 68 08 00 00"} ({@code ??} = cualquier byte).
+ * Con comodines el salto máximo queda limitado por la posición del último comodín.
+ */
+public final class Signature {
+
+    private final String text;
+    private final byte[] pattern;
+    private final boolean[] wildcard;
+    private final int[] skip = new int[256];
+
+    private Signature(String text, byte[] pattern, boolean[] wildcard) {
+        this.text = text;
+        this.pattern = pattern;
+        this.wildcard = wildcard;
+        buildSkipTable();
+    }
+
+    public static Signature parse(String text) {
+        String[] tokens = text.trim().split("\\s+");
+        byte[] pattern = new byte[tokens.length];
+        boolean[] wildcard = new boolean[tokens.length];
+
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].equals("??") || tokens[i].equals("?")) {
+                wildcard[i] = true;
+            } else {
+                pattern[i] = (byte) Integer.parseInt(tokens[i], 16);
+            }
+        }
+        if (wildcard[tokens.length - 1]) {
+            throw new IllegalArgumentException("Signature cannot end with a wildcard: " + text);
+        }
+        return new Signature(text, pattern, wildcard);
+    }
+
+    private void buildSkipTable() {
+        int m = pattern.length;
+        int lastWildcard = -1;
+        for (int i = 0; i < m - 1; i++) {
+            if (wildcard[i]) lastWildcard = i;
+        }
+
+        // Un comodín coincide con cualquier byte: no se puede saltar más allá de él
+        Arrays.fill(skip, m - 1 - lastWildcard);
+        for (int i = lastWildcard + 1; i < m - 1; i++) {
+            skip[pattern[i] & 0xFF] = m - 1 - i;
+        }
+    }
+
+    public int length() {
+        return pattern.length;
+    }
+
+    /**
+     * Reporta cada coincidencia que empieza en [from, to) y cabe en {@code data[0, limit)}.
+     */
+    public void forEachMatch(byte[] data, int from, int to, int limit, IntConsumer onMatch) {
+        int m = pattern.length;
+        int last = m - 1;
+        int end = Math.min(to, limit - m + 1);
+
+        int i = from;
+        while (i < end) {
+            int j = last;
+            while (j >= 0 && (wildcard[j] || data[i + j] == pattern[j])) {
+                j--;
+            }
+            if (j < 0) {
+                onMatch.accept(i);
+            }
+            i += skip[data[i + last] & 0xFF];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
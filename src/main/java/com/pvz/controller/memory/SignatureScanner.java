@@ -0,0 +1,236 @@
+package com.pvz.controller.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Busca firmas de código en las secciones ejecutables de un módulo PE32 cargado.
+ *
+ * Las secciones se parten en bloques que se leen y se recorren en paralelo en
+ * el ForkJoinPool común; los bloques se solapan lo justo para no perder
+ * coincidencias que crucen el borde.
+ */
+public class SignatureScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignatureScanner.class);
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 0x1000;
+    private static final int SECTION_HEADER_SIZE = 40;
+    private static final int IMAGE_SCN_CNT_CODE = 0x00000020;
+    private static final int IMAGE_SCN_MEM_EXECUTE = 0x20000000;
+
+    /**
+     * Sección ejecutable del módulo: [address, address + size)
+     */
+    public record Section(String name, long address, int size) {}
+
+    /**
+     * Convierte una coincidencia en un resultado (null = descartar).
+     * {@code data[index]} es el primer byte de la coincidencia, en {@code address}.
+     */
+    @FunctionalInterface
+    public interface MatchMapper<T> {
+        T map(byte[] data, int index, long address);
+    }
+
+    private record Chunk(long address, int length, long sectionStart, long sectionEnd) {}
+
+    private final ProcessMemory memory;
+    private final long imageBase;
+    private final int imageSize;
+    private final byte[] headers;
+    private final List<Section> sections;
+
+    private SignatureScanner(ProcessMemory memory, long imageBase, int imageSize,
+                             byte[] headers, List<Section> sections) {
+        this.memory = memory;
+        this.imageBase = imageBase;
+        this.imageSize = imageSize;
+        this.headers = headers;
+        this.sections = sections;
+    }
+
+    /**
+     * Lee los headers PE del módulo y prepara el escaneo de sus secciones de código.
+     * @return el scanner, o null si no hay una imagen PE32 válida en {@code imageBase}
+     */
+    public static SignatureScanner forModule(ProcessMemory memory, long imageBase) {
+        byte[] headers = memory.readBytes(imageBase, HEADER_SIZE);
+        if (headers == null) return null;
+
+        ByteBuffer pe = ByteBuffer.wrap(headers).order(ByteOrder.LITTLE_ENDIAN);
+        if ((pe.getShort(0) & 0xFFFF) != 0x5A4D) { // "MZ"
+            logger.warn("No PE image at 0x{}", Long.toHexString(imageBase));
+            return null;
+        }
+
+        int nt = pe.getInt(0x3C);
+        if (nt < 0 || nt + 0x18 > HEADER_SIZE || pe.getInt(nt) != 0x00004550) { // "PE\0\0"
+            logger.warn("Invalid NT headers at 0x{}", Long.toHexString(imageBase + nt));
+            return null;
+        }
+
+        int sectionCount = pe.getShort(nt + 6) & 0xFFFF;
+        int optionalSize = pe.getShort(nt + 0x14) & 0xFFFF;
+        int imageSize = pe.getInt(nt + 0x18 + 0x38);
+        int table = nt + 0x18 + optionalSize;
+
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < sectionCount; i++) {
+            int header = table + i * SECTION_HEADER_SIZE;
+            if (header + SECTION_HEADER_SIZE > HEADER_SIZE) break;
+
+            int characteristics = pe.getInt(header + 36);
+            if ((characteristics & (IMAGE_SCN_CNT_CODE | IMAGE_SCN_MEM_EXECUTE)) == 0) continue;
+
+            String name = new String(headers, header, 8, StandardCharsets.US_ASCII).replace("\0", "");
+            int virtualSize = pe.getInt(header + 8);
+            int virtualAddress = pe.getInt(header + 12);
+            sections.add(new Section(name, imageBase + virtualAddress, virtualSize));
+        }
+
+        logger.debug("Module at 0x{}: {} bytes, code sections {}",
+                Long.toHexString(imageBase), imageSize, sections);
+        return new SignatureScanner(memory, imageBase, imageSize, headers, sections);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // ESCANEO
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Todas las direcciones donde aparece la firma, en orden.
+     */
+    public List<Long> find(Signature signature) {
+        return scan(signature, 0, 0, (data, index, address) -> address);
+    }
+
+    /**
+     * Busca la firma en todas las secciones de código y aplica {@code mapper} a cada
+     * coincidencia. El mapper puede mirar {@code lookbehind} bytes antes de la
+     * coincidencia (si existen en la sección; debe comprobar {@code index}) y
+     * {@code lookahead} bytes después de su final.
+     */
+    public <T> List<T> scan(Signature signature, int lookbehind, int lookahead, MatchMapper<T> mapper) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (Section section : sections) {
+            long end = section.address() + section.size();
+            for (long address = section.address(); address < end; address += CHUNK_SIZE) {
+                chunks.add(new Chunk(address, (int) Math.min(CHUNK_SIZE, end - address),
+                        section.address(), end));
+            }
+        }
+        if (chunks.isEmpty()) return List.of();
+
+        int overlap = signature.length() - 1 + lookahead;
+        return ForkJoinPool.commonPool().invoke(
+                new ScanTask<>(chunks, 0, chunks.size(), signature, lookbehind, overlap, lookahead, mapper));
+    }
+
+    /**
+     * Nunca se serializa (vive dentro de un invoke del pool); RecursiveTask es Serializable
+     * solo por herencia, así que los campos van transient
+     */
+    private final class ScanTask<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final transient Signature signature;
+        private final int lookbehind;
+        private final int overlap;
+        private final int lookahead;
+        private final transient MatchMapper<T> mapper;
+
+        ScanTask(List<Chunk> chunks, int from, int to, Signature signature,
+                 int lookbehind, int overlap, int lookahead, MatchMapper<T> mapper) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.signature = signature;
+            this.lookbehind = lookbehind;
+            this.overlap = overlap;
+            this.lookahead = lookahead;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from == 1) {
+                return scanChunk(chunks.get(from));
+            }
+
+            int mid = (from + to) >>> 1;
+            ScanTask<T> left = new ScanTask<>(chunks, from, mid, signature, lookbehind, overlap, lookahead, mapper);
+            ScanTask<T> right = new ScanTask<>(chunks, mid, to, signature, lookbehind, overlap, lookahead, mapper);
+            left.fork();
+            List<T> results = new ArrayList<>(right.compute());
+            results.addAll(0, left.join());
+            return results;
+        }
+
+        private List<T> scanChunk(Chunk chunk) {
+            long start = Math.max(chunk.sectionStart(), chunk.address() - lookbehind);
+            long end = Math.min(chunk.sectionEnd(), chunk.address() + chunk.length() + overlap);
+            byte[] data = memory.readBytes(start, (int) (end - start));
+            if (data == null) {
+                logger.debug("Skipping unreadable chunk at 0x{}", Long.toHexString(chunk.address()));
+                return List.of();
+            }
+
+            int scanFrom = (int) (chunk.address() - start);
+            List<T> results = new ArrayList<>();
+            signature.forEachMatch(data, scanFrom, scanFrom + chunk.length(), data.length - lookahead, index -> {
+                T result = mapper.map(data, index, start + index);
+                if (result != null) results.add(result);
+            });
+            return results;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // MÓDULO
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Identifica el build: SHA-256 de los headers PE (incluye TimeDateStamp y
+     * checksum) + SizeOfImage.
+     */
+    public String moduleKey() {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(headers);
+            return HexFormat.of().formatHex(hash) + ":" + Integer.toHexString(imageSize);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean containsAddress(long address) {
+        return address >= imageBase && address < imageBase + Integer.toUnsignedLong(imageSize);
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    public long getImageBase() {
+        return imageBase;
+    }
+
+    public int getImageSize() {
+        return imageSize;
+    }
+}
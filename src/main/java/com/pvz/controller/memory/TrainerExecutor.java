@@ -1,28 +1,350 @@
 package com.pvz.controller.memory;
 
+import com.pvz.controller.config.ControllerConfig;
+import com.pvz.controller.memory.CommandScheduler.Task;
+import com.pvz.controller.model.CommandSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
 /**
- * TrainerExecutor V1.2 - Ejecuta comandos del juego via memory trainer
+ * TrainerExecutor V1.3 - Ejecuta comandos del juego via memory trainer
  * Soporta inyección de código para spawn de zombies y plantar plantas
+ *
+ * Todas las mutaciones del juego pasan por un único hilo actuador ("game-actuator")
+ * que drena una cola acotada. Los llamadores (HTTP, TikTok, likes) solo encolan y
+ * reciben un CompletableFuture, así nunca hay dos hilos tocando PvZTrainer/CodeInjector.
  */
 public class TrainerExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(TrainerExecutor.class);
-    private static PvZTrainer trainer = new PvZTrainer();
+
+    // Solo el hilo actuador modifica estos campos (trainer es volatile para getBoardSnapshot())
+    private static volatile PvZTrainer trainer = new PvZTrainer();
     private static PlantManager plantManager = null;
 
+    // ═══════════════════════════════════════════════════════════════════
+    // ACTUATOR QUEUE
+    // ═══════════════════════════════════════════════════════════════════
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    // Prioridad por origen (regalo > bonus > HTTP > chat > likes) y reparto justo Plantas/Zombies
+    private static final CommandScheduler queue = new CommandScheduler(QUEUE_CAPACITY,
+            ControllerConfig.getSchedulerWeightPlantas(), ControllerConfig.getSchedulerWeightZombies());
+
+    private static final AtomicLong executedCount = new AtomicLong();
+    private static final AtomicLong rejectedCount = new AtomicLong();
+    private static final AtomicLong totalServiceNanos = new AtomicLong();
+    private static final AtomicLong maxServiceNanos = new AtomicLong();
+    private static final AtomicLong totalWaitNanos = new AtomicLong();
+
+    // Plazo por origen (leído una vez) y descartes por origen
+    private static final CommandSource[] SOURCES = CommandSource.values();
+    private static final long[] deadlineNanos = new long[SOURCES.length];
+    private static final AtomicLongArray expiredCount = new AtomicLongArray(SOURCES.length);
+
+    static {
+        for (CommandSource source : SOURCES) {
+            deadlineNanos[source.ordinal()] = ControllerConfig.getCommandDeadlineMs(source) * 1_000_000L;
+        }
+    }
+
+    // Se notifican en el hilo actuador: deben ser baratos (ej: encolar un evento)
+    private static final CopyOnWriteArrayList<BiConsumer<com.pvz.controller.model.GameCommand, ExecutionResult>> listeners =
+            new CopyOnWriteArrayList<>();
+
+    private static final Thread actuator = startActuator();
+
+    private static Thread startActuator() {
+        Thread thread = new Thread(TrainerExecutor::runActuator, "game-actuator");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void runActuator() {
+        while (true) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long start = System.nanoTime();
+            if (task.isExpired(start)) {
+                expire(task, start);
+                continue;
+            }
+
+            ExecutionResult result;
+            try {
+                result = task.work().call();
+            } catch (Exception e) {
+                logger.error("Error en hilo actuador: {}", e.getMessage(), e);
+                result = new ExecutionResult(false, "❌ Error: " + e.getMessage());
+            }
+            long serviceNanos = System.nanoTime() - start;
+
+            executedCount.incrementAndGet();
+            totalServiceNanos.addAndGet(serviceNanos);
+            totalWaitNanos.addAndGet(start - task.enqueuedAt());
+            maxServiceNanos.accumulateAndGet(serviceNanos, Math::max);
+
+            task.future().complete(result);
+            queue.recordLatency(task.source(), System.nanoTime() - task.enqueuedAt());
+            if (task.command() != null) {
+                notifyListeners(task.command(), result);
+            }
+        }
+    }
+
+    private static void notifyListeners(com.pvz.controller.model.GameCommand command, ExecutionResult result) {
+        for (BiConsumer<com.pvz.controller.model.GameCommand, ExecutionResult> listener : listeners) {
+            try {
+                listener.accept(command, result);
+            } catch (Exception e) {
+                logger.warn("Command listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Descarta una tarea que esperó más que el plazo de su origen (un grupo cuenta cada comando)
+     */
+    private static void expire(Task task, long now) {
+        expiredCount.addAndGet(task.source().ordinal(), Math.max(1, task.size()));
+        long waitedMs = (now - task.enqueuedAt()) / 1_000_000;
+        String name = task.command() != null ? task.command().getCommand()
+                : task.group().isEmpty() ? "?" : task.group().get(0).getCommand() + " x" + task.group().size();
+        logger.info("Dropped expired {} command '{}' after {} ms in queue", task.source(), name, waitedMs);
+        task.future().complete(new ExecutionResult(false, "⌛ Acción descartada: esperó " + waitedMs + " ms en cola"));
+    }
+
+    private static long deadlineFor(com.pvz.controller.model.GameCommand command, long now) {
+        if (command == null) return 0;
+        long budget = deadlineNanos[command.getSource().ordinal()];
+        return budget > 0 ? now + budget : 0;
+    }
+
+    private static CompletableFuture<ExecutionResult> enqueue(com.pvz.controller.model.GameCommand command,
+                                                              Callable<ExecutionResult> work) {
+        CommandSource source = command != null ? command.getSource() : CommandSource.SYSTEM;
+        return enqueue(command, source, work);
+    }
+
+    /**
+     * Cola llena: el scheduler saca primero los vencidos y, si hace falta, desplaza al menos
+     * prioritario; así el lugar es para acciones frescas e importantes
+     */
+    private static CompletableFuture<ExecutionResult> enqueue(com.pvz.controller.model.GameCommand command,
+                                                              CommandSource source, Callable<ExecutionResult> work) {
+        long now = System.nanoTime();
+        return offer(new Task(command, List.of(), source, work, new CompletableFuture<>(), now, deadlineFor(command, now)));
+    }
+
+    /**
+     * Un grupo de un lote como una sola tarea: fila de su tipo, costo de todos sus comandos
+     * y el plazo de su origen
+     */
+    private static CompletableFuture<ExecutionResult> enqueueGroup(List<com.pvz.controller.model.GameCommand> group,
+                                                                   Callable<ExecutionResult> work) {
+        com.pvz.controller.model.GameCommand first = group.get(0);
+        long now = System.nanoTime();
+        return offer(new Task(null, group, first.getSource(), work, new CompletableFuture<>(), now, deadlineFor(first, now)));
+    }
+
+    private static CompletableFuture<ExecutionResult> offer(Task task) {
+        long now = System.nanoTime();
+        CommandScheduler.Admission admission = queue.offer(task);
+
+        for (Task expired : admission.expired()) {
+            expire(expired, now);
+        }
+        if (admission.displaced() != null) {
+            rejectedCount.incrementAndGet();
+            logger.warn("Cola del actuador llena ({}), {} desplazado por {}", QUEUE_CAPACITY,
+                    admission.displaced().source(), task.source());
+            admission.displaced().future().complete(new ExecutionResult(false, "❌ Juego ocupado, intenta de nuevo"));
+        }
+        if (!admission.accepted()) {
+            rejectedCount.incrementAndGet();
+            logger.warn("Cola del actuador llena ({}), comando rechazado", QUEUE_CAPACITY);
+            task.future().complete(new ExecutionResult(false, "❌ Juego ocupado, intenta de nuevo"));
+        }
+        return task.future();
+    }
+
+    /**
+     * Encola un comando para el hilo actuador y retorna inmediatamente.
+     */
+    public static CompletableFuture<ExecutionResult> submit(com.pvz.controller.model.GameCommand command) {
+        return enqueue(command, () -> executeNow(command));
+    }
+
+    /**
+     * Encola un lote. Los spawn_zombie y plant seguidos (del mismo origen) forman un grupo
+     * que se ejecuta en una sola inyección; cada grupo y cada comando suelto es su propia
+     * tarea del actuador, con su fila, su costo y su plazo, así un regalo no espera detrás
+     * del lote entero. Cada futuro se completa cuando termina su grupo; si el grupo se
+     * rechaza o vence en la cola, todos sus comandos reciben ese resultado.
+     */
+    public static List<CompletableFuture<ExecutionResult>> submitBatch(List<com.pvz.controller.model.GameCommand> commands) {
+        List<CompletableFuture<ExecutionResult>> futures = new ArrayList<>(commands.size());
+        for (int start = 0; start < commands.size(); ) {
+            com.pvz.controller.model.GameCommand first = commands.get(start);
+            int end = start + 1;
+            if (first.isSpawnCommand() || first.isPlantCommand()) {
+                while (end < commands.size()
+                        && commands.get(end).getCommand().equals(first.getCommand())
+                        && commands.get(end).getSource() == first.getSource()) {
+                    end++;
+                }
+            }
+
+            if (end - start == 1) {
+                futures.add(submit(first));
+            } else {
+                List<com.pvz.controller.model.GameCommand> group = List.copyOf(commands.subList(start, end));
+                List<CompletableFuture<ExecutionResult>> groupFutures = new ArrayList<>(group.size());
+                for (int i = 0; i < group.size(); i++) {
+                    groupFutures.add(new CompletableFuture<>());
+                }
+                // Lo que no completó el grupo (cola llena, vencido, error) recibe el resultado de la tarea
+                enqueueGroup(group, () -> executeGroupTask(group, groupFutures))
+                        .thenAccept(result -> groupFutures.forEach(future -> future.complete(result)));
+                futures.addAll(groupFutures);
+            }
+            start = end;
+        }
+        return futures;
+    }
+
+    /**
+     * Encola el comando y espera su resultado (para llamadores síncronos).
+     */
     public static ExecutionResult execute(com.pvz.controller.model.GameCommand command) {
+        return runOnActuator(command, () -> executeNow(command));
+    }
+
+    private static ExecutionResult runOnActuator(Callable<ExecutionResult> work) {
+        return runOnActuator(null, work);
+    }
+
+    private static ExecutionResult runOnActuator(com.pvz.controller.model.GameCommand command,
+                                                 Callable<ExecutionResult> work) {
+        if (Thread.currentThread() == actuator) {
+            try {
+                return work.call();
+            } catch (Exception e) {
+                return new ExecutionResult(false, "❌ Error: " + e.getMessage());
+            }
+        }
+        return enqueue(command, work).join();
+    }
+
+    /**
+     * Registra un observador de cada comando ejecutado (se llama en el hilo actuador)
+     */
+    public static void addCommandListener(BiConsumer<com.pvz.controller.model.GameCommand, ExecutionResult> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Último Board publicado por el espejo del trainer (null = sin juego o sin nivel).
+     * Seguro desde cualquier hilo: no encola nada en el actuador.
+     */
+    public static BoardSnapshot getBoardSnapshot() {
+        PvZTrainer current = trainer;
+        return current != null ? current.getBoardSnapshot() : null;
+    }
+
+    public static int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Posición actual en la cola del comando de {@code future} (el que devolvió {@link #submit}).
+     * @return desde 1, o 0 si ya no espera: lo está ejecutando el actuador o terminó
+     */
+    public static int getQueuePosition(CompletableFuture<ExecutionResult> future) {
+        return queue.positionOf(future);
+    }
+
+    /**
+     * Métricas del actuador: profundidad de cola, tiempo de servicio y espera en cola
+     */
+    public static String getStats() {
+        long executed = executedCount.get();
+        double avgServiceMs = executed > 0 ? totalServiceNanos.get() / 1e6 / executed : 0;
+        double avgWaitMs = executed > 0 ? totalWaitNanos.get() / 1e6 / executed : 0;
+        return String.format("⚙️ Cola: %d/%d | Ejecutados: %d | Rechazados: %d | Vencidos: %s | Servicio: %.1f ms prom (máx %.1f) | Espera: %.1f ms prom",
+                queue.size(), QUEUE_CAPACITY, executed, rejectedCount.get(), getExpiredSummary(),
+                avgServiceMs, maxServiceNanos.get() / 1e6, avgWaitMs);
+    }
+
+    /**
+     * Descartes por vencimiento, por origen (ej: "3 (CHAT 2, LIKES 1)")
+     */
+    public static String getExpiredSummary() {
+        long total = 0;
+        StringBuilder bySource = new StringBuilder();
+        for (CommandSource source : SOURCES) {
+            long count = expiredCount.get(source.ordinal());
+            if (count == 0) continue;
+            total += count;
+            bySource.append(bySource.isEmpty() ? "" : ", ").append(source).append(' ').append(count);
+        }
+        return total == 0 ? "0" : total + " (" + bySource + ")";
+    }
+
+    /**
+     * En cola y latencia (p50/p95/p99) por clase de prioridad
+     */
+    public static String getSchedulerStats() {
+        return queue.getStats();
+    }
+
+    public static long getExpiredCount(CommandSource source) {
+        return expiredCount.get(source.ordinal());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // COMMAND DISPATCH (solo en el hilo actuador)
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * @return null si hay conexión, o el error para el llamador
+     */
+    private static ExecutionResult ensureConnected() {
+        // Conectar si no está conectado
+        if (!trainer.isConnected()) {
+            logger.info("Conectando a PvZ...");
+            if (!trainer.connect()) {
+                return new ExecutionResult(false, "❌ No se pudo conectar a PvZ. ¿Está el juego en un nivel?");
+            }
+            // Inicializar PlantManager después de conectar
+            plantManager = new PlantManager(trainer, trainer.getCodeInjector());
+        }
+        return null;
+    }
+
+    private static ExecutionResult executeNow(com.pvz.controller.model.GameCommand command) {
         try {
-            // Conectar si no está conectado
-            if (!trainer.isConnected()) {
-                logger.info("Conectando a PvZ...");
-                if (!trainer.connect()) {
-                    return new ExecutionResult(false, "❌ No se pudo conectar a PvZ. ¿Está el juego en un nivel?");
-                }
-                // Inicializar PlantManager después de conectar
-                plantManager = new PlantManager(trainer, trainer.getCodeInjector());
+            ExecutionResult notConnected = ensureConnected();
+            if (notConnected != null) {
+                return notConnected;
             }
 
             String cmd = command.getCommand().toLowerCase();
@@ -102,10 +424,57 @@ public class TrainerExecutor {
             }
 
         } catch (Exception e) {
-            logger.error("Error de ejecución: {}", e.getMessage(), e);
-            trainer = new PvZTrainer();
-            plantManager = null;
-            return new ExecutionResult(false, "❌ Error: " + e.getMessage());
+            return resetAfter(e);
+        }
+    }
+
+    private static ExecutionResult resetAfter(Exception e) {
+        logger.error("Error de ejecución: {}", e.getMessage(), e);
+        trainer.disconnect();
+        trainer = new PvZTrainer();
+        plantManager = null;
+        return new ExecutionResult(false, "❌ Error: " + e.getMessage());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // BATCH DISPATCH (solo en el hilo actuador)
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Ejecuta un grupo de un lote; completa y notifica cada comando con su propio resultado
+     */
+    private static ExecutionResult executeGroupTask(List<com.pvz.controller.model.GameCommand> group,
+                                                    List<CompletableFuture<ExecutionResult>> futures) {
+        ExecutionResult[] results = executeGroupNow(group);
+        int succeeded = 0;
+        for (int i = 0; i < results.length; i++) {
+            futures.get(i).complete(results[i]);
+            notifyListeners(group.get(i), results[i]);
+            if (results[i].isSuccess()) succeeded++;
+        }
+
+        logger.info("Grupo {} x{} ejecutado: {}/{} exitosos", group.get(0).getCommand(), group.size(), succeeded, group.size());
+        return new ExecutionResult(succeeded == group.size(),
+                String.format("📦 Grupo: %d/%d exitosos", succeeded, group.size()));
+    }
+
+    /**
+     * Varios spawn_zombie o varios plant seguidos: una sola inyección para todo el grupo
+     */
+    private static ExecutionResult[] executeGroupNow(List<com.pvz.controller.model.GameCommand> group) {
+        ExecutionResult[] results;
+        try {
+            ExecutionResult notConnected = ensureConnected();
+            if (notConnected != null) {
+                results = new ExecutionResult[group.size()];
+                Arrays.fill(results, notConnected);
+                return results;
+            }
+            return group.get(0).isSpawnCommand() ? handleSpawnZombies(group) : handlePlants(group);
+        } catch (Exception e) {
+            results = new ExecutionResult[group.size()];
+            Arrays.fill(results, resetAfter(e));
+            return results;
         }
     }
 
@@ -137,6 +506,31 @@ public class TrainerExecutor {
         }
     }
 
+    private static ExecutionResult[] handleSpawnZombies(List<com.pvz.controller.model.GameCommand> group) {
+        ExecutionResult[] results = new ExecutionResult[group.size()];
+        if (!trainer.isCodeInjectionReady()) {
+            Arrays.fill(results, new ExecutionResult(false, "❌ Inyección no lista. Reconecta e intenta de nuevo."));
+            return results;
+        }
+
+        List<String> types = new ArrayList<>(group.size());
+        int[] counts = new int[group.size()];
+        for (int i = 0; i < group.size(); i++) {
+            com.pvz.controller.model.GameCommand command = group.get(i);
+            types.add(command.getType() != null ? command.getType() : "normal");
+            counts[i] = Math.min(Math.max(command.getCountOrDefault(1), 1), 10);
+        }
+
+        int[] spawned = trainer.spawnZombieGroups(types, counts);
+        for (int i = 0; i < results.length; i++) {
+            String zombieName = PvZOffsets.getZombieName(PvZOffsets.getZombieTypeId(types.get(i)));
+            results[i] = spawned != null && spawned[i] > 0
+                    ? new ExecutionResult(true, String.format("🧟 ¡%d %s invocado(s)!", spawned[i], zombieName))
+                    : new ExecutionResult(false, "❌ Error al invocar " + zombieName + ". Revisa la consola.");
+        }
+        return results;
+    }
+
     // ═══════════════════════════════════════════════════════════════════
     // PLANT HANDLING
     // ═══════════════════════════════════════════════════════════════════
@@ -146,6 +540,48 @@ public class TrainerExecutor {
             return new ExecutionResult(false, "❌ PlantManager no inicializado. Reconecta.");
         }
 
+        ExecutionResult missing = checkPlantArgs(command);
+        if (missing != null) {
+            return missing;
+        }
+
+        PlantManager.PlantResult result = plantManager.plant(command.getType(), command.getRow(), command.getCol());
+        return toResult(result);
+    }
+
+    private static ExecutionResult[] handlePlants(List<com.pvz.controller.model.GameCommand> group) {
+        ExecutionResult[] results = new ExecutionResult[group.size()];
+        if (plantManager == null) {
+            Arrays.fill(results, new ExecutionResult(false, "❌ PlantManager no inicializado. Reconecta."));
+            return results;
+        }
+
+        // Solo van al lote los que traen tipo, fila y columna
+        List<Integer> indexes = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        List<Integer> cols = new ArrayList<>();
+        for (int i = 0; i < group.size(); i++) {
+            com.pvz.controller.model.GameCommand command = group.get(i);
+            results[i] = checkPlantArgs(command);
+            if (results[i] == null) {
+                indexes.add(i);
+                types.add(command.getType());
+                rows.add(command.getRow());
+                cols.add(command.getCol());
+            }
+        }
+
+        if (!indexes.isEmpty()) {
+            PlantManager.PlantResult[] planted = plantManager.plantAll(types, rows, cols);
+            for (int k = 0; k < planted.length; k++) {
+                results[indexes.get(k)] = toResult(planted[k]);
+            }
+        }
+        return results;
+    }
+
+    private static ExecutionResult checkPlantArgs(com.pvz.controller.model.GameCommand command) {
         String plantType = command.getType();
         String row = command.getRow();
         Integer col = command.getCol();
@@ -161,9 +597,10 @@ public class TrainerExecutor {
         if (col == null || col < 1 || col > 9) {
             return new ExecutionResult(false, "❌ Especifica la columna (1-9)");
         }
+        return null;
+    }
 
-        PlantManager.PlantResult result = plantManager.plant(plantType, row, col);
-
+    private static ExecutionResult toResult(PlantManager.PlantResult result) {
         if (result.isSuccess()) {
             return new ExecutionResult(true, "🌱 " + result.getMessage());
         } else {
@@ -183,19 +620,25 @@ public class TrainerExecutor {
     // ═══════════════════════════════════════════════════════════════════
 
     public static void reconnect() {
-        if (trainer != null) {
-            trainer.disconnect();
-        }
-        trainer = new PvZTrainer();
-        plantManager = null;
-        logger.info("Trainer reiniciado - se reconectará en el siguiente comando");
+        runOnActuator(() -> {
+            if (trainer != null) {
+                trainer.disconnect();
+            }
+            trainer = new PvZTrainer();
+            plantManager = null;
+            logger.info("Trainer reiniciado - se reconectará en el siguiente comando");
+            return new ExecutionResult(true, "Trainer reiniciado");
+        });
     }
 
     public static void shutdown() {
-        if (trainer != null) {
-            trainer.disconnect();
-        }
-        plantManager = null;
+        runOnActuator(() -> {
+            if (trainer != null) {
+                trainer.disconnect();
+            }
+            plantManager = null;
+            return new ExecutionResult(true, "Trainer detenido");
+        });
     }
 
     // ═══════════════════════════════════════════════════════════════════
@@ -0,0 +1,36 @@
+package com.pvz.controller.model;
+
+/**
+ * De dónde viene un comando. El orden de declaración es su prioridad en la cola del
+ * actuador, y cada origen tiene su plazo: si el comando espera en la cola más que eso,
+ * se descarta en lugar de ejecutarse tarde (ver TrainerExecutor y CommandScheduler).
+ *
+ * Los plazos se pueden cambiar con DEADLINE_{ORIGEN}_MS (0 = sin plazo).
+ */
+public enum CommandSource {
+
+    // Orden = prioridad en el actuador (el primero se atiende antes)
+
+    /** Consultas internas (info, conexión): nunca se descartan */
+    SYSTEM(0),
+    /** Regalo: el viewer pagó, se espera bastante más */
+    GIFT(60_000),
+    /** Bonus de sol por follow/share */
+    BONUS(30_000),
+    /** POST /command, /commands */
+    HTTP(15_000),
+    /** Acción gratis por chat: si llega tarde ya nadie la recuerda */
+    CHAT(5_000),
+    /** Evento de likes acumulados */
+    LIKES(30_000);
+
+    private final long defaultDeadlineMs;
+
+    CommandSource(long defaultDeadlineMs) {
+        this.defaultDeadlineMs = defaultDeadlineMs;
+    }
+
+    public long getDefaultDeadlineMs() {
+        return defaultDeadlineMs;
+    }
+}
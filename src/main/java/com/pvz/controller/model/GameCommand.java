@@ -24,6 +24,8 @@ public class GameCommand {
     private String user;
     private String row;
     private Integer col;
+    // No viene en el JSON: lo pone quien crea el comando (HTTP si nadie lo puso)
+    private transient CommandSource source;
 
     public GameCommand() {
     }
@@ -80,6 +82,9 @@ public class GameCommand {
     public Integer getCol() { return col; }
     public void setCol(Integer col) { this.col = col; }
 
+    public CommandSource getSource() { return source != null ? source : CommandSource.HTTP; }
+    public void setSource(CommandSource source) { this.source = source; }
+
     @Override
     public String toString() {
         return "GameCommand{" +
@@ -89,6 +94,7 @@ public class GameCommand {
                 ", row='" + row + '\'' +
                 ", col=" + col +
                 ", user='" + user + '\'' +
+                ", source=" + getSource() +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.pvz.controller.overlay;
 
+import com.pvz.controller.tiktok.RosterSnapshot;
 import com.pvz.controller.tiktok.TeamManager;
 import com.pvz.controller.tiktok.TeamManager.Team;
 
@@ -9,7 +10,6 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Ventana overlay independiente para mostrar equipos + ticker de instrucciones.
@@ -23,6 +23,13 @@ public class TeamsOverlayWindow extends JFrame {
 
     private Point dragOffset;
 
+    // Listas armadas a partir de la última foto de equipos; se rehacen solo si cambió la versión
+    private long renderedVersion = -1;
+    private transient List<PlayerEntry> plantasEntries = List.of();
+    private transient List<PlayerEntry> zombiesEntries = List.of();
+    private int plantasCount;
+    private int zombiesCount;
+
     // Colores
     private static final Color BG_DARK = new Color(0, 0, 0, 190);
     private static final Color BORDER_BROWN = new Color(74, 55, 40);
@@ -194,9 +201,9 @@ public class TeamsOverlayWindow extends JFrame {
             int y = headerH + 3;
 
             // ── Obtener datos ──
-            List<PlayerEntry> plantas = new ArrayList<>();
-            List<PlayerEntry> zombies = new ArrayList<>();
-            collectPlayers(plantas, zombies);
+            collectPlayers();
+            List<PlayerEntry> plantas = plantasEntries;
+            List<PlayerEntry> zombies = zombiesEntries;
 
             int halfW = (w - 3) / 2;
             int teamHeaderH = 30;
@@ -210,7 +217,7 @@ public class TeamsOverlayWindow extends JFrame {
             drawPlantIcon(g2, 8, y + 7, 14);
             g2.drawString("PLANTAS", 26, y + 20);
 
-            drawBadge(g2, String.valueOf(plantas.size()), 2 + halfW - 35, y + 6, PLANTAS_ACCENT);
+            drawBadge(g2, String.valueOf(plantasCount), 2 + halfW - 35, y + 6, PLANTAS_ACCENT);
 
             // ── Team Zombies header ──
             int zx = 2 + halfW + 3;
@@ -221,7 +228,7 @@ public class TeamsOverlayWindow extends JFrame {
             drawZombieIcon(g2, zx + 6, y + 7, 14);
             g2.drawString("ZOMBIES", zx + 24, y + 20);
 
-            drawBadge(g2, String.valueOf(zombies.size()), zx + halfW - 35, y + 6, ZOMBIES_ACCENT);
+            drawBadge(g2, String.valueOf(zombiesCount), zx + halfW - 35, y + 6, ZOMBIES_ACCENT);
 
             // ── Separador vertical ──
             g2.setColor(SEPARATOR);
@@ -509,25 +516,34 @@ public class TeamsOverlayWindow extends JFrame {
 
     record PlayerEntry(String nickname, int actions) {}
 
-    private void collectPlayers(List<PlayerEntry> plantas, List<PlayerEntry> zombies) {
+    /**
+     * Solo los mejores de cada equipo, tomados de la foto publicada por TeamManager.
+     * Entre cambios de versión los repaints reutilizan las listas ya armadas.
+     */
+    private void collectPlayers() {
         try {
-            Map<String, TeamManager.PlayerInfo> players = teamManager.getPlayersSnapshot();
-
-            for (var entry : players.entrySet()) {
-                TeamManager.PlayerInfo info = entry.getValue();
-                PlayerEntry pe = new PlayerEntry(
-                        info.nickname != null ? info.nickname : entry.getKey(),
-                        info.actions
-                );
-                if (info.team == Team.PLANTAS) plantas.add(pe);
-                else zombies.add(pe);
-            }
-
-            plantas.sort((a, b) -> Integer.compare(b.actions, a.actions));
-            zombies.sort((a, b) -> Integer.compare(b.actions, a.actions));
-
+            RosterSnapshot roster = teamManager.getRoster();
+            if (!roster.hasChangedSince(renderedVersion)) return;
+
+            plantasEntries = toEntries(roster.getTop(Team.PLANTAS));
+            zombiesEntries = toEntries(roster.getTop(Team.ZOMBIES));
+            plantasCount = roster.getTeamSize(Team.PLANTAS);
+            zombiesCount = roster.getTeamSize(Team.ZOMBIES);
+            renderedVersion = roster.getVersion();
         } catch (Exception e) {
             // Silenciar
         }
     }
+
+    private static List<PlayerEntry> toEntries(List<TeamManager.RankedPlayer> top) {
+        List<PlayerEntry> entries = new ArrayList<>(top.size());
+        for (TeamManager.RankedPlayer player : top) {
+            String nickname = player.nickname();
+            entries.add(new PlayerEntry(
+                    nickname != null && !nickname.isEmpty() ? nickname : player.uniqueId(),
+                    player.actions()
+            ));
+        }
+        return entries;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.pvz.controller.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita cuántas peticiones de un grupo de endpoints se atienden a la vez.
+ *
+ * Los grupos tienen cupos separados: los comandos (que esperan al juego) no pueden
+ * acaparar el servidor y dejar sin servir al overlay o a /teams. Si no hay cupo se
+ * espera hasta {@code maxWaitMs} y después se responde 503 con Retry-After.
+ */
+public class ConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    private static final byte[] BUSY = "{\"success\":false,\"message\":\"Server busy\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final String name;
+    private final int limit;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ConcurrencyLimiter(String name, int limit, long maxWaitMs) {
+        this.name = name;
+        this.limit = limit;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * El mismo handler, pero contando contra el cupo de este grupo
+     */
+    public HttpHandler wrap(HttpHandler handler) {
+        return exchange -> handle(exchange, handler);
+    }
+
+    private void handle(HttpExchange exchange, HttpHandler handler) throws IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            logger.warn("Servidor ocupado ({}): {} rechazada", name, exchange.getRequestURI().getPath());
+            sendBusy(exchange);
+            return;
+        }
+
+        peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            handler.handle(exchange);
+        } finally {
+            inFlight.decrementAndGet();
+            served.incrementAndGet();
+            permits.release();
+        }
+    }
+
+    private static void sendBusy(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        exchange.sendResponseHeaders(503, BUSY.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(BUSY);
+        }
+    }
+
+    public String getStats() {
+        return String.format("%s: %d/%d en curso (máx %d) | Atendidas: %d | Rechazadas: %d",
+                name, inFlight.get(), limit, peak.get(), served.get(), rejected.get());
+    }
+}
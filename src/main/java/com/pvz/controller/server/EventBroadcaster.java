@@ -0,0 +1,391 @@
+package com.pvz.controller.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Canal Server-Sent Events (GET /events) para los overlays.
+ *
+ * Un solo hilo ("sse-fanout") serializa cada evento una vez y deja el mismo frame
+ * en la cola de cada suscriptor; la escritura al socket la hace un pool aparte, así
+ * un cliente lento no frena a los demás (si su cola se llena, se lo desconecta y
+ * el navegador reconecta con Last-Event-ID). El fan-out nunca toca un socket: hasta
+ * el cierre lo hace el escritor del cliente.
+ *
+ * Los últimos eventos quedan en un ring para reenviarlos al reconectar. Si el id
+ * pedido ya salió del ring (o es una conexión nueva), se manda el estado actual de
+ * cada fuente registrada con {@link #addStateSource}.
+ */
+public class EventBroadcaster implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventBroadcaster.class);
+
+    private static final int REPLAY_SIZE = 512;
+    private static final int SUBSCRIBER_QUEUE = 256;
+    private static final int RETRY_MS = 3000;
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Gson gson = new Gson();
+    private final long heartbeatNanos;
+
+    private record Pending(String type, Object payload, long enqueuedAt) {}
+
+    private record Event(long id, String type, byte[] frame) {}
+
+    // nextAt solo lo toca el hilo de fan-out
+    private static final class Poller {
+        final String type;
+        final Supplier<Object> source;
+        final long periodNanos;
+        long nextAt;
+        String last;
+
+        Poller(String type, Supplier<Object> source, long periodNanos) {
+            this.type = type;
+            this.source = source;
+            this.periodNanos = periodNanos;
+        }
+    }
+
+    private final BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Supplier<Object>> stateSources = new LinkedHashMap<>();
+    private final List<Poller> pollers = new CopyOnWriteArrayList<>();
+
+    // Ring de reenvío; se toca bajo "this"
+    private final Event[] replay = new Event[REPLAY_SIZE];
+    private long nextId = 1;
+
+    private final ExecutorService writers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "sse-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread fanout;
+    private volatile boolean running = true;
+
+    // Métricas
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong totalDeliveryNanos = new AtomicLong();
+    private final AtomicLong maxDeliveryNanos = new AtomicLong();
+
+    public EventBroadcaster(long heartbeatMs) {
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMs);
+        fanout = new Thread(this::runFanout, "sse-fanout");
+        fanout.setDaemon(true);
+        fanout.start();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // FUENTES
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Encola un evento; se serializa en el hilo de fan-out (barato para quien llama)
+     */
+    public void publish(String type, Object payload) {
+        if (running) {
+            pending.offer(new Pending(type, payload, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Estado actual de un tipo de evento, enviado a cada cliente que llega sin historial
+     */
+    public synchronized void addStateSource(String type, Supplier<Object> source) {
+        stateSources.put(type, source);
+    }
+
+    /**
+     * Consulta {@code source} periódicamente (solo con clientes conectados) y
+     * publica un evento cuando el resultado cambia.
+     */
+    public void addPoller(String type, Supplier<Object> source, long periodMs) {
+        pollers.add(new Poller(type, source, TimeUnit.MILLISECONDS.toNanos(periodMs)));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // FAN-OUT
+    // ═══════════════════════════════════════════════════════════
+
+    private void runFanout() {
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+
+        while (running) {
+            try {
+                long wakeAt = nextHeartbeat;
+                for (Poller poller : pollers) {
+                    wakeAt = Math.min(wakeAt, poller.nextAt);
+                }
+
+                Pending next = pending.poll(Math.max(0, wakeAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (next != null) {
+                    broadcast(next.type(), gson.toJson(next.payload()), next.enqueuedAt());
+                }
+
+                long now = System.nanoTime();
+                if (now >= nextHeartbeat) {
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.offer(HEARTBEAT, now);
+                    }
+                    nextHeartbeat = now + heartbeatNanos;
+                }
+                for (Poller poller : pollers) {
+                    if (now < poller.nextAt) continue;
+                    poller.nextAt = now + poller.periodNanos;
+                    if (!subscribers.isEmpty()) {
+                        poll(poller, now);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error en fan-out SSE: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void poll(Poller poller, long now) {
+        String json = gson.toJson(poller.source.get());
+        if (!json.equals(poller.last)) {
+            poller.last = json;
+            broadcast(poller.type, json, now);
+        }
+    }
+
+    /**
+     * Numera el evento, lo guarda en el ring y deja el mismo frame en todas las colas.
+     * Todo bajo el lock: un cliente que se suscribe a la vez ve el evento en el
+     * reenvío o en su cola, nunca en ambos ni en ninguno.
+     */
+    private synchronized void broadcast(String type, String json, long enqueuedAt) {
+        long id = nextId++;
+        Event event = new Event(id, type, frame(id, type, json));
+        replay[(int) (id % REPLAY_SIZE)] = event;
+        published.incrementAndGet();
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event.frame(), enqueuedAt);
+        }
+    }
+
+    private static byte[] frame(long id, String type, String json) {
+        StringBuilder sb = new StringBuilder(json.length() + type.length() + 32);
+        sb.append("id: ").append(id).append('\n');
+        sb.append("event: ").append(type).append('\n');
+        sb.append("data: ").append(json).append("\n\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // CONEXIONES
+    // ═══════════════════════════════════════════════════════════
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+        exchange.sendResponseHeaders(200, 0);
+
+        Subscriber subscriber = new Subscriber(exchange);
+        subscriber.offer(("retry: " + RETRY_MS + "\n\n").getBytes(StandardCharsets.US_ASCII), System.nanoTime());
+        subscribe(subscriber, lastEventId(exchange));
+        logger.debug("SSE client connected from {} ({} total)", exchange.getRemoteAddress(), subscribers.size());
+    }
+
+    /**
+     * Header Last-Event-ID (reconexión automática) o {@code ?lastEventId=} (primera conexión)
+     */
+    private static long lastEventId(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        String query = exchange.getRequestURI().getRawQuery();
+        if (value == null && query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("lastEventId=")) {
+                    value = param.substring("lastEventId=".length());
+                }
+            }
+        }
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private synchronized void subscribe(Subscriber subscriber, long lastEventId) {
+        long oldest = Math.max(1, nextId - REPLAY_SIZE);
+        long now = System.nanoTime();
+
+        if (lastEventId >= oldest - 1 && lastEventId < nextId) {
+            // Reanuda: solo lo que se perdió
+            for (long id = lastEventId + 1; id < nextId; id++) {
+                subscriber.offer(replay[(int) (id % REPLAY_SIZE)].frame(), now);
+            }
+        } else {
+            // Sin historial utilizable: estado actual de cada fuente con el último id
+            long currentId = nextId - 1;
+            for (Map.Entry<String, Supplier<Object>> source : stateSources.entrySet()) {
+                try {
+                    String json = gson.toJson(source.getValue().get());
+                    subscriber.offer(frame(currentId, source.getKey(), json), now);
+                } catch (Exception e) {
+                    logger.warn("SSE state source '{}' failed: {}", source.getKey(), e.getMessage());
+                }
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    private record Frame(byte[] bytes, long since) {}
+
+    private final class Subscriber {
+        private final HttpExchange exchange;
+        private final OutputStream out;
+        private final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE);
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+        }
+
+        void offer(byte[] frame, long since) {
+            if (closed) return;
+            if (!queue.offer(new Frame(frame, since))) {
+                dropped.incrementAndGet();
+                logger.debug("SSE client {} too slow, disconnecting", exchange.getRemoteAddress());
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (writing.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        /**
+         * Un solo drain a la vez por suscriptor; escribe todo lo pendiente y hace un flush.
+         * Es el único que toca el stream, así que también es quien cierra el exchange
+         * (y al hacerlo se queda con {@code writing}: no arranca otro drain).
+         */
+        private void drain() {
+            do {
+                if (closed) {
+                    closeExchange();
+                    return;
+                }
+                int count = 0;
+                long sumSince = 0;
+                long oldest = Long.MAX_VALUE;
+                try {
+                    Frame frame;
+                    while (!closed && (frame = queue.poll()) != null) {
+                        out.write(frame.bytes());
+                        count++;
+                        sumSince += frame.since();
+                        oldest = Math.min(oldest, frame.since());
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    closed = true;
+                    subscribers.remove(this);
+                    closeExchange();
+                    return;
+                }
+                writing.set(false);
+                if (count > 0) {
+                    long now = System.nanoTime();
+                    deliveries.addAndGet(count);
+                    totalDeliveryNanos.addAndGet(count * now - sumSince);
+                    maxDeliveryNanos.accumulateAndGet(now - oldest, Math::max);
+                }
+            } while ((closed || !queue.isEmpty()) && writing.compareAndSet(false, true));
+        }
+
+        /**
+         * Lo saca del fan-out y deja el cierre del exchange al drain: cerrar escribe el
+         * chunk final, que con el socket lleno bloquearía a quien llama (el fan-out).
+         */
+        void close() {
+            if (closed) return;
+            closed = true;
+            subscribers.remove(this);
+            scheduleDrain();
+        }
+
+        private void closeExchange() {
+            queue.clear();
+            exchange.close();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // CONTROL
+    // ═══════════════════════════════════════════════════════════
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public String getStats() {
+        long delivered = deliveries.get();
+        double avgMs = delivered > 0 ? totalDeliveryNanos.get() / 1e6 / delivered : 0;
+        return String.format("📡 SSE: %d clientes | Eventos: %d | Entregas: %d (%.2f ms prom, máx %.2f ms) | Lentos desconectados: %d",
+                subscribers.size(), published.get(), delivered, avgMs, maxDeliveryNanos.get() / 1e6, dropped.get());
+    }
+
+    public void stop() {
+        running = false;
+        fanout.interrupt();
+        for (Subscriber subscriber : List.copyOf(subscribers)) {
+            subscriber.close();
+        }
+        // Los drains pendientes cierran cada exchange; se les da un momento antes de cortar
+        writers.shutdown();
+        try {
+            writers.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writers.shutdownNow();
+    }
+}
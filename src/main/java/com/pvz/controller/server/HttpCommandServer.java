@@ -1,7 +1,12 @@
 package com.pvz.controller.server;
 
 import com.pvz.controller.config.ControllerConfig;
+import com.pvz.controller.handler.BatchCommandRequestHandler;
 import com.pvz.controller.handler.CommandRequestHandler;
+import com.pvz.controller.handler.JobRequestHandler;
+import com.pvz.controller.handler.TeamDeltasRequestHandler;
+import com.pvz.controller.handler.TeamsRequestHandler;
+import com.pvz.controller.tiktok.TeamManager;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import org.slf4j.Logger;
@@ -11,46 +16,56 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class HttpCommandServer {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpCommandServer.class);
+    private final TeamManager teamManager;
     private HttpServer server;
+    private EventBroadcaster events;
+    private ExecutorService executor;
+
+    // Cupos separados: un /command lento no deja sin hilos al overlay ni a /teams
+    private final ConcurrencyLimiter commands = new ConcurrencyLimiter("Comandos",
+            ControllerConfig.getHttpMaxCommands(), ControllerConfig.getHttpQueueMs());
+    private final ConcurrencyLimiter reads = new ConcurrencyLimiter("Lecturas",
+            ControllerConfig.getHttpMaxReads(), ControllerConfig.getHttpQueueMs());
+    // Los long-poll de /jobs esperan sin trabajar: cupo propio para no quitarle lugar a las lecturas
+    private final ConcurrencyLimiter polls = new ConcurrencyLimiter("Trabajos",
+            ControllerConfig.getHttpMaxReads(), ControllerConfig.getHttpQueueMs());
+
+    private final JobTable jobs = new JobTable(ControllerConfig.getJobsMax(), ControllerConfig.getJobsTtlMs());
 
     // Carpeta del build de React
     private static final Path OVERLAY_DIR = Path.of("overlay");
 
-    // MIME types para archivos estáticos
-    private static final Map<String, String> MIME_TYPES = Map.of(
-            ".html", "text/html; charset=utf-8",
-            ".css", "text/css; charset=utf-8",
-            ".js", "application/javascript; charset=utf-8",
-            ".json", "application/json; charset=utf-8",
-            ".svg", "image/svg+xml",
-            ".png", "image/png",
-            ".ico", "image/x-icon",
-            ".woff2", "font/woff2",
-            ".woff", "font/woff"
-    );
+    private static final String IMMUTABLE_CACHE = "public, max-age=31536000, immutable";
+
+    private final StaticAssetCache overlayAssets = new StaticAssetCache(OVERLAY_DIR);
+
+    public HttpCommandServer(TeamManager teamManager) {
+        this.teamManager = teamManager;
+    }
 
     public void start() throws IOException {
         server = HttpServer.create(new InetSocketAddress(ControllerConfig.getPort()), 0);
 
         // Command endpoint
-        server.createContext("/command", new CommandRequestHandler());
+        server.createContext("/command", commands.wrap(new CommandRequestHandler(jobs)));
+        server.createContext("/commands", commands.wrap(new BatchCommandRequestHandler()));
+        server.createContext("/jobs/", polls.wrap(new JobRequestHandler(jobs)));
 
         // Health check
-        server.createContext("/health", exchange -> {
+        server.createContext("/health", reads.wrap(exchange -> {
             String response = "{\"status\":\"ok\"}";
             sendResponse(exchange, 200, response);
-        });
+        }));
 
         // Status endpoint
-        server.createContext("/status", exchange -> {
+        server.createContext("/status", reads.wrap(exchange -> {
             String response = String.format(
                     "{\"status\":\"running\",\"port\":%d,\"scriptsDir\":\"%s\",\"localhostOnly\":%b}",
                     ControllerConfig.getPort(),
@@ -58,32 +73,23 @@ public class HttpCommandServer {
                     ControllerConfig.isLocalhostOnly()
             );
             sendResponse(exchange, 200, response);
-        });
+        }));
 
-        // ── TEAMS JSON ──
-        server.createContext("/teams", exchange -> {
-            try {
-                Path teamsFile = Path.of("data/teams.json");
-                if (Files.exists(teamsFile)) {
-                    String json = Files.readString(teamsFile, StandardCharsets.UTF_8);
-                    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-                    exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-                    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
-                    exchange.sendResponseHeaders(200, bytes.length);
-                    try (OutputStream os = exchange.getResponseBody()) {
-                        os.write(bytes);
-                    }
-                } else {
-                    sendResponse(exchange, 200, "{}");
-                }
-            } catch (Exception e) {
-                logger.error("Error sirviendo teams: {}", e.getMessage());
-                sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-            }
-        });
+        // ── TEAMS JSON (desde memoria, con ETag) ──
+        server.createContext("/teams", reads.wrap(new TeamsRequestHandler(teamManager)));
+        server.createContext("/teams/deltas", reads.wrap(new TeamDeltasRequestHandler(teamManager)));
+
+        // ── EVENTOS (SSE: roster, action, board; sin cupo, el handler retorna al suscribir) ──
+        events = new EventBroadcaster(ControllerConfig.getSseHeartbeatMs());
+        OverlayEvents.register(events, teamManager);
+        server.createContext("/events", events);
 
-        // ── OVERLAY (React build) ──
-        server.createContext("/overlay", exchange -> {
+        // ── OVERLAY (React build, desde memoria) ──
+        overlayAssets.load();
+        if (ControllerConfig.isOverlayWatch()) {
+            overlayAssets.watch();
+        }
+        server.createContext("/overlay", reads.wrap(exchange -> {
             try {
                 String path = exchange.getRequestURI().getPath();
 
@@ -96,66 +102,66 @@ public class HttpCommandServer {
                     relativePath = path.substring("/overlay/".length());
                 }
 
-                Path filePath = OVERLAY_DIR.resolve(relativePath).normalize();
-
-                // Seguridad: no salir del directorio
-                if (!filePath.startsWith(OVERLAY_DIR)) {
-                    sendResponse(exchange, 403, "{\"error\":\"forbidden\"}");
-                    return;
-                }
-
-                if (Files.exists(filePath) && !Files.isDirectory(filePath)) {
-                    byte[] bytes = Files.readAllBytes(filePath);
-                    String contentType = getMimeType(filePath.toString());
-                    exchange.getResponseHeaders().set("Content-Type", contentType);
-                    exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-                    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
-                    exchange.sendResponseHeaders(200, bytes.length);
-                    try (OutputStream os = exchange.getResponseBody()) {
-                        os.write(bytes);
-                    }
-                } else {
+                // Solo se sirve lo que está en el caché: no hay acceso a disco ni rutas fuera de overlay/
+                StaticAssetCache.Asset asset = overlayAssets.get(relativePath);
+                if (asset == null) {
                     // SPA fallback → index.html
-                    Path indexPath = OVERLAY_DIR.resolve("index.html");
-                    if (Files.exists(indexPath)) {
-                        byte[] bytes = Files.readAllBytes(indexPath);
-                        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
-                        exchange.sendResponseHeaders(200, bytes.length);
-                        try (OutputStream os = exchange.getResponseBody()) {
-                            os.write(bytes);
-                        }
-                    } else {
-                        sendResponse(exchange, 404, "{\"error\":\"overlay not found. Run: npm run build\"}");
-                    }
+                    asset = overlayAssets.get("index.html");
                 }
+                if (asset == null) {
+                    sendResponse(exchange, 404, "{\"error\":\"overlay not found. Run: npm run build\"}");
+                    return;
+                }
+                sendAsset(exchange, asset);
             } catch (Exception e) {
                 logger.error("Error sirviendo overlay: {}", e.getMessage());
                 sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
             }
-        });
+        }));
 
         // Root endpoint
-        server.createContext("/", exchange -> {
-            String response = "{\"name\":\"PvZ Controller\",\"version\":\"2.0.0\",\"endpoints\":[\"/command\",\"/health\",\"/status\",\"/teams\",\"/overlay\"]}";
+        server.createContext("/", reads.wrap(exchange -> {
+            String response = "{\"name\":\"PvZ Controller\",\"version\":\"2.0.0\",\"endpoints\":[\"/command\",\"/commands\",\"/jobs/{id}\",\"/health\",\"/status\",\"/teams\",\"/teams/deltas\",\"/events\",\"/overlay\"]}";
             sendResponse(exchange, 200, response);
-        });
+        }));
 
-        server.setExecutor(Executors.newFixedThreadPool(4));
+        // Un hilo virtual por petición: esperar al juego o a un cliente lento no bloquea a los demás
+        if (ControllerConfig.isHttpVirtualThreads()) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            executor = Executors.newFixedThreadPool(ControllerConfig.getHttpThreads());
+        }
+        server.setExecutor(executor);
         server.start();
 
         // Verificar overlay
-        if (Files.exists(OVERLAY_DIR.resolve("index.html"))) {
+        if (overlayAssets.get("index.html") != null) {
             logger.info("🖥️ Overlay disponible en http://localhost:{}/overlay", ControllerConfig.getPort());
         } else {
             logger.warn("⚠️ Carpeta overlay/ no encontrada. El overlay no estará disponible.");
         }
 
-        logger.info("HTTP Server started on port {}", ControllerConfig.getPort());
+        logger.info("HTTP Server started on port {} ({})", ControllerConfig.getPort(),
+                ControllerConfig.isHttpVirtualThreads() ? "virtual threads" : ControllerConfig.getHttpThreads() + " threads");
+    }
+
+    public String getHttpStats() {
+        return "🌐 HTTP " + commands.getStats() + "\n🌐 HTTP " + reads.getStats()
+                + "\n🌐 HTTP " + polls.getStats() + "\n" + jobs.getStats();
+    }
+
+    public String getEventStats() {
+        return events != null ? events.getStats() : "📡 SSE: detenido";
     }
 
     public void stop() {
+        if (events != null) {
+            events.stop();
+        }
+        overlayAssets.close();
         if (server != null) {
             server.stop(0);
+            executor.shutdownNow();
             logger.info("HTTP Server stopped");
         }
     }
@@ -169,13 +175,61 @@ public class HttpCommandServer {
         }
     }
 
-    private String getMimeType(String path) {
-        String lower = path.toLowerCase();
-        for (var entry : MIME_TYPES.entrySet()) {
-            if (lower.endsWith(entry.getKey())) {
-                return entry.getValue();
+    /**
+     * Archivo del overlay: inmutable si tiene hash en el nombre, si no revalidado con ETag;
+     * gzip si el cliente lo acepta
+     */
+    private void sendAsset(HttpExchange exchange, StaticAssetCache.Asset asset) throws IOException {
+        var headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", asset.contentType());
+        headers.set("Access-Control-Allow-Origin", "*");
+        headers.set("ETag", asset.etag());
+        headers.set("Cache-Control", asset.immutable() ? IMMUTABLE_CACHE : "no-cache");
+
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && ifNoneMatch.contains(asset.etag())) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = asset.raw();
+        if (asset.gzip() != null) {
+            headers.set("Vary", "Accept-Encoding");
+            if (acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                headers.set("Content-Encoding", "gzip");
+                body = asset.gzip();
+            }
+        }
+
+        if ("HEAD".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!tokens[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
             }
+            return true;
         }
-        return "application/octet-stream";
+        return false;
     }
 }
\ No newline at end of file
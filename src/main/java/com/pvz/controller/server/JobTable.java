@@ -0,0 +1,152 @@
+package com.pvz.controller.server;
+
+import com.pvz.controller.memory.TrainerExecutor;
+import com.pvz.controller.memory.TrainerExecutor.ExecutionResult;
+import com.pvz.controller.model.GameCommand;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Comandos enviados con {@code /command?async=true}: el HTTP responde 202 con un id y el
+ * cliente consulta (o espera) el resultado en {@code /jobs/{id}}.
+ *
+ * La tabla es acotada: guarda como mucho {@code capacity} trabajos y los terminados se
+ * descartan después de {@code ttlMs}. Si se llena, se descartan primero los terminados
+ * más viejos; un trabajo pendiente solo se pierde si todos los demás también lo están.
+ */
+public class JobTable {
+
+    /**
+     * Un comando en curso o terminado
+     */
+    public record Job(String id, String command, long createdAt,
+                      CompletableFuture<ExecutionResult> future) {
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * Posición en la cola del actuador al momento de llamarlo (no al encolarlo)
+         * @return desde 1, o 0 si ya salió de la cola: se está ejecutando o terminó
+         */
+        public int queuePosition() {
+            return TrainerExecutor.getQueuePosition(future);
+        }
+
+        /**
+         * Espera el resultado hasta {@code waitMs}
+         * @return el resultado, o null si sigue pendiente
+         */
+        public ExecutionResult await(long waitMs) throws InterruptedException {
+            try {
+                return waitMs > 0 ? future.get(waitMs, TimeUnit.MILLISECONDS) : future.getNow(null);
+            } catch (TimeoutException e) {
+                return null;
+            } catch (ExecutionException e) {
+                return new ExecutionResult(false, "❌ Error: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private final int capacity;
+    private final long ttlMs;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Orden de inserción: el primero es siempre el más viejo
+    private final LinkedHashMap<String, Job> jobs = new LinkedHashMap<>();
+    private long nextId;
+    private long created;
+    private long evicted;
+    private long evictedPending;
+    private long lastSweep;
+
+    public JobTable(int capacity, long ttlMs) {
+        this.capacity = capacity;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Encola el comando en el actuador y registra su trabajo
+     */
+    public Job submit(GameCommand command) {
+        CompletableFuture<ExecutionResult> future = TrainerExecutor.submit(command);
+
+        synchronized (this) {
+            evict(System.currentTimeMillis());
+            Job job = new Job(epoch + "-" + Long.toString(++nextId, 36), command.getCommand(),
+                    System.currentTimeMillis(), future);
+            jobs.put(job.id(), job);
+            created++;
+            return job;
+        }
+    }
+
+    /**
+     * @return el trabajo, o null si no existe o ya expiró
+     */
+    public synchronized Job get(String id) {
+        long now = System.currentTimeMillis();
+        evict(now);
+        Job job = jobs.get(id);
+        if (job != null && isExpired(job, now)) {
+            jobs.remove(id);
+            evicted++;
+            return null;
+        }
+        return job;
+    }
+
+    private boolean isExpired(Job job, long now) {
+        return job.isDone() && now - job.createdAt() > ttlMs;
+    }
+
+    /**
+     * Saca los terminados y vencidos estén donde estén (un pendiente viejo no los frena).
+     * Si aun así está lleno, descarta terminados del más viejo al más nuevo y, solo como
+     * último recurso, pendientes: su cliente recibiría 404 al consultar.
+     */
+    private void evict(long now) {
+        boolean full = jobs.size() >= capacity;
+        if (!full && now - lastSweep < SWEEP_INTERVAL_MS) return;
+        lastSweep = now;
+
+        Iterator<Job> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                evicted++;
+            }
+        }
+        if (jobs.size() < capacity) return;
+
+        it = jobs.values().iterator();
+        while (it.hasNext() && jobs.size() >= capacity) {
+            if (it.next().isDone()) {
+                it.remove();
+                evicted++;
+            }
+        }
+
+        it = jobs.values().iterator();
+        while (it.hasNext() && jobs.size() >= capacity) {
+            it.next();
+            it.remove();
+            evicted++;
+            evictedPending++;
+        }
+    }
+
+    public synchronized String getStats() {
+        long pending = jobs.values().stream().filter(job -> !job.isDone()).count();
+        return String.format("📋 Trabajos: %d en tabla (%d pendientes) | Creados: %d | Descartados: %d (%d sin terminar)",
+                jobs.size(), pending, created, evicted, evictedPending);
+    }
+}
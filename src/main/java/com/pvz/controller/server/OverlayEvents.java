@@ -0,0 +1,72 @@
+package com.pvz.controller.server;
+
+import com.pvz.controller.config.ControllerConfig;
+import com.pvz.controller.memory.BoardSnapshot;
+import com.pvz.controller.memory.TrainerExecutor;
+import com.pvz.controller.model.GameCommand;
+import com.pvz.controller.tiktok.RosterSnapshot;
+import com.pvz.controller.tiktok.TeamManager;
+import com.pvz.controller.tiktok.TeamManager.RankedPlayer;
+import com.pvz.controller.tiktok.TeamManager.Team;
+
+import java.util.List;
+
+/**
+ * Eventos que recibe el overlay por /events:
+ *
+ *   roster → resumen de equipos (conteos, acciones, top) cada vez que TeamManager publica una foto
+ *   action → cada comando ejecutado por el actuador (HTTP, TikTok, likes)
+ *   board  → estado del nivel, cuando cambia (revisado cada SSE_BOARD_MS)
+ */
+public final class OverlayEvents {
+
+    record TeamSummary(int players, long actions, List<RankedPlayer> top) {}
+
+    record RosterEvent(long version, int players, TeamSummary plantas, TeamSummary zombies) {}
+
+    record ActionEvent(String command, String type, String row, Integer col, int count,
+                       String user, boolean success, String message) {}
+
+    record BoardEvent(boolean inLevel, int sun, int level, int scene, int rows, boolean paused, int zombies) {}
+
+    private OverlayEvents() {}
+
+    public static void register(EventBroadcaster events, TeamManager teamManager) {
+        events.addStateSource("roster", () -> roster(teamManager.getRoster()));
+        teamManager.addRosterListener(snapshot -> events.publish("roster", roster(snapshot)));
+
+        TrainerExecutor.addCommandListener((command, result) -> {
+            if (!"info".equalsIgnoreCase(command.getCommand())) {
+                events.publish("action", action(command, result));
+            }
+        });
+
+        events.addStateSource("board", () -> board(TrainerExecutor.getBoardSnapshot()));
+        events.addPoller("board", () -> board(TrainerExecutor.getBoardSnapshot()), ControllerConfig.getSseBoardMs());
+    }
+
+    static RosterEvent roster(RosterSnapshot snapshot) {
+        return new RosterEvent(snapshot.getVersion(), snapshot.getTotalPlayers(),
+                team(snapshot, Team.PLANTAS), team(snapshot, Team.ZOMBIES));
+    }
+
+    private static TeamSummary team(RosterSnapshot snapshot, Team team) {
+        return new TeamSummary(snapshot.getTeamSize(team), snapshot.getTeamActions(team), snapshot.getTop(team));
+    }
+
+    static ActionEvent action(GameCommand command, TrainerExecutor.ExecutionResult result) {
+        return new ActionEvent(command.getCommand(), command.getType(), command.getRow(), command.getCol(),
+                command.getCount(), command.getUser(), result.isSuccess(), result.getMessage());
+    }
+
+    /**
+     * Sin el reloj del juego: solo cambios que el overlay muestra
+     */
+    static BoardEvent board(BoardSnapshot snapshot) {
+        if (snapshot == null) {
+            return new BoardEvent(false, 0, 0, 0, 0, false, 0);
+        }
+        return new BoardEvent(true, snapshot.getSun(), snapshot.getAdventureLevel(), snapshot.getScene(),
+                snapshot.getRowCount(), snapshot.isPaused(), snapshot.getZombieCount());
+    }
+}
@@ -0,0 +1,221 @@
+package com.pvz.controller.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archivos del build de React (overlay/) cargados en memoria al arrancar.
+ *
+ * Cada archivo guarda sus bytes, una versión gzip (si es texto y conviene), el
+ * MIME type y un ETag por contenido. Los bundles con hash en el nombre
+ * ({@code assets/index-DDUvEGgY.js}) se marcan inmutables; el resto se revalida
+ * con ETag. Opcionalmente (OVERLAY_WATCH) se vigila la carpeta y se recarga todo
+ * cuando cambia algo, para no reiniciar tras un {@code npm run build}.
+ */
+public class StaticAssetCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticAssetCache.class);
+
+    private static final Map<String, String> MIME_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "js", "application/javascript; charset=utf-8",
+            "json", "application/json; charset=utf-8",
+            "svg", "image/svg+xml",
+            "png", "image/png",
+            "ico", "image/x-icon",
+            "woff2", "font/woff2",
+            "woff", "font/woff"
+    );
+
+    // Formatos ya comprimidos no ganan nada con gzip
+    private static final Set<String> COMPRESSIBLE = Set.of("html", "css", "js", "json", "svg", "ico");
+    private static final int MIN_GZIP_SIZE = 256;
+
+    // Nombre con hash de contenido de Vite: index-DDUvEGgY.js
+    private static final Pattern HASHED_NAME = Pattern.compile(".+[-.][A-Za-z0-9_-]{8,}\\.[a-z0-9]+$");
+
+    private static final long RELOAD_QUIET_MS = 300;
+
+    /**
+     * Un archivo listo para servir. {@code gzip} es null si no conviene comprimirlo.
+     */
+    public record Asset(byte[] raw, byte[] gzip, String contentType, String etag, boolean immutable) {}
+
+    private final Path root;
+    private volatile Map<String, Asset> assets = Map.of();
+    private WatchService watcher;
+
+    public StaticAssetCache(Path root) {
+        this.root = root;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // CARGA
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Lee (o relee) toda la carpeta; las peticiones en curso siguen con el mapa anterior
+     */
+    public void load() {
+        if (!Files.isDirectory(root)) {
+            assets = Map.of();
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<String, Asset> loaded = new HashMap<>();
+        long rawBytes = 0, gzipBytes = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String relative = root.relativize(file).toString().replace('\\', '/');
+                Asset asset = toAsset(relative, Files.readAllBytes(file));
+                loaded.put(relative, asset);
+                rawBytes += asset.raw().length;
+                gzipBytes += asset.gzip() != null ? asset.gzip().length : asset.raw().length;
+            }
+        } catch (IOException e) {
+            logger.error("Error cargando overlay: {}", e.getMessage());
+            return;
+        }
+
+        assets = Map.copyOf(loaded);
+        logger.info("🗃️ Overlay en memoria: {} archivos, {} KB ({} KB con gzip) en {} ms",
+                loaded.size(), rawBytes / 1024, gzipBytes / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Asset toAsset(String relative, byte[] raw) throws IOException {
+        String name = relative.substring(relative.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1).toLowerCase() : "";
+
+        byte[] gzip = null;
+        if (COMPRESSIBLE.contains(extension) && raw.length >= MIN_GZIP_SIZE) {
+            byte[] compressed = gzip(raw);
+            if (compressed.length < raw.length) {
+                gzip = compressed;
+            }
+        }
+
+        boolean immutable = relative.startsWith("assets/") && HASHED_NAME.matcher(name).matches();
+        return new Asset(raw, gzip, MIME_TYPES.getOrDefault(extension, "application/octet-stream"),
+                etag(raw), immutable);
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 3);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] raw) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(raw);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // LECTURA
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * @param relativePath ruta dentro de overlay/ con '/' (ej: "assets/index-DDUvEGgY.js")
+     * @return el archivo, o null si no existe
+     */
+    public Asset get(String relativePath) {
+        return assets.get(relativePath);
+    }
+
+    public boolean isEmpty() {
+        return assets.isEmpty();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // VIGILANCIA
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Recarga la carpeta cuando cambia algo (espera a que pase un momento sin cambios)
+     */
+    public void watch() {
+        if (!Files.isDirectory(root)) return;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            registerAll();
+        } catch (IOException e) {
+            logger.warn("No se pudo vigilar overlay/: {}", e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(this::runWatcher, "overlay-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void registerAll() throws IOException {
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private void runWatcher() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                key.pollEvents();
+                key.reset();
+
+                // Un build escribe muchos archivos seguidos: esperar a que termine
+                WatchKey more;
+                while ((more = watcher.poll(RELOAD_QUIET_MS, TimeUnit.MILLISECONDS)) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+
+                registerAll();
+                load();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // detenido
+        } catch (IOException e) {
+            logger.warn("Vigilancia de overlay/ detenida: {}", e.getMessage());
+        }
+    }
+
+    public void close() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.pvz.controller.tiktok;
+
+import com.pvz.controller.tiktok.TeamManager.Team;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Votación por chat durante el cooldown de cada equipo.
+ *
+ * Si el equipo está libre, la acción se ejecuta al momento y, si sale bien, arranca una
+ * ventana de cooldown. Lo que llega durante la ventana no se pierde: cuenta como voto por
+ * una casilla (Plantas, 6x9) o una fila (Zombies, 6), un voto por viewer. Al cerrar la
+ * ventana se ejecuta solo el objetivo más votado y, si sale bien, empieza otra. Una acción
+ * que falla no bloquea al equipo: se decide enseguida con los votos que haya o queda libre.
+ *
+ * Cada mensaje es O(1): un contador int por objetivo y el máximo se mantiene al votar.
+ */
+public class ChatVoteAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatVoteAggregator.class);
+
+    public static final int ROWS = 6;
+    public static final int COLS = 9;
+
+    public enum Vote {
+        /** El equipo estaba libre: ejecutar ya y avisar el resultado con {@link #finished} */
+        EXECUTE_NOW,
+        /** Sumado a la votación de la ventana en curso */
+        COUNTED,
+        /** El viewer ya votó en esta ventana */
+        DUPLICATE
+    }
+
+    /**
+     * Se llama al cerrar una ventana con votos, fuera del lock y en el hilo de votación.
+     * {@code target} es la casilla (fila * 9 + columna, base 0) para Plantas o la fila para Zombies.
+     * @return se completa con true si la acción se ejecutó (abre la siguiente ventana); el
+     *         equipo queda reservado hasta entonces
+     */
+    @FunctionalInterface
+    public interface WinnerHandler {
+        CompletableFuture<Boolean> onWinner(Team team, int target, String firstVoter, int votes, int voters);
+    }
+
+    /**
+     * Estado de un equipo; todo bajo su propio monitor
+     */
+    private static final class Window {
+        final int[] counts;
+        final String[] firstVoter;
+        // Incluye a quien disparó la acción inmediata: no vota en su propia ventana
+        final Set<String> voters = new HashSet<>();
+        int totalVotes;
+        boolean coolingDown;
+        int best = -1;
+        int bestVotes;
+
+        Window(int targets) {
+            this.counts = new int[targets];
+            this.firstVoter = new String[targets];
+        }
+
+        void clear() {
+            Arrays.fill(counts, 0);
+            Arrays.fill(firstVoter, null);
+            voters.clear();
+            totalVotes = 0;
+            best = -1;
+            bestVotes = 0;
+        }
+    }
+
+    private record Winner(int target, String firstVoter, int votes, int voters) {}
+
+    private final long cooldownMs;
+    private final WinnerHandler handler;
+    private final Window plantas = new Window(ROWS * COLS);
+    private final Window zombies = new Window(ROWS);
+    private final ScheduledExecutorService timer;
+
+    private final AtomicLong votesCounted = new AtomicLong();
+    private final AtomicLong windowsDecided = new AtomicLong();
+    private final AtomicLong winnersExecuted = new AtomicLong();
+
+    public ChatVoteAggregator(long cooldownMs, WinnerHandler handler) {
+        this.cooldownMs = cooldownMs;
+        this.handler = handler;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-votes");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // VOTAR
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * @param target casilla (fila * 9 + columna, base 0) para Plantas o fila (0-5) para Zombies
+     */
+    public Vote vote(Team team, String uniqueId, int target) {
+        Window window = window(team);
+        synchronized (window) {
+            if (!window.coolingDown) {
+                // Reservado mientras se ejecuta; la ventana arranca en finished() si sale bien
+                window.coolingDown = true;
+                window.voters.add(uniqueId);
+                return Vote.EXECUTE_NOW;
+            }
+
+            if (!window.voters.add(uniqueId)) {
+                return Vote.DUPLICATE;
+            }
+
+            window.totalVotes++;
+            int votes = ++window.counts[target];
+            if (window.firstVoter[target] == null) {
+                window.firstVoter[target] = uniqueId;
+            }
+            // Con empate gana el que llegó primero a ese número de votos
+            if (votes > window.bestVotes) {
+                window.best = target;
+                window.bestVotes = votes;
+            }
+        }
+        votesCounted.incrementAndGet();
+        return Vote.COUNTED;
+    }
+
+    /**
+     * Resultado de la acción de un {@link Vote#EXECUTE_NOW} (llamar siempre, una vez)
+     */
+    public void finished(Team team, boolean success) {
+        if (success) {
+            scheduleClose(team);
+        } else {
+            // Sin cooldown: decidir ya con los votos que llegaron mientras tanto, o liberar
+            timer.execute(() -> close(team));
+        }
+    }
+
+    public static int cell(int rowIndex, int col) {
+        return rowIndex * COLS + (col - 1);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // CIERRE DE VENTANA
+    // ═══════════════════════════════════════════════════════════
+
+    private void scheduleClose(Team team) {
+        timer.schedule(() -> close(team), cooldownMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void close(Team team) {
+        Window window = window(team);
+        Winner winner;
+        synchronized (window) {
+            if (window.best < 0) {
+                // Nadie votó: el equipo queda libre para la próxima acción inmediata
+                window.clear();
+                window.coolingDown = false;
+                return;
+            }
+            winner = new Winner(window.best, window.firstVoter[window.best], window.bestVotes, window.totalVotes);
+            window.clear();
+            // Sigue reservado mientras se ejecuta el ganador
+        }
+
+        windowsDecided.incrementAndGet();
+        CompletableFuture<Boolean> action;
+        try {
+            action = handler.onWinner(team, winner.target(), winner.firstVoter(), winner.votes(), winner.voters());
+        } catch (Exception e) {
+            action = CompletableFuture.failedFuture(e);
+        }
+        action.whenComplete((success, error) -> {
+            boolean executed = error == null && Boolean.TRUE.equals(success);
+            if (error != null) {
+                logger.error("Error ejecutando la votación de {}: {}", team, error.getMessage());
+            } else if (executed) {
+                winnersExecuted.incrementAndGet();
+            }
+            finished(team, executed);
+        });
+    }
+
+    private Window window(Team team) {
+        return team == Team.PLANTAS ? plantas : zombies;
+    }
+
+    public String getStats() {
+        return String.format("🗳️ Votos por chat: %d contados | Ventanas decididas: %d | Acciones ejecutadas: %d",
+                votesCounted.get(), windowsDecided.get(), winnersExecuted.get());
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
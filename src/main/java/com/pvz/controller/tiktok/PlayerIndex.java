@@ -0,0 +1,463 @@
+package com.pvz.controller.tiktok;
+
+import com.google.gson.stream.JsonWriter;
+import com.pvz.controller.tiktok.TeamManager.RankedPlayer;
+import com.pvz.controller.tiktok.TeamManager.Team;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice compacto de jugadores para {@link TeamManager}.
+ *
+ * Cada uniqueId se interna una vez a un id denso (tabla hash abierta String → int,
+ * sin boxing). Equipo, acciones y fecha de ingreso viven en arreglos primitivos
+ * indexados por id, y los nicknames en un pool UTF-8 contiguo, así que un jugador
+ * no es un objeto propio sino una fila en varios arreglos.
+ *
+ * Los totales por equipo y el top de cada equipo se mantienen en cada mutación,
+ * así que leerlos no recorre a todos los jugadores.
+ *
+ * Thread-safe (métodos sincronizados); las lecturas masivas usan {@link #view()}.
+ */
+public class PlayerIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // top(team, limit) con limit mayor a esto ordena todo el equipo
+    static final int TOP_CAPACITY = 128;
+    private static final Team[] TEAMS = Team.values();
+
+    // uniqueId → id: direccionamiento abierto con sondeo lineal, carga ≤ 0.5
+    private String[] keys;
+    private int[] slots;
+
+    // Struct-of-arrays por id
+    private String[] uniqueIds;
+    private byte[] teams;
+    private int[] actions;
+    private long[] joinedAt;
+    private int[] nicknames;
+    private int[] topSlots; // posición en el top de su equipo, -1 si no está
+    private StringPool nicknamePool;
+    private int size;
+
+    // Agregados por equipo (indexados por Team.ordinal())
+    private final int[] teamPlayers = new int[TEAMS.length];
+    private final long[] teamActions = new long[TEAMS.length];
+
+    // Top por equipo: ids por acciones desc y luego por id (quién llegó antes). Las acciones
+    // suben de a una, así que una acción sube al jugador a lo sumo unas posiciones; solo se
+    // rearma recorriendo el equipo si alguien del top se cambia de equipo o pierde acciones.
+    private final int[][] tops = new int[TEAMS.length][TOP_CAPACITY];
+    private final int[] topSizes = new int[TEAMS.length];
+
+    public PlayerIndex() {
+        init();
+    }
+
+    public synchronized void clear() {
+        init();
+    }
+
+    private void init() {
+        keys = new String[INITIAL_CAPACITY * 2];
+        slots = new int[INITIAL_CAPACITY * 2];
+        uniqueIds = new String[INITIAL_CAPACITY];
+        teams = new byte[INITIAL_CAPACITY];
+        actions = new int[INITIAL_CAPACITY];
+        joinedAt = new long[INITIAL_CAPACITY];
+        nicknames = new int[INITIAL_CAPACITY];
+        topSlots = new int[INITIAL_CAPACITY];
+        nicknamePool = new StringPool();
+        size = 0;
+        Arrays.fill(teamPlayers, 0);
+        Arrays.fill(teamActions, 0);
+        Arrays.fill(topSizes, 0);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // INTERNADO
+    // ═══════════════════════════════════════════════════════════
+
+    private static int hash(String key) {
+        int h = key.hashCode(); // String cachea su hash
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return id del jugador, o -1 si no está registrado
+     */
+    public synchronized int idOf(String uniqueId) {
+        int mask = keys.length - 1;
+        for (int slot = hash(uniqueId) & mask; ; slot = (slot + 1) & mask) {
+            String key = keys[slot];
+            if (key == null) return -1;
+            if (key.equals(uniqueId)) return slots[slot];
+        }
+    }
+
+    /**
+     * Registra o actualiza un jugador.
+     * @return su id
+     */
+    public synchronized int register(String uniqueId, Team team, String nickname, long joined, int actionCount) {
+        int id = idOf(uniqueId);
+        int oldTeam = -1;
+        boolean demoted = false;
+        if (id < 0) {
+            id = size++;
+            ensureCapacity(size);
+            uniqueIds[id] = uniqueId;
+            insertKey(uniqueId, id);
+            nicknames[id] = nicknamePool.add(nickname);
+            topSlots[id] = -1;
+        } else {
+            oldTeam = teams[id];
+            demoted = oldTeam != team.ordinal() || actionCount < actions[id];
+            teamPlayers[oldTeam]--;
+            teamActions[oldTeam] -= actions[id];
+            // Re-registrarse o cambiar de equipo casi nunca cambia el nickname: no crecer el pool
+            nicknames[id] = nicknamePool.replace(nicknames[id], nickname);
+        }
+        teams[id] = (byte) team.ordinal();
+        actions[id] = actionCount;
+        joinedAt[id] = joined;
+        teamPlayers[team.ordinal()]++;
+        teamActions[team.ordinal()] += actionCount;
+        if (demoted) {
+            leaveTop(id, oldTeam);
+        }
+        offerTop(id);
+        return id;
+    }
+
+    private void insertKey(String uniqueId, int id) {
+        if ((size) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(uniqueId) & mask;
+        while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = uniqueId;
+        slots[slot] = id;
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new String[capacity];
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            slots[slot] = oldSlots[i];
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= teams.length) return;
+        int capacity = teams.length * 2;
+        uniqueIds = Arrays.copyOf(uniqueIds, capacity);
+        teams = Arrays.copyOf(teams, capacity);
+        actions = Arrays.copyOf(actions, capacity);
+        joinedAt = Arrays.copyOf(joinedAt, capacity);
+        nicknames = Arrays.copyOf(nicknames, capacity);
+        topSlots = Arrays.copyOf(topSlots, capacity);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // ACCESO POR ID
+    // ═══════════════════════════════════════════════════════════
+
+    public synchronized Team team(int id) {
+        return TEAMS[teams[id]];
+    }
+
+    public synchronized int actions(int id) {
+        return actions[id];
+    }
+
+    /**
+     * @return el total nuevo
+     */
+    public synchronized int incrementActions(int id) {
+        actions[id]++;
+        teamActions[teams[id]]++;
+        offerTop(id);
+        return actions[id];
+    }
+
+    public synchronized void setActions(int id, int total) {
+        boolean demoted = total < actions[id];
+        teamActions[teams[id]] += total - actions[id];
+        actions[id] = total;
+        if (demoted) {
+            leaveTop(id, teams[id]);
+        }
+        offerTop(id);
+    }
+
+    public synchronized long joinedAt(int id) {
+        return joinedAt[id];
+    }
+
+    public synchronized String nickname(int id) {
+        return nicknamePool.get(nicknames[id]);
+    }
+
+    public synchronized String uniqueId(int id) {
+        return uniqueIds[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // AGREGADOS Y RANKING
+    // ═══════════════════════════════════════════════════════════
+
+    private boolean ranksAbove(int id, int other) {
+        return actions[id] > actions[other] || (actions[id] == actions[other] && id < other);
+    }
+
+    /**
+     * Mete al jugador en el top de su equipo si le corresponde, o lo sube si ya estaba
+     */
+    private void offerTop(int id) {
+        int team = teams[id];
+        int[] top = tops[team];
+        int slot = topSlots[id];
+        if (slot < 0) {
+            if (topSizes[team] < TOP_CAPACITY) {
+                slot = topSizes[team]++;
+            } else if (ranksAbove(id, top[TOP_CAPACITY - 1])) {
+                slot = TOP_CAPACITY - 1;
+                topSlots[top[slot]] = -1;
+            } else {
+                return;
+            }
+        }
+        while (slot > 0 && ranksAbove(id, top[slot - 1])) {
+            top[slot] = top[slot - 1];
+            topSlots[top[slot]] = slot;
+            slot--;
+        }
+        top[slot] = id;
+        topSlots[id] = slot;
+    }
+
+    /**
+     * El jugador bajó o dejó el equipo: si estaba en su top, hay que ver quién entra en su lugar
+     */
+    private void leaveTop(int id, int team) {
+        if (topSlots[id] < 0) return;
+        topSlots[id] = -1;
+        rebuildTop(team);
+    }
+
+    private void rebuildTop(int team) {
+        topSizes[team] = 0;
+        for (int id = 0; id < size; id++) {
+            if (teams[id] == team) {
+                topSlots[id] = -1;
+                offerTop(id);
+            }
+        }
+    }
+
+    public synchronized int teamPlayers(Team team) {
+        return teamPlayers[team.ordinal()];
+    }
+
+    public synchronized long teamActions(Team team) {
+        return teamActions[team.ordinal()];
+    }
+
+    /**
+     * Los {@code limit} jugadores con más acciones del equipo, en orden
+     */
+    public synchronized List<RankedPlayer> top(Team team, int limit) {
+        int t = team.ordinal();
+        int count = Math.min(limit, teamPlayers[t]);
+        List<RankedPlayer> top = new ArrayList<>(count);
+        if (count <= topSizes[t]) {
+            for (int i = 0; i < count; i++) {
+                top.add(ranked(tops[t][i]));
+            }
+            return top;
+        }
+
+        // Más de lo que guarda el top: ordenar el equipo entero
+        List<Integer> ids = new ArrayList<>(teamPlayers[t]);
+        for (int id = 0; id < size; id++) {
+            if (teams[id] == t) ids.add(id);
+        }
+        ids.sort(Comparator.<Integer>comparingInt(id -> actions[id]).reversed().thenComparingInt(id -> id));
+        for (int i = 0; i < count; i++) {
+            top.add(ranked(ids.get(i)));
+        }
+        return top;
+    }
+
+    private RankedPlayer ranked(int id) {
+        return new RankedPlayer(uniqueIds[id], nicknamePool.get(nicknames[id]), actions[id]);
+    }
+
+    /**
+     * Bytes aproximados que ocupa el índice (arreglos, uniqueIds y pool de nicknames)
+     */
+    public synchronized long footprintBytes() {
+        long bytes = (long) keys.length * (4 + 4)           // keys (refs comprimidas) + slots
+                + (long) uniqueIds.length * (4 + 1 + 4 + 8 + 4 + 4) // uniqueIds, teams, actions, joinedAt, nicknames, topSlots
+                + nicknamePool.footprintBytes()
+                + (long) TEAMS.length * TOP_CAPACITY * 4;           // tops
+        for (int i = 0; i < size; i++) {
+            bytes += 40 + uniqueIds[i].length(); // String + byte[] (Latin-1 compacto)
+        }
+        return bytes;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // VISTA
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Copia consistente de todas las filas (System.arraycopy bajo el lock);
+     * se recorre sin bloquear a quienes escriben.
+     */
+    public synchronized View view() {
+        return new View(size,
+                Arrays.copyOf(uniqueIds, size),
+                Arrays.copyOf(teams, size),
+                Arrays.copyOf(actions, size),
+                Arrays.copyOf(joinedAt, size),
+                Arrays.copyOf(nicknames, size),
+                nicknamePool.freeze());
+    }
+
+    public static final class View {
+        private final int size;
+        private final String[] uniqueIds;
+        private final byte[] teams;
+        private final int[] actions;
+        private final long[] joinedAt;
+        private final int[] nicknames;
+        private final StringPool.Frozen nicknamePool;
+
+        private View(int size, String[] uniqueIds, byte[] teams, int[] actions,
+                     long[] joinedAt, int[] nicknames, StringPool.Frozen nicknamePool) {
+            this.size = size;
+            this.uniqueIds = uniqueIds;
+            this.teams = teams;
+            this.actions = actions;
+            this.joinedAt = joinedAt;
+            this.nicknames = nicknames;
+            this.nicknamePool = nicknamePool;
+        }
+
+        public int size() { return size; }
+        public String uniqueId(int id) { return uniqueIds[id]; }
+        public Team team(int id) { return TEAMS[teams[id]]; }
+        public int actions(int id) { return actions[id]; }
+        public long joinedAt(int id) { return joinedAt[id]; }
+        public String nickname(int id) { return nicknamePool.get(nicknames[id]); }
+
+        /**
+         * Formato de data/teams.json: {@code {uniqueId: {team, nickname, joinedAt, actions}}}
+         */
+        public void writeJson(JsonWriter json) throws IOException {
+            json.beginObject();
+            for (int id = 0; id < size; id++) {
+                json.name(uniqueIds[id]).beginObject()
+                        .name("team").value(team(id).name())
+                        .name("nickname").value(nickname(id))
+                        .name("joinedAt").value(joinedAt[id])
+                        .name("actions").value(actions[id])
+                        .endObject();
+            }
+            json.endObject();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // POOL DE NICKNAMES
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Strings UTF-8 en un solo byte[] (append-only): una referencia es un int.
+     * Cambiar de nickname agrega una entrada nueva (repetir el mismo reutiliza la suya);
+     * el espacio viejo se recupera con clear().
+     */
+    static final class StringPool {
+        private byte[] bytes = new byte[16 * 1024];
+        private int[] offsets = new int[1025];
+        private int used;
+        private int count;
+
+        int add(String value) {
+            return append(encode(value));
+        }
+
+        /**
+         * {@code ref} si ya guarda {@code value}; si no, agrega una entrada nueva
+         */
+        int replace(int ref, String value) {
+            byte[] encoded = encode(value);
+            if (Arrays.equals(bytes, offsets[ref], offsets[ref + 1], encoded, 0, encoded.length)) {
+                return ref;
+            }
+            return append(encoded);
+        }
+
+        private static byte[] encode(String value) {
+            return (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        }
+
+        private int append(byte[] encoded) {
+            if (used + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + encoded.length));
+            }
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            System.arraycopy(encoded, 0, bytes, used, encoded.length);
+            offsets[count] = used;
+            used += encoded.length;
+            offsets[count + 1] = used;
+            return count++;
+        }
+
+        String get(int ref) {
+            return new String(bytes, offsets[ref], offsets[ref + 1] - offsets[ref], StandardCharsets.UTF_8);
+        }
+
+        long footprintBytes() {
+            return bytes.length + (long) offsets.length * 4;
+        }
+
+        /**
+         * Las entradas existentes nunca se reescriben, así que basta con capturar los arreglos actuales
+         */
+        Frozen freeze() {
+            return new Frozen(bytes, offsets);
+        }
+
+        record Frozen(byte[] bytes, int[] offsets) {
+            String get(int ref) {
+                return new String(bytes, offsets[ref], offsets[ref + 1] - offsets[ref], StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.pvz.controller.tiktok;
+
+import com.pvz.controller.tiktok.TeamManager.Team;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ring acotado con los últimos cambios de equipos, numerados de forma contigua.
+ *
+ * La secuencia es la misma que la versión de {@link RosterSnapshot}: quien tiene la
+ * foto versión V pide {@link #since(long) since(V)} y recibe solo lo que pasó después.
+ * Guardado como arreglos paralelos (un cambio no es un objeto propio).
+ */
+public class RosterDeltaLog {
+
+    public enum Kind { JOIN, SWITCH, ACTION, RESET }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final Team[] TEAMS = Team.values();
+
+    /**
+     * Un cambio: JOIN/SWITCH llevan nickname, equipo y total de acciones;
+     * ACTION lleva cuántas acciones sumar; RESET no lleva nada.
+     */
+    public record Delta(Kind kind, String uniqueId, String nickname, Team team, int value) {}
+
+    /**
+     * Cambios hasta la secuencia {@code seq} inclusive
+     */
+    public record Batch(long seq, List<Delta> deltas) {}
+
+    private final int capacity;
+    private final byte[] kinds;
+    private final byte[] teams;
+    private final String[] uniqueIds;
+    private final String[] nicknames;
+    private final int[] values;
+    private long head; // secuencia del último cambio (0 = ninguno)
+
+    public RosterDeltaLog(int capacity) {
+        this.capacity = capacity;
+        this.kinds = new byte[capacity];
+        this.teams = new byte[capacity];
+        this.uniqueIds = new String[capacity];
+        this.nicknames = new String[capacity];
+        this.values = new int[capacity];
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // ESCRITURA
+    // ═══════════════════════════════════════════════════════════
+
+    public synchronized long appendRegister(boolean switched, String uniqueId, String nickname, Team team, int actions) {
+        return append(switched ? Kind.SWITCH : Kind.JOIN, uniqueId, nickname, team, actions);
+    }
+
+    public synchronized long appendAction(String uniqueId) {
+        return append(Kind.ACTION, uniqueId, null, null, 1);
+    }
+
+    public synchronized long appendReset() {
+        return append(Kind.RESET, null, null, null, 0);
+    }
+
+    private long append(Kind kind, String uniqueId, String nickname, Team team, int value) {
+        int slot = (int) (++head % capacity);
+        kinds[slot] = (byte) kind.ordinal();
+        teams[slot] = (byte) (team != null ? team.ordinal() : 0);
+        uniqueIds[slot] = uniqueId;
+        nicknames[slot] = nickname;
+        values[slot] = value;
+        return head;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // LECTURA
+    // ═══════════════════════════════════════════════════════════
+
+    public synchronized long head() {
+        return head;
+    }
+
+    /**
+     * Cambios con secuencia {@code > since}, hasta {@link #head()}. Las acciones
+     * seguidas de un mismo jugador se fusionan en una sola (+N) y un RESET descarta
+     * lo anterior.
+     * @return null si {@code since} ya salió del ring o es del futuro (pedir foto completa)
+     */
+    public synchronized Batch since(long since) {
+        if (since < head - capacity || since > head) return null;
+
+        List<Delta> out = new ArrayList<>();
+        Map<String, Integer> pendingAction = new HashMap<>();
+        for (long seq = since + 1; seq <= head; seq++) {
+            int slot = (int) (seq % capacity);
+            Kind kind = KINDS[kinds[slot]];
+            String uniqueId = uniqueIds[slot];
+
+            switch (kind) {
+                case RESET -> {
+                    out.clear();
+                    pendingAction.clear();
+                    out.add(new Delta(Kind.RESET, null, null, null, 0));
+                }
+                case JOIN, SWITCH -> {
+                    pendingAction.remove(uniqueId);
+                    out.add(new Delta(kind, uniqueId, nicknames[slot], TEAMS[teams[slot]], values[slot]));
+                }
+                case ACTION -> {
+                    Integer index = pendingAction.get(uniqueId);
+                    if (index != null) {
+                        Delta merged = out.get(index);
+                        out.set(index, new Delta(Kind.ACTION, uniqueId, null, null, merged.value() + values[slot]));
+                    } else {
+                        pendingAction.put(uniqueId, out.size());
+                        out.add(new Delta(Kind.ACTION, uniqueId, null, null, values[slot]));
+                    }
+                }
+            }
+        }
+        return new Batch(head, out);
+    }
+}
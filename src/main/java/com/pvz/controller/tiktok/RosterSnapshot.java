@@ -0,0 +1,75 @@
+package com.pvz.controller.tiktok;
+
+import com.pvz.controller.tiktok.TeamManager.RankedPlayer;
+import com.pvz.controller.tiktok.TeamManager.Team;
+
+import java.util.List;
+
+/**
+ * Foto inmutable y versionada de los equipos, publicada por {@link TeamManager}
+ * solo cuando algo cambió (como máximo una vez cada TEAMS_SNAPSHOT_MS).
+ *
+ * Los lectores la toman sin copiar nada y comparan {@link #getVersion()} con la
+ * última que procesaron para saber si tienen que volver a dibujar/serializar.
+ */
+public final class RosterSnapshot {
+
+    private final long version;
+    private final long publishedAt;
+    private final PlayerIndex.View players;
+    private final int[] teamPlayers;
+    private final long[] teamActions;
+    // Por Team.ordinal()
+    private final List<List<RankedPlayer>> top;
+
+    RosterSnapshot(long version, PlayerIndex.View players, int[] teamPlayers,
+                   long[] teamActions, List<List<RankedPlayer>> top) {
+        this.version = version;
+        this.publishedAt = System.currentTimeMillis();
+        this.players = players;
+        this.teamPlayers = teamPlayers;
+        this.teamActions = teamActions;
+        this.top = top;
+    }
+
+    /**
+     * Crece con cada cambio de equipos; dos fotos con la misma versión son idénticas
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean hasChangedSince(long renderedVersion) {
+        return version != renderedVersion;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    /**
+     * Todos los jugadores (filas del índice copiadas al publicar)
+     */
+    public PlayerIndex.View getPlayers() {
+        return players;
+    }
+
+    public int getTotalPlayers() {
+        return players.size();
+    }
+
+    public int getTeamSize(Team team) {
+        return teamPlayers[team.ordinal()];
+    }
+
+    public long getTeamActions(Team team) {
+        return teamActions[team.ordinal()];
+    }
+
+    /**
+     * Los mejores del equipo, ordenados por acciones (lista inmutable)
+     */
+    public List<RankedPlayer> getTop(Team team) {
+        return top.get(team.ordinal());
+    }
+}
@@ -0,0 +1,242 @@
+package com.pvz.controller.tiktok;
+
+import com.pvz.controller.tiktok.TeamManager.Team;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Journal binario append-only de {@link TeamManager}.
+ *
+ * Formato: cabecera {@code "PVZJ" + versión}, luego registros
+ * {@code [int largo][byte tipo][payload][int crc32(tipo+payload)]}.
+ *
+ * Los registros son absolutos (un ACTION lleva el total nuevo, no un +1), así que
+ * reaplicarlos sobre un snapshot que ya los incluye no cambia el resultado. Eso es
+ * lo que permite compactar sin detener las escrituras (ver TeamManager.compact()).
+ */
+public class TeamJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamJournal.class);
+
+    private static final int MAGIC = 0x50565A4A; // "PVZJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final byte REGISTER = 1;
+    static final byte SWITCH = 2;
+    static final byte ACTION = 3;
+    static final byte RESET = 4;
+
+    private final Path file;
+    private FileOutputStream stream;
+    private DataOutputStream out;
+    private long size;
+    private long records;
+
+    // Buffer reutilizable para armar cada registro y calcular su CRC sin copiarlo
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() { super(256); }
+        byte[] array() { return buf; }
+    }
+
+    private final RecordBuffer recordBytes = new RecordBuffer();
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+
+    private TeamJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Abre el journal para agregar al final.
+     * @param truncate true para empezar un journal vacío
+     */
+    public static TeamJournal open(Path file, boolean truncate) throws IOException {
+        TeamJournal journal = new TeamJournal(file);
+        journal.openStream(truncate);
+        return journal;
+    }
+
+    private void openStream(boolean truncate) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        boolean fresh = truncate || !Files.exists(file) || Files.size(file) < HEADER_SIZE;
+
+        stream = new FileOutputStream(file.toFile(), !fresh);
+        out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+        if (fresh) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            size = HEADER_SIZE;
+        } else {
+            size = Files.size(file);
+        }
+        records = 0;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // ESCRITURA
+    // ═══════════════════════════════════════════════════════════
+
+    public synchronized void appendRegister(boolean switched, String uniqueId, String nickname,
+                                            Team team, long joinedAt, int actions) throws IOException {
+        recordBytes.reset();
+        record.writeByte(switched ? SWITCH : REGISTER);
+        record.writeUTF(uniqueId);
+        record.writeUTF(nickname != null ? nickname : "");
+        record.writeByte(team.ordinal());
+        record.writeLong(joinedAt);
+        record.writeInt(actions);
+        writeRecord();
+    }
+
+    public synchronized void appendAction(String uniqueId, int totalActions) throws IOException {
+        recordBytes.reset();
+        record.writeByte(ACTION);
+        record.writeUTF(uniqueId);
+        record.writeInt(totalActions);
+        writeRecord();
+    }
+
+    public synchronized void appendReset() throws IOException {
+        recordBytes.reset();
+        record.writeByte(RESET);
+        writeRecord();
+    }
+
+    private void writeRecord() throws IOException {
+        int length = recordBytes.size();
+        crc.reset();
+        crc.update(recordBytes.array(), 0, length);
+
+        out.writeInt(length);
+        recordBytes.writeTo(out);
+        out.writeInt((int) crc.getValue());
+        size += length + 8;
+        records++;
+    }
+
+    /**
+     * Pasa el buffer al sistema operativo
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Pasa el buffer al sistema operativo y lo fuerza a disco
+     */
+    public synchronized void sync() throws IOException {
+        out.flush();
+        stream.getChannel().force(false);
+    }
+
+    /**
+     * Cierra el journal actual, lo renombra a {@code rotated} y empieza uno vacío.
+     * Lo que se agregue después queda en el journal nuevo.
+     */
+    public synchronized void rotate(Path rotated) throws IOException {
+        sync();
+        out.close();
+        Files.move(file, rotated, StandardCopyOption.REPLACE_EXISTING);
+        openStream(true);
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Registros agregados desde que se abrió o rotó el journal
+     */
+    public synchronized long records() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        out.close();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // REPLAY
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Reaplica un journal sobre {@code players}. Se detiene en el primer registro
+     * incompleto o corrupto (ej: cola de un crash).
+     * @return registros aplicados
+     */
+    public static int replay(Path file, PlayerIndex players) {
+        if (!Files.exists(file)) return 0;
+
+        int applied = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.warn("Journal {} con cabecera desconocida, se ignora", file);
+                return 0;
+            }
+
+            byte[] buffer = new byte[MAX_RECORD_SIZE];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    logger.warn("Journal {} corrupto después de {} registros (largo {})", file, applied, length);
+                    break;
+                }
+                in.readFully(buffer, 0, length);
+                int expected = in.readInt();
+                crc.reset();
+                crc.update(buffer, 0, length);
+                if ((int) crc.getValue() != expected) {
+                    logger.warn("Journal {} con checksum inválido después de {} registros", file, applied);
+                    break;
+                }
+
+                apply(new DataInputStream(new ByteArrayInputStream(buffer, 0, length)), players);
+                applied++;
+            }
+        } catch (EOFException e) {
+            logger.warn("Journal {} truncado después de {} registros", file, applied);
+        } catch (IOException e) {
+            logger.error("Error leyendo journal {}: {}", file, e.getMessage());
+        }
+        return applied;
+    }
+
+    private static void apply(DataInputStream in, PlayerIndex players) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case REGISTER, SWITCH -> {
+                String uniqueId = in.readUTF();
+                String nickname = in.readUTF();
+                Team team = Team.values()[in.readByte()];
+                long joinedAt = in.readLong();
+                int actions = in.readInt();
+                players.register(uniqueId, team, nickname, joinedAt, actions);
+            }
+            case ACTION -> {
+                String uniqueId = in.readUTF();
+                int total = in.readInt();
+                int id = players.idOf(uniqueId);
+                if (id >= 0) players.setActions(id, total);
+            }
+            case RESET -> players.clear();
+            default -> throw new IOException("Tipo de registro de journal desconocido " + type);
+        }
+    }
+}
@@ -3,19 +3,43 @@ package com.pvz.controller.tiktok;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import com.pvz.controller.config.ControllerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Sistema de equipos Plantas vs Zombies.
  * Los viewers escriben en el chat para registrarse.
- * Datos persistidos en data/teams.json
+ * Persistencia: cada cambio es un registro en el journal append-only
+ * data/teams.journal; la compactación lo vuelca al snapshot data/teams.json y empieza
+ * un journal nuevo. Se compacta cuando el journal llega a TEAMS_COMPACT_BYTES, al cerrar
+ * y, como respaldo, cada TEAMS_COMPACT_MS (minutos). Al arrancar: snapshot + replay.
+ * Lectores (overlay, stats, HTTP): {@link #getRoster()}, una foto inmutable que se
+ * republica al cambiar algo, como máximo una vez cada TEAMS_SNAPSHOT_MS.
  *
  * Comandos rápidos: p, z, 🌱, 🧟
  */
@@ -23,7 +47,10 @@ public class TeamManager {
 
     private static final Logger logger = LoggerFactory.getLogger(TeamManager.class);
     private static final String DATA_FILE = "data/teams.json";
+    private static final Path JOURNAL_FILE = Path.of("data/teams.journal");
+    private static final Path ROTATED_JOURNAL_FILE = Path.of("data/teams.journal.old");
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final int ROSTER_TOP_SIZE = 50;
 
     public enum Team {
         PLANTAS, ZOMBIES
@@ -65,10 +92,72 @@ public class TeamManager {
         }
     }
 
-    private final ConcurrentHashMap<String, PlayerInfo> players = new ConcurrentHashMap<>();
+    /**
+     * Entrada del ranking de un equipo
+     */
+    public record RankedPlayer(String uniqueId, String nickname, int actions) {}
+
+    // Orden de locks: journal → players
+    private final PlayerIndex players = new PlayerIndex();
+
+    // Journal: cada mutación actualiza el índice y agrega su registro bajo el lock del journal
+    private TeamJournal journal;
+    private final long compactIntervalMs;
+    private final long compactBytes;
+    private volatile long lastCompactionAt = System.currentTimeMillis();
+
+    // nanoTime del primer registro aún en el buffer del journal (0 = limpio)
+    private final AtomicLong dirtySince = new AtomicLong();
+    private final long flushIntervalMs;
+    private final ScheduledExecutorService flusher;
+
+    // Cada mutación agrega un cambio numerado (bajo el lock del journal); su secuencia es la versión de la foto
+    private final RosterDeltaLog deltas = new RosterDeltaLog(ControllerConfig.getTeamsDeltaRing());
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Foto publicada para los lectores
+    private volatile RosterSnapshot roster;
+    private final AtomicBoolean publishPending = new AtomicBoolean();
+    private final long snapshotIntervalNanos;
+    private volatile long lastPublishNanos;
+    private final ScheduledExecutorService publisher;
+    private final CopyOnWriteArrayList<Consumer<RosterSnapshot>> rosterListeners = new CopyOnWriteArrayList<>();
+
+    // Métricas de persistencia
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private volatile long lastFlushLagMs;
+    private volatile long maxFlushLagMs;
+    private volatile long lastCompactionMs;
+    private volatile long bytesOnDisk;
 
     public TeamManager() {
-        load();
+        compactIntervalMs = ControllerConfig.getTeamsCompactMs();
+        compactBytes = ControllerConfig.getTeamsCompactBytes();
+        recover();
+
+        snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(ControllerConfig.getTeamsSnapshotMs());
+        roster = captureRoster();
+        publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "roster-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        flushIntervalMs = ControllerConfig.getTeamsFlushMs();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "teams-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Arranca el volcado periódico del journal; llamar una vez, ya construido
+     */
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushAndMaybeCompact, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -81,14 +170,18 @@ public class TeamManager {
 
         if (team == null) return null;
 
-        PlayerInfo existing = players.get(uniqueId);
-        if (existing != null && existing.team == team) return null;
+        boolean switched;
+        synchronized (journal) {
+            int id = players.idOf(uniqueId);
+            if (id >= 0 && players.team(id) == team) return null;
 
-        boolean switched = existing != null;
-        PlayerInfo info = new PlayerInfo(team, nickname);
-        info.actions = (existing != null) ? existing.actions : 0;
-        players.put(uniqueId, info);
-        save();
+            switched = id >= 0;
+            int actions = switched ? players.actions(id) : 0;
+            long joinedAt = System.currentTimeMillis();
+            players.register(uniqueId, team, nickname, joinedAt, actions);
+            deltas.appendRegister(switched, uniqueId, nickname, team, actions);
+            append(() -> journal.appendRegister(switched, uniqueId, nickname, team, joinedAt, actions));
+        }
 
         String emoji = team == Team.PLANTAS ? "🌱" : "🧟";
         String action = switched ? "cambió a" : "se unió a";
@@ -98,61 +191,349 @@ public class TeamManager {
     }
 
     public Team getTeam(String uniqueId) {
-        PlayerInfo info = players.get(uniqueId);
-        return info != null ? info.team : null;
+        int id = players.idOf(uniqueId);
+        return id >= 0 ? players.team(id) : null;
     }
 
     public boolean isRegistered(String uniqueId) {
-        return players.containsKey(uniqueId);
+        return players.idOf(uniqueId) >= 0;
     }
 
     public void incrementActions(String uniqueId) {
-        PlayerInfo info = players.get(uniqueId);
-        if (info != null) {
-            info.actions++;
-            save();
+        synchronized (journal) {
+            int id = players.idOf(uniqueId);
+            if (id >= 0) {
+                int total = players.incrementActions(id);
+                deltas.appendAction(uniqueId);
+                append(() -> journal.appendAction(uniqueId, total));
+            }
         }
     }
 
     public String getStats() {
-        int pCount = 0, zCount = 0, pActions = 0, zActions = 0;
-        for (PlayerInfo info : players.values()) {
-            if (info.team == Team.PLANTAS) { pCount++; pActions += info.actions; }
-            else { zCount++; zActions += info.actions; }
-        }
+        RosterSnapshot snapshot = roster;
         return String.format("📊 🌱 %d (%d acciones) | 🧟 %d (%d acciones) | Total: %d",
-                pCount, pActions, zCount, zActions, players.size());
+                snapshot.getTeamSize(Team.PLANTAS), snapshot.getTeamActions(Team.PLANTAS),
+                snapshot.getTeamSize(Team.ZOMBIES), snapshot.getTeamActions(Team.ZOMBIES),
+                snapshot.getTotalPlayers());
+    }
+
+    /**
+     * Última foto publicada de los equipos (sin copias; puede ir hasta TEAMS_SNAPSHOT_MS por detrás)
+     */
+    public RosterSnapshot getRoster() {
+        return roster;
+    }
+
+    /**
+     * Cambios posteriores a la versión {@code since} (ver {@link RosterDeltaLog#since(long)}).
+     * @return null si ya no están en memoria: hay que pedir la foto completa
+     */
+    public RosterDeltaLog.Batch getDeltasSince(long since) {
+        return deltas.since(since);
+    }
+
+    /**
+     * Identifica esta ejecución: las versiones vuelven a empezar al reiniciar
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Se llama en el hilo publicador con cada foto nueva (debe ser barato)
+     */
+    public void addRosterListener(Consumer<RosterSnapshot> listener) {
+        rosterListeners.add(listener);
+    }
+
+    public int getTeamSize(Team team) {
+        return players.teamPlayers(team);
+    }
+
+    public long getTeamActions(Team team) {
+        return players.teamActions(team);
+    }
+
+    /**
+     * Los {@code limit} jugadores con más acciones del equipo (empates: quien se registró antes)
+     */
+    public List<RankedPlayer> getTopPlayers(Team team, int limit) {
+        return players.top(team, limit);
     }
+
     public Map<String, PlayerInfo> getPlayersSnapshot() {
-        return new java.util.HashMap<>(players);
+        PlayerIndex.View view = players.view();
+        Map<String, PlayerInfo> snapshot = new HashMap<>(view.size() * 2);
+        for (int id = 0; id < view.size(); id++) {
+            snapshot.put(view.uniqueId(id), toPlayerInfo(view, id));
+        }
+        return snapshot;
+    }
+
+    private static PlayerInfo toPlayerInfo(PlayerIndex.View view, int id) {
+        PlayerInfo info = new PlayerInfo();
+        info.team = view.team(id);
+        info.nickname = view.nickname(id);
+        info.joinedAt = view.joinedAt(id);
+        info.actions = view.actions(id);
+        return info;
     }
 
     public void reset() {
-        players.clear();
-        save();
+        synchronized (journal) {
+            players.clear();
+            deltas.appendReset();
+            append(journal::appendReset);
+        }
         logger.info("🔄 Equipos reseteados");
     }
 
-    private void save() {
+    // ═══════════════════════════════════════════════════════════
+    // FOTO PUBLICADA
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Marca un cambio y agenda la publicación: si ya hay una pendiente, este cambio
+     * viaja en ella; si no, sale en cuanto pase el intervalo mínimo desde la anterior.
+     */
+    private void rosterChanged() {
+        if (publishPending.compareAndSet(false, true)) {
+            long delay = Math.max(0, lastPublishNanos + snapshotIntervalNanos - System.nanoTime());
+            try {
+                publisher.schedule(this::publishRoster, delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                publishPending.set(false); // apagándose
+            }
+        }
+    }
+
+    private void publishRoster() {
+        publishPending.set(false);
+        lastPublishNanos = System.nanoTime();
+        if (deltas.head() == roster.getVersion()) return;
+        RosterSnapshot snapshot = captureRoster();
+        roster = snapshot;
+        for (Consumer<RosterSnapshot> listener : rosterListeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (Exception e) {
+                logger.warn("Error notificando foto de equipos: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Bajo el lock del journal ninguna mutación queda a medias: índice, agregados
+     * y versión son consistentes entre sí.
+     */
+    private RosterSnapshot captureRoster() {
+        synchronized (journal) {
+            Team[] teams = Team.values();
+            int[] teamPlayers = new int[teams.length];
+            long[] teamActions = new long[teams.length];
+            List<List<RankedPlayer>> top = new ArrayList<>(teams.length);
+            for (Team team : teams) {
+                teamPlayers[team.ordinal()] = players.teamPlayers(team);
+                teamActions[team.ordinal()] = players.teamActions(team);
+                top.add(List.copyOf(players.top(team, ROSTER_TOP_SIZE)));
+            }
+            return new RosterSnapshot(deltas.head(), players.view(), teamPlayers, teamActions, List.copyOf(top));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // PERSISTENCIA (journal + compactación)
+    // ═══════════════════════════════════════════════════════════
+
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+
+    /**
+     * Agrega un registro al journal (en memoria hasta el próximo flush).
+     * Debe llamarse con el lock del journal tomado, justo después de mutar el índice.
+     * También agenda la próxima foto publicada (el cambio ya está en el log de deltas).
+     */
+    private void append(JournalWrite write) {
         try {
-            File file = new File(DATA_FILE);
-            file.getParentFile().mkdirs();
-            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-                gson.toJson(players, writer);
+            write.run();
+            dirtySince.compareAndSet(0, System.nanoTime());
+        } catch (IOException e) {
+            logger.error("Error escribiendo journal de equipos: {}", e.getMessage());
+        }
+        rosterChanged();
+    }
+
+    /**
+     * Snapshot + journal rotado (si quedó de una compactación interrumpida) + journal.
+     * Después se escribe un snapshot nuevo, así el arranque siguiente no depende del historial.
+     */
+    private void recover() {
+        long start = System.nanoTime();
+        load();
+        int replayed = TeamJournal.replay(ROTATED_JOURNAL_FILE, players)
+                + TeamJournal.replay(JOURNAL_FILE, players);
+        if (replayed > 0) {
+            logger.info("📜 {} registros del journal reaplicados ({} ms)",
+                    replayed, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        boolean compacted = replayed == 0 && !Files.exists(ROTATED_JOURNAL_FILE);
+        if (!compacted) {
+            try {
+                writeSnapshot();
+                Files.deleteIfExists(ROTATED_JOURNAL_FILE);
+                compacted = true;
+            } catch (IOException e) {
+                logger.error("Error compactando equipos al iniciar: {}", e.getMessage());
             }
+        }
+
+        try {
+            // Si no se pudo compactar, se conserva el journal y se sigue agregando
+            journal = TeamJournal.open(JOURNAL_FILE, compacted);
         } catch (IOException e) {
-            logger.error("Error guardando equipos: {}", e.getMessage());
+            throw new UncheckedIOException("No se pudo abrir el journal de equipos", e);
         }
     }
 
+    /**
+     * Pasa el journal al sistema operativo
+     */
+    public void flush() {
+        long since = dirtySince.getAndSet(0);
+        if (since == 0) return;
+
+        try {
+            long before = bytesOnDisk;
+            journal.flush();
+            bytesOnDisk = journal.size();
+            bytesWritten.addAndGet(bytesOnDisk - before);
+
+            long lagMs = (System.nanoTime() - since) / 1_000_000;
+            lastFlushLagMs = lagMs;
+            maxFlushLagMs = Math.max(maxFlushLagMs, lagMs);
+            flushCount.incrementAndGet();
+        } catch (IOException e) {
+            dirtySince.compareAndSet(0, since);
+            logger.error("Error guardando journal de equipos: {}", e.getMessage());
+        }
+    }
+
+    private void flushAndMaybeCompact() {
+        flush();
+
+        // Reescribir teams.json cuesta O(jugadores): se hace por tamaño del journal, no por actividad
+        boolean tooBig = journal.size() >= compactBytes;
+        boolean due = journal.records() > 0 && System.currentTimeMillis() - lastCompactionAt >= compactIntervalMs;
+        if (tooBig || due) {
+            compact();
+        }
+    }
+
+    /**
+     * Rota el journal (bajo el lock: ninguna mutación queda a medias) y escribe el
+     * snapshot fuera del lock. Las mutaciones que ocurran mientras tanto van al journal
+     * nuevo; si el snapshot ya las incluye, reaplicarlas no cambia nada.
+     */
+    public synchronized void compact() {
+        long start = System.nanoTime();
+        try {
+            // Si quedó un journal rotado de un intento fallido, solo se reintenta el snapshot
+            if (!Files.exists(ROTATED_JOURNAL_FILE)) {
+                synchronized (journal) {
+                    flush();
+                    journal.rotate(ROTATED_JOURNAL_FILE);
+                    bytesOnDisk = journal.size();
+                }
+            }
+            writeSnapshot();
+            Files.deleteIfExists(ROTATED_JOURNAL_FILE);
+
+            lastCompactionAt = System.currentTimeMillis();
+            lastCompactionMs = (System.nanoTime() - start) / 1_000_000;
+            compactions.incrementAndGet();
+        } catch (IOException e) {
+            // El journal rotado se conserva y se reaplica al arrancar
+            logger.error("Error compactando equipos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * data/teams.json con archivo temporal + rename atómico (nunca queda a medio escribir).
+     * Se genera en streaming desde una vista del índice, sin armar un PlayerInfo por jugador.
+     */
+    private void writeSnapshot() throws IOException {
+        PlayerIndex.View view = players.view();
+        Path target = Path.of(DATA_FILE);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long written;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), StandardCharsets.UTF_8), 64 * 1024);
+            JsonWriter json = new JsonWriter(writer);
+            json.setIndent("  ");
+            view.writeJson(json);
+            json.flush();
+            written = channel.size();
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        bytesWritten.addAndGet(written);
+    }
+
+    /**
+     * Detiene el flusher, compacta y cierra el journal
+     */
+    public void shutdown() {
+        if (flusher.isShutdown()) return;
+        publisher.shutdownNow();
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Error cerrando journal de equipos: {}", e.getMessage());
+        }
+    }
+
+    public String getIndexStats() {
+        int count = players.size();
+        long bytes = players.footprintBytes();
+        return String.format("🗂️ Índice: %d jugadores | %d KB (%d bytes/jugador) | Foto v%d",
+                count, bytes / 1024, count > 0 ? bytes / count : 0, roster.getVersion());
+    }
+
+    public String getPersistenceStats() {
+        return String.format("💾 Journal: %d bytes (%d registros) | Escrito: %d bytes | Lag: %d ms (máx %d ms) | Compactaciones: %d (última %d ms)",
+                journal.size(), journal.records(), bytesWritten.get(), lastFlushLagMs, maxFlushLagMs,
+                compactions.get(), lastCompactionMs);
+    }
+
     private void load() {
         File file = new File(DATA_FILE);
         if (!file.exists()) return;
         try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
-            Type type = new TypeToken<ConcurrentHashMap<String, PlayerInfo>>() {}.getType();
-            ConcurrentHashMap<String, PlayerInfo> loaded = gson.fromJson(reader, type);
+            Type type = new TypeToken<HashMap<String, PlayerInfo>>() {}.getType();
+            Map<String, PlayerInfo> loaded = gson.fromJson(reader, type);
             if (loaded != null) {
-                players.putAll(loaded);
+                loaded.forEach((uniqueId, info) -> {
+                    if (info.team != null) {
+                        players.register(uniqueId, info.team, info.nickname, info.joinedAt, info.actions);
+                    }
+                });
                 logger.info("📂 Cargados {} jugadores registrados", players.size());
             }
         } catch (IOException e) {
@@ -2,6 +2,7 @@ package com.pvz.controller.tiktok;
 
 import com.pvz.controller.games.GameController;
 import com.pvz.controller.games.GameController.ActionResult;
+import com.pvz.controller.model.CommandSource;
 import io.github.jwdeveloper.tiktok.TikTokLive;
 import io.github.jwdeveloper.tiktok.live.LiveClient;
 import org.slf4j.Logger;
@@ -10,8 +11,10 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Servicio principal de conexión TikTok LIVE.
@@ -20,6 +23,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  *   - Viewer escribe "plantas" o "zombies" → se registra
  *   - Team Plantas escribe "A3" → lanzaguisantes gratis (cooldown 5s por equipo)
  *   - Team Zombies escribe "C"  → zombie normal desde la entrada (cooldown 5s por equipo)
+ *   - Durante el cooldown los mensajes votan: al cerrar se ejecuta la casilla/fila más votada
  *
  * Flujo REGALOS (gifts):
  *   - Viewer registrado escribe posición + envía regalo
@@ -52,9 +56,8 @@ public class TikTokService {
     // Cooldown individual por usuario (para gifts)
     private final Map<String, Long> cooldowns = new ConcurrentHashMap<>();
 
-    // Cooldown global separado por equipo
-    private volatile long lastPlantasAction = 0;
-    private volatile long lastZombiesAction = 0;
+    // Cooldown global por equipo: lo que llega durante la ventana vota
+    private final ChatVoteAggregator chatVotes = new ChatVoteAggregator(GLOBAL_COOLDOWN_MS, this::executeVoteWinner);
 
     // ═══════════════════════════════════════════════════════════
     // CONFIGURACIÓN
@@ -101,10 +104,10 @@ public class TikTokService {
     // CONSTRUCTOR
     // ═══════════════════════════════════════════════════════════
 
-    public TikTokService(String tiktokUsername, GameController gameController) {
+    public TikTokService(String tiktokUsername, GameController gameController, TeamManager teamManager) {
         this.tiktokUsername = tiktokUsername;
         this.gameController = gameController;
-        this.teamManager = new TeamManager();
+        this.teamManager = teamManager;
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -252,21 +255,16 @@ public class TikTokService {
                 return;
             }
 
-            if (!checkGlobalCooldown(TeamManager.Team.PLANTAS)) {
-                logger.debug("⏳ Cooldown Plantas ({})", nickname);
+            ChatVoteAggregator.Vote vote = chatVotes.vote(TeamManager.Team.PLANTAS, uniqueId,
+                    ChatVoteAggregator.cell(pos.rowIndex(), pos.col()));
+            if (vote != ChatVoteAggregator.Vote.EXECUTE_NOW) {
+                logger.debug("🗳️ Cooldown Plantas: {} vota {} ({})", nickname, pos, vote);
                 return;
             }
 
             logger.info("🌱🆓 {} → lanzaguisantes GRATIS en {}", nickname, pos);
-            ActionResult result = gameController.onTeamAAction(FREE_PLANT_TYPE, pos.row(), pos.col(), uniqueId);
-
-            if (result.success()) {
-                markGlobalCooldown(TeamManager.Team.PLANTAS);
-                teamManager.incrementActions(uniqueId);
-                logger.info("✅ {}", result.message());
-            } else {
-                logger.warn("⚠️ {}", result.message());
-            }
+            submitChatAction(TeamManager.Team.PLANTAS, uniqueId,
+                    () -> gameController.onTeamAAction(FREE_PLANT_TYPE, pos.row(), pos.col(), uniqueId, CommandSource.CHAT));
 
         } else {
             // Zombies solo necesitan fila: "A", "B", "C", "D", "E", "F"
@@ -288,23 +286,57 @@ public class TikTokService {
                 return;
             }
 
-            if (!checkGlobalCooldown(TeamManager.Team.ZOMBIES)) {
-                logger.debug("⏳ Cooldown Zombies ({})", nickname);
+            char rowLetter = (char) ('A' + rowIndex);
+            ChatVoteAggregator.Vote vote = chatVotes.vote(TeamManager.Team.ZOMBIES, uniqueId, rowIndex);
+            if (vote != ChatVoteAggregator.Vote.EXECUTE_NOW) {
+                logger.debug("🗳️ Cooldown Zombies: {} vota fila {} ({})", nickname, rowLetter, vote);
                 return;
             }
 
-            char rowLetter = (char) ('A' + rowIndex);
             logger.info("🧟🆓 {} → zombie normal GRATIS en fila {} (entrada derecha)", nickname, rowLetter);
-            ActionResult result = gameController.onTeamBAction(FREE_ZOMBIE_TYPE, 1, String.valueOf(rowIndex), uniqueId);
+            int row = rowIndex;
+            submitChatAction(TeamManager.Team.ZOMBIES, uniqueId,
+                    () -> gameController.onTeamBAction(FREE_ZOMBIE_TYPE, 1, String.valueOf(row), uniqueId, CommandSource.CHAT));
+        }
+    }
 
-            if (result.success()) {
-                markGlobalCooldown(TeamManager.Team.ZOMBIES);
+    /**
+     * Encola la acción gratis sin bloquear el hilo de TikTok; al terminar acredita al viewer
+     * y avisa a la votación (llamar siempre, también si falla al encolar)
+     */
+    private void submitChatAction(TeamManager.Team team, String uniqueId,
+                                  Supplier<CompletableFuture<ActionResult>> action) {
+        CompletableFuture<ActionResult> pending;
+        try {
+            pending = action.get();
+        } catch (RuntimeException e) {
+            chatVotes.finished(team, false);
+            throw e;
+        }
+        pending.whenComplete((result, error) -> {
+            boolean success = logResult(result, error);
+            if (success) {
                 teamManager.incrementActions(uniqueId);
-                logger.info("✅ {}", result.message());
-            } else {
-                logger.warn("⚠️ {}", result.message());
             }
+            // Solo una acción exitosa abre el cooldown
+            chatVotes.finished(team, success);
+        });
+    }
+
+    /**
+     * @return true si la acción se ejecutó
+     */
+    private static boolean logResult(ActionResult result, Throwable error) {
+        if (error != null) {
+            logger.error("Error ejecutando acción: {}", error.getMessage());
+            return false;
         }
+        if (result.success()) {
+            logger.info("✅ {}", result.message());
+        } else {
+            logger.warn("⚠️ {}", result.message());
+        }
+        return result.success();
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -348,8 +380,8 @@ public class TikTokService {
         // Buscar posición del mensaje cacheado
         PositionParser.Position position = resolvePosition(uniqueId);
 
-        // Ejecutar según equipo
-        ActionResult result;
+        // Encolar según equipo: el scheduler lo pone delante del chat en cola
+        CompletableFuture<ActionResult> pending;
 
         if (team == TeamManager.Team.PLANTAS) {
             if (position == null) {
@@ -357,22 +389,21 @@ public class TikTokService {
                 return;
             }
             logger.info("🌱🎁 {} → {} en {} (gift: {})", nickname, actionType, position, giftName);
-            result = gameController.onTeamAAction(actionType, position.row(), position.col(), uniqueId);
+            pending = gameController.onTeamAAction(actionType, position.row(), position.col(), uniqueId, CommandSource.GIFT);
         } else {
             String row = position != null ? String.valueOf(position.rowIndex()) : null;
             int count = Math.min(Math.max(combo, 1), 5);
             logger.info("🧟🎁 {} → {} x{} (gift: {}){}", nickname, actionType, count, giftName,
                     position != null ? " fila " + (char) ('A' + position.rowIndex()) : " (fila aleatoria)");
-            result = gameController.onTeamBAction(actionType, count, row, uniqueId);
+            pending = gameController.onTeamBAction(actionType, count, row, uniqueId, CommandSource.GIFT);
         }
 
-        if (result.success()) {
-            markCooldown(uniqueId);
-            teamManager.incrementActions(uniqueId);
-            logger.info("✅ {}", result.message());
-        } else {
-            logger.warn("⚠️ {}", result.message());
-        }
+        pending.whenComplete((result, error) -> {
+            if (logResult(result, error)) {
+                markCooldown(uniqueId);
+                teamManager.incrementActions(uniqueId);
+            }
+        });
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -405,20 +436,33 @@ public class TikTokService {
     }
 
     // ═══════════════════════════════════════════════════════════
-    // COOLDOWN GLOBAL POR EQUIPO (acciones gratis)
+    // VOTACIÓN POR CHAT (cooldown global por equipo)
     // ═══════════════════════════════════════════════════════════
 
-    private boolean checkGlobalCooldown(TeamManager.Team team) {
-        long last = team == TeamManager.Team.PLANTAS ? lastPlantasAction : lastZombiesAction;
-        return System.currentTimeMillis() - last >= GLOBAL_COOLDOWN_MS;
-    }
-
-    private void markGlobalCooldown(TeamManager.Team team) {
+    /**
+     * Ejecuta la casilla/fila más votada al cerrar la ventana; la acción se le acredita
+     * al primero que votó por ella
+     */
+    private CompletableFuture<Boolean> executeVoteWinner(TeamManager.Team team, int target, String firstVoter, int votes, int voters) {
+        CompletableFuture<ActionResult> pending;
         if (team == TeamManager.Team.PLANTAS) {
-            lastPlantasAction = System.currentTimeMillis();
+            String row = String.valueOf((char) ('A' + target / ChatVoteAggregator.COLS));
+            int col = target % ChatVoteAggregator.COLS + 1;
+            logger.info("🗳️🌱 Votación Plantas: {}{} ganó con {} de {} votos → lanzaguisantes", row, col, votes, voters);
+            pending = gameController.onTeamAAction(FREE_PLANT_TYPE, row, col, firstVoter, CommandSource.CHAT);
         } else {
-            lastZombiesAction = System.currentTimeMillis();
+            char rowLetter = (char) ('A' + target);
+            logger.info("🗳️🧟 Votación Zombies: fila {} ganó con {} de {} votos → zombie normal", rowLetter, votes, voters);
+            pending = gameController.onTeamBAction(FREE_ZOMBIE_TYPE, 1, String.valueOf(target), firstVoter, CommandSource.CHAT);
         }
+
+        return pending.handle((result, error) -> {
+            boolean success = logResult(result, error);
+            if (success) {
+                teamManager.incrementActions(firstVoter);
+            }
+            return success;
+        });
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -459,13 +503,8 @@ public class TikTokService {
             String rowLetter = String.valueOf((char) ('A' + plantRow));
 
             logger.info("🌱 Evento → {} en {}{}", plant, rowLetter, plantCol);
-            ActionResult result = gameController.onTeamAAction(plant, rowLetter, plantCol, "likes_event");
-
-            if (result.success()) {
-                logger.info("✅ {}", result.message());
-            } else {
-                logger.warn("⚠️ {}", result.message());
-            }
+            gameController.onTeamAAction(plant, rowLetter, plantCol, "likes_event", CommandSource.LIKES)
+                    .whenComplete(TikTokService::logResult);
 
         } else {
             String zombie = RANDOM_ZOMBIES[rng.nextInt(RANDOM_ZOMBIES.length)];
@@ -480,13 +519,8 @@ public class TikTokService {
             };
 
             logger.info("{} Evento → {} en fila {} (entrada derecha)", emoji, zombie, zombieRowLetter);
-            ActionResult result = gameController.onTeamBAction(zombie, 1, String.valueOf(zombieRow), "likes_event");
-
-            if (result.success()) {
-                logger.info("✅ {}", result.message());
-            } else {
-                logger.warn("⚠️ {}", result.message());
-            }
+            gameController.onTeamBAction(zombie, 1, String.valueOf(zombieRow), "likes_event", CommandSource.LIKES)
+                    .whenComplete(TikTokService::logResult);
         }
 
         logger.info("═══════════════════════════════════════════");
@@ -499,6 +533,7 @@ public class TikTokService {
     public void stop() {
         running = false;
         flushLikes();
+        chatVotes.shutdown();
         if (client != null) {
             client.disconnect();
         }
@@ -509,6 +544,10 @@ public class TikTokService {
         return running;
     }
 
+    public String getVoteStats() {
+        return chatVotes.getStats();
+    }
+
     public TeamManager getTeamManager() {
         return teamManager;
     }
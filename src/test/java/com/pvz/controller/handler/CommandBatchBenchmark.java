@@ -0,0 +1,167 @@
+package com.pvz.controller.handler;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.pvz.controller.memory.TrainerExecutor;
+import com.pvz.controller.model.GameCommand;
+import com.pvz.controller.server.JobTable;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Una ráfaga de {@code comandos} como un POST /commands contra la misma ráfaga como
+ * POST /command sueltos (de a uno y todos a la vez), con los handlers reales sobre un
+ * HttpServer del JDK en un puerto libre y un HttpClient con keep-alive. El lote se
+ * verifica por índice: sus líneas llegan en el orden en que terminan los comandos.
+ *
+ * Sin juego abierto cada comando termina en "No se pudo conectar", el mismo trabajo del
+ * actuador por comando en todos los casos (se usa "info", que no se agrupa). Por eso se
+ * mide también el ejecutor solo: lo que sobra es el costo HTTP que el lote se ahorra.
+ * Por defecto ráfagas de 100 comandos, 50 ráfagas por caso.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pvz.controller.handler.CommandBatchBenchmark -Dexec.args="100 50"
+ */
+public final class CommandBatchBenchmark {
+
+    private static final String COMMAND = "{\"command\":\"info\",\"user\":\"bench\"}";
+
+    private interface Burst {
+        /**
+         * @return bytes en el cable (cuerpos de petición y respuesta)
+         */
+        long run(int commands) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int bursts = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        // Cada comando fallido loguea el intento de conexión; acá solo interesan los tiempos
+        if (LoggerFactory.getLogger("com.pvz.controller") instanceof Logger logger) {
+            logger.setLevel(Level.OFF);
+        }
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        server.createContext("/command", new CommandRequestHandler(new JobTable(1024, 60_000)));
+        server.createContext("/commands", new BatchCommandRequestHandler());
+        server.setExecutor(executor);
+        server.start();
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        try {
+            GameCommand command = new Gson().fromJson(COMMAND, GameCommand.class);
+            Burst direct = n -> {
+                for (int i = 0; i < n; i++) TrainerExecutor.execute(command);
+                return 0;
+            };
+            Burst sequential = n -> {
+                long bytes = 0;
+                for (int i = 0; i < n; i++) bytes += single(http, base);
+                return bytes;
+            };
+            Burst concurrent = n -> {
+                List<CompletableFuture<Long>> sent = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    sent.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return single(http, base);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }, executor));
+                }
+                long bytes = 0;
+                for (CompletableFuture<Long> future : sent) bytes += future.join();
+                return bytes;
+            };
+            Burst batch = n -> batch(http, base, n);
+
+            // Calentamiento
+            for (Burst burst : new Burst[]{direct, sequential, concurrent, batch}) {
+                measure(burst, commands, Math.max(1, bursts / 5));
+            }
+
+            System.out.printf("Ráfagas de %d comandos, %d por caso%n", commands, bursts);
+            report("Ejecutor solo (sin HTTP)", direct, commands, bursts, 0);
+            report(commands + " x POST /command de a uno", sequential, commands, bursts, commands);
+            report(commands + " x POST /command a la vez", concurrent, commands, bursts, commands);
+            report("1 x POST /commands (NDJSON)", batch, commands, bursts, 1);
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+            TrainerExecutor.shutdown();
+        }
+    }
+
+    private static long single(HttpClient http, String base) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(post(base + "/command", COMMAND), HttpResponse.BodyHandlers.ofString());
+        if (!response.body().contains("\"success\"")) {
+            throw new IllegalStateException("/command respondió " + response.statusCode() + ": " + response.body());
+        }
+        return COMMAND.length() + response.body().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long batch(HttpClient http, String base, int commands) throws IOException, InterruptedException {
+        String body = (COMMAND + "\n").repeat(commands);
+        HttpResponse<String> response = http.send(post(base + "/commands", body), HttpResponse.BodyHandlers.ofString());
+        String[] lines = response.body().split("\n");
+        if (response.statusCode() != 200 || lines.length != commands) {
+            throw new IllegalStateException("/commands respondió " + response.statusCode() + " con "
+                    + lines.length + " líneas para " + commands + " comandos");
+        }
+        // Llegan en orden de terminación: cada índice una vez
+        boolean[] seen = new boolean[commands];
+        for (String line : lines) {
+            int index = JsonParser.parseString(line).getAsJsonObject().get("index").getAsInt();
+            if (seen[index]) {
+                throw new IllegalStateException("Índice " + index + " repetido: " + line);
+            }
+            seen[index] = true;
+        }
+        return body.length() + response.body().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static HttpRequest post(String uri, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void report(String name, Burst burst, int commands, int bursts, int requests) throws Exception {
+        long[] result = measure(burst, commands, bursts);
+        double msPerBurst = result[0] / 1e6 / bursts;
+        System.out.printf("  %-32s %8.2f ms/ráfaga | %,9.0f comandos/s | %3d peticiones | %,7d bytes/ráfaga%n",
+                name, msPerBurst, commands * 1000 / msPerBurst, requests, result[1] / bursts);
+    }
+
+    /**
+     * @return {nanos, bytes}
+     */
+    private static long[] measure(Burst burst, int commands, int bursts) throws Exception {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < bursts; i++) {
+            bytes += burst.run(commands);
+        }
+        return new long[]{System.nanoTime() - start, bytes};
+    }
+}
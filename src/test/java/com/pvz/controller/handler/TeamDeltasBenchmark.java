@@ -0,0 +1,207 @@
+package com.pvz.controller.handler;
+
+import com.google.gson.stream.JsonWriter;
+import com.pvz.controller.tiktok.PlayerIndex;
+import com.pvz.controller.tiktok.RosterDeltaLog;
+import com.pvz.controller.tiktok.RosterDeltaLog.Delta;
+import com.pvz.controller.tiktok.TeamManager.Team;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Bytes por actualización de /teams/deltas frente a mandar la foto completa, con el mismo
+ * serializador que el handler.
+ *
+ * Registra {@code jugadores} viewers y simula {@code ticks} rondas de {@code cambios}
+ * (sobre todo acciones de los más activos, algunos joins y cambios de equipo). Un overlay
+ * pide los deltas en cada ronda y otro, atrasado, cada 100 rondas; los dos reconstruyen
+ * el roster con lo recibido y se comparan con el del servidor. Por defecto 50k jugadores,
+ * 1000 rondas de 20 cambios.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pvz.controller.handler.TeamDeltasBenchmark -Dexec.args="50000 1000 20"
+ */
+public final class TeamDeltasBenchmark {
+
+    private static final int RING = 65536;
+    private static final int FULL_EVERY = 10;
+    private static final int LAGGING_EVERY = 100;
+
+    /**
+     * Roster del lado del overlay, armado solo con lo que llega por HTTP
+     */
+    private static final class Client {
+        final Map<String, Team> teams = new HashMap<>();
+        final Map<String, Integer> actions = new HashMap<>();
+        long seq;
+        long requests;
+        long bytes;
+        long nanos;
+
+        void apply(RosterDeltaLog.Batch batch) {
+            for (Delta delta : batch.deltas()) {
+                switch (delta.kind()) {
+                    case JOIN, SWITCH -> {
+                        teams.put(delta.uniqueId(), delta.team());
+                        actions.put(delta.uniqueId(), delta.value());
+                    }
+                    case ACTION -> actions.merge(delta.uniqueId(), delta.value(), Integer::sum);
+                    case RESET -> {
+                        teams.clear();
+                        actions.clear();
+                    }
+                }
+            }
+            seq = batch.seq();
+        }
+
+        void load(PlayerIndex.View view, long version) {
+            teams.clear();
+            actions.clear();
+            for (int id = 0; id < view.size(); id++) {
+                teams.put(view.uniqueId(id), view.team(id));
+                actions.put(view.uniqueId(id), view.actions(id));
+            }
+            seq = version;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int changes = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        // Calentamiento a escala chica
+        run(Math.min(players, 5_000), Math.min(ticks, 200), changes, false);
+        run(players, ticks, changes, true);
+    }
+
+    private static void run(int players, int ticks, int changes, boolean report) throws IOException {
+        Random random = new Random(42);
+        PlayerIndex index = new PlayerIndex();
+        RosterDeltaLog log = new RosterDeltaLog(RING);
+        long now = System.currentTimeMillis();
+        int registered = 0;
+
+        for (; registered < players; registered++) {
+            register(index, log, "viewer" + registered, registered % 2 == 0 ? Team.PLANTAS : Team.ZOMBIES, now);
+        }
+
+        Client live = new Client();
+        Client lagging = new Client();
+        live.load(index.view(), log.head());
+        lagging.load(index.view(), log.head());
+
+        long fullBytes = 0;
+        long fullNanos = 0;
+        int fullRequests = 0;
+        long updates = 0;
+
+        for (int tick = 1; tick <= ticks; tick++) {
+            for (int c = 0; c < changes; c++, updates++) {
+                int roll = random.nextInt(100);
+                if (roll < 4) {
+                    register(index, log, "viewer" + registered++, random.nextBoolean() ? Team.PLANTAS : Team.ZOMBIES, now);
+                } else if (roll < 5) {
+                    int id = random.nextInt(index.size());
+                    Team other = index.team(id) == Team.PLANTAS ? Team.ZOMBIES : Team.PLANTAS;
+                    String uniqueId = index.uniqueId(id);
+                    int actions = index.actions(id);
+                    index.register(uniqueId, other, index.nickname(id), now, actions);
+                    log.appendRegister(true, uniqueId, index.nickname(id), other, actions);
+                } else {
+                    // El 80% de las acciones las hace el 1% más activo
+                    int id = random.nextInt(100) < 80 ? random.nextInt(Math.max(1, players / 100)) : random.nextInt(index.size());
+                    index.incrementActions(id);
+                    log.appendAction(index.uniqueId(id));
+                }
+            }
+
+            poll(live, log);
+            if (tick % LAGGING_EVERY == 0) {
+                poll(lagging, log);
+            }
+            if (tick % FULL_EVERY == 0) {
+                long start = System.nanoTime();
+                byte[] body = serialize(json -> TeamDeltasRequestHandler.writeFull(json, log.head(), index.view()));
+                fullNanos += System.nanoTime() - start;
+                fullBytes += body.length;
+                fullRequests++;
+            }
+        }
+
+        PlayerIndex.View view = index.view();
+        verify(live, view, "al día");
+        verify(lagging, view, "atrasado");
+        if (!report) return;
+
+        long avgFull = fullBytes / fullRequests;
+        System.out.printf("Roster: %,d jugadores al final, %,d rondas de %d cambios (%,d cambios)%n",
+                view.size(), ticks, changes, updates);
+        System.out.printf("  Foto completa:     %,10d bytes/petición | %,8.0f µs%n",
+                avgFull, fullNanos / 1e3 / fullRequests);
+        report("Deltas cada ronda:", live, updates, avgFull);
+        report("Deltas cada " + LAGGING_EVERY + ":   ", lagging, updates, avgFull);
+    }
+
+    private static void report(String name, Client client, long updates, long avgFull) {
+        long perRequest = client.bytes / client.requests;
+        System.out.printf("  %s %,10d bytes/petición | %,8.0f µs | %.1f bytes/cambio | %.0fx menos que la foto%n",
+                name, perRequest, client.nanos / 1e3 / client.requests,
+                (double) client.bytes / updates, (double) avgFull / perRequest);
+    }
+
+    private static void register(PlayerIndex index, RosterDeltaLog log, String uniqueId, Team team, long now) {
+        index.register(uniqueId, team, "Nick " + uniqueId, now, 0);
+        log.appendRegister(false, uniqueId, "Nick " + uniqueId, team, 0);
+    }
+
+    private static void poll(Client client, RosterDeltaLog log) throws IOException {
+        long since = client.seq;
+        long start = System.nanoTime();
+        RosterDeltaLog.Batch batch = log.since(since);
+        if (batch == null) {
+            throw new IllegalStateException("El cliente se atrasó más que el ring (" + RING + ")");
+        }
+        byte[] body = serialize(json -> TeamDeltasRequestHandler.writeDeltas(json, since, batch));
+        client.nanos += System.nanoTime() - start;
+        client.bytes += body.length;
+        client.requests++;
+        client.apply(batch);
+    }
+
+    private interface Body {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private static byte[] serialize(Body body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(writer)) {
+            json.beginObject();
+            json.name("epoch").value("bench");
+            body.write(json);
+            json.endObject();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void verify(Client client, PlayerIndex.View view, String name) {
+        if (client.teams.size() != view.size()) {
+            throw new IllegalStateException("Overlay " + name + ": " + client.teams.size() + " jugadores, servidor " + view.size());
+        }
+        for (int id = 0; id < view.size(); id++) {
+            String uniqueId = view.uniqueId(id);
+            if (client.teams.get(uniqueId) != view.team(id) || client.actions.get(uniqueId) != view.actions(id)) {
+                throw new IllegalStateException("Overlay " + name + " desincronizado en " + uniqueId);
+            }
+        }
+    }
+}
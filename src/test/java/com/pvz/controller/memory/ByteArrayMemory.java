@@ -0,0 +1,259 @@
+package com.pvz.controller.memory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ProcessMemory} sobre un byte[] que empieza en {@code baseAddress}, para probar el
+ * protocolo con el juego sin un proceso real. Little-endian como x86.
+ *
+ * Cuenta cada llamada que en el backend real sería una syscall (lecturas, escrituras,
+ * reservas e hilos remotos) y guarda el registro de escrituras en orden. Los hooks
+ * simulan al juego: {@link WriteListener} reacciona a lo que escribe el controlador y
+ * {@link RemoteThread} hace de hilo remoto.
+ */
+public class ByteArrayMemory implements ProcessMemory {
+
+    /**
+     * Se llama después de cada escritura, fuera del lock
+     */
+    @FunctionalInterface
+    public interface WriteListener {
+        void written(long address, int length);
+    }
+
+    /**
+     * Cuerpo de un hilo remoto; retorna false para simular un fallo o timeout
+     */
+    @FunctionalInterface
+    public interface RemoteThread {
+        boolean run(long codeAddress, long paramAddress);
+    }
+
+    public record Write(long address, int length) {}
+
+    private final long baseAddress;
+    private final byte[] bytes;
+    private final List<Write> writes = new ArrayList<>();
+    private long nextAllocation;
+
+    private volatile WriteListener writeListener = (address, length) -> {};
+    private volatile RemoteThread remoteThread = (code, param) -> true;
+
+    private int readCalls;
+    private int writeCalls;
+    private long bytesWritten;
+    private int allocations;
+    private int frees;
+    private int remoteThreads;
+    private boolean closed;
+
+    /**
+     * @param allocationAddress donde empieza a repartir {@link #allocateMemory} (hacia arriba)
+     */
+    public ByteArrayMemory(long baseAddress, int size, long allocationAddress) {
+        this.baseAddress = baseAddress;
+        this.bytes = new byte[size];
+        this.nextAllocation = allocationAddress;
+    }
+
+    public ByteArrayMemory(long baseAddress, int size) {
+        this(baseAddress, size, baseAddress + size / 2);
+    }
+
+    public void onWrite(WriteListener listener) {
+        this.writeListener = listener;
+    }
+
+    public void onRemoteThread(RemoteThread thread) {
+        this.remoteThread = thread;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LECTURA / ESCRITURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public synchronized int readInt(long address) {
+        readCalls++;
+        int offset = offset(address, 4);
+        if (offset < 0) return 0;
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    @Override
+    public synchronized byte[] readBytes(long address, int length) {
+        readCalls++;
+        int offset = offset(address, length);
+        if (offset < 0) return null;
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        return copy;
+    }
+
+    @Override
+    public synchronized boolean readBlock(long address, ByteBuffer target) {
+        readCalls++;
+        int offset = offset(address, target.remaining());
+        if (offset < 0) return false;
+        target.duplicate().put(bytes, offset, target.remaining());
+        return true;
+    }
+
+    @Override
+    public boolean writeInt(long address, int value) {
+        return writeBytes(address, new byte[]{
+                (byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)});
+    }
+
+    @Override
+    public boolean writeBytes(long address, byte[] data) {
+        synchronized (this) {
+            writeCalls++;
+            int offset = offset(address, data.length);
+            if (offset < 0) return false;
+            System.arraycopy(data, 0, bytes, offset, data.length);
+            writes.add(new Write(address, data.length));
+            bytesWritten += data.length;
+        }
+        writeListener.written(address, data.length);
+        return true;
+    }
+
+    @Override
+    public boolean writeBlock(long address, ByteBuffer source) {
+        byte[] data = new byte[source.remaining()];
+        source.duplicate().get(data);
+        return writeBytes(address, data);
+    }
+
+    private int offset(long address, int length) {
+        long offset = address - baseAddress;
+        if (offset < 0 || length < 0 || offset + length > bytes.length) return -1;
+        return (int) offset;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // EJECUCIÓN REMOTA
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public synchronized long allocateMemory(int size, boolean executable) {
+        if (offset(nextAllocation, size) < 0) return 0;
+        allocations++;
+        long address = nextAllocation;
+        nextAllocation += size;
+        return address;
+    }
+
+    @Override
+    public synchronized boolean freeMemory(long address) {
+        frees++;
+        return true;
+    }
+
+    @Override
+    public boolean executeRemoteThread(long codeAddress, long paramAddress, int timeout) {
+        synchronized (this) {
+            remoteThreads++;
+        }
+        return remoteThread.run(codeAddress, paramAddress);
+    }
+
+    @Override
+    public long startRemoteThread(long codeAddress, long paramAddress) {
+        synchronized (this) {
+            remoteThreads++;
+        }
+        return codeAddress;
+    }
+
+    @Override
+    public boolean joinRemoteThread(long thread, int timeout) {
+        return true;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PROCESO
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public int getProcessId() {
+        return 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+    }
+
+    @Override
+    public synchronized boolean isValid() {
+        return !closed;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // CONTADORES
+    // ═══════════════════════════════════════════════════════════════════
+
+    public synchronized int readCalls() { return readCalls; }
+    public synchronized int writeCalls() { return writeCalls; }
+    public synchronized long bytesWritten() { return bytesWritten; }
+    public synchronized int allocations() { return allocations; }
+    public synchronized int frees() { return frees; }
+    public synchronized int remoteThreads() { return remoteThreads; }
+
+    /**
+     * Escrituras desde el último {@link #resetCounters()}, en orden
+     */
+    public synchronized List<Write> writes() {
+        return List.copyOf(writes);
+    }
+
+    public synchronized void resetCounters() {
+        writes.clear();
+        readCalls = 0;
+        writeCalls = 0;
+        bytesWritten = 0;
+        allocations = 0;
+        frees = 0;
+        remoteThreads = 0;
+    }
+
+    /**
+     * Byte crudo, sin contar como lectura
+     */
+    public synchronized int peekByte(long address) {
+        return bytes[offset(address, 1)] & 0xFF;
+    }
+
+    /**
+     * Entero crudo, sin contar como lectura
+     */
+    public synchronized int peekInt(long address) {
+        int offset = offset(address, 4);
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Escribe como lo haría el juego: sin contar ni avisar al listener
+     */
+    public synchronized void poke(long address, int value) {
+        int offset = offset(address, 4);
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+
+    public synchronized void pokeByte(long address, int value) {
+        bytes[offset(address, 1)] = (byte) value;
+    }
+}
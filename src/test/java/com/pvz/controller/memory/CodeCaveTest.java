@@ -0,0 +1,96 @@
+package com.pvz.controller.memory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeCaveTest {
+
+    private static final long BASE = 0x400000;
+    private static final long CAVE = 0x401000;
+    private static final int SLOT = CodeCave.SLOT_SIZE;
+
+    private ByteArrayMemory memory;
+    private CodeCave cave;
+
+    @BeforeEach
+    void setUp() {
+        memory = new ByteArrayMemory(BASE, 0x4000, CAVE);
+        cave = CodeCave.allocate(memory, 8 * SLOT - 10);
+    }
+
+    @Test
+    void allocateRoundsToSlotsWithOneRemoteAllocation() {
+        assertNotNull(cave);
+        assertEquals(CAVE, cave.getBaseAddress());
+        assertEquals(8 * SLOT, cave.getSize());
+        assertEquals(1, memory.allocations());
+    }
+
+    @Test
+    void allocateReturnsNullWhenTheProcessRefuses() {
+        assertNull(CodeCave.allocate(memory, 0x10000));
+    }
+
+    @Test
+    void allocHandsOutContiguousSlotsWithoutTouchingTheProcess() {
+        memory.resetCounters();
+
+        assertEquals(CAVE, cave.alloc(1));
+        assertEquals(CAVE + SLOT, cave.alloc(SLOT + 1));
+        assertEquals(CAVE + 3 * SLOT, cave.alloc(0));
+
+        assertEquals(0, memory.allocations());
+        assertTrue(memory.writes().isEmpty());
+    }
+
+    @Test
+    void freedBlocksAreReusedFirstFit() {
+        long a = cave.alloc(SLOT);
+        long b = cave.alloc(2 * SLOT);
+        long c = cave.alloc(SLOT);
+
+        cave.free(b);
+        // Entra en el hueco de b aunque haya lugar al final
+        assertEquals(b, cave.alloc(SLOT));
+        assertEquals(b + SLOT, cave.alloc(SLOT));
+
+        cave.free(a);
+        // Dos slots no entran en el hueco de a: van después de c
+        assertEquals(c + SLOT, cave.alloc(2 * SLOT));
+        assertEquals(a, cave.alloc(SLOT));
+    }
+
+    @Test
+    void allocReturnsZeroWhenFull() {
+        assertEquals(CAVE, cave.alloc(8 * SLOT));
+        assertEquals(0, cave.alloc(1));
+
+        cave.free(CAVE);
+        assertEquals(0, cave.alloc(9 * SLOT));
+        assertEquals(CAVE, cave.alloc(8 * SLOT));
+    }
+
+    @Test
+    void freeIgnoresUnknownBlocks() {
+        long a = cave.alloc(2 * SLOT);
+
+        cave.free(a + SLOT);
+        cave.free(CAVE - SLOT);
+        cave.free(CAVE + 100 * SLOT);
+
+        // El bloque sigue ocupado
+        assertEquals(a + 2 * SLOT, cave.alloc(SLOT));
+    }
+
+    @Test
+    void releaseFreesTheRegionOnce() {
+        cave.release();
+        cave.release();
+
+        assertTrue(cave.isReleased());
+        assertEquals(1, memory.frees());
+        assertEquals(0, cave.alloc(SLOT));
+    }
+}
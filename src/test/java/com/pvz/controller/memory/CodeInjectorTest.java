@@ -0,0 +1,148 @@
+package com.pvz.controller.memory;
+
+import com.pvz.controller.memory.CodeInjector.Placement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuántas operaciones remotas cuesta cada inyección: el código de las rutinas se escribe
+ * una vez por conexión y cada acción solo reescribe sus parámetros.
+ */
+class CodeInjectorTest {
+
+    private static final long BASE = 0x400000;
+    private static final int BLOCK_MAIN_LOOP = 0x401000;
+    private static final GameAddresses ADDRESSES =
+            new GameAddresses(0x402000, 0x0042DCE0, 0x004105A0, BLOCK_MAIN_LOOP);
+
+    private ByteArrayMemory memory;
+    private CodeInjector injector;
+
+    @BeforeEach
+    void setUp() {
+        memory = new ByteArrayMemory(BASE, 0x10000, BASE + 0x8000);
+        // El juego se estaciona en cuanto ve el parche
+        FrameBarrier barrier = new FrameBarrier(memory, BLOCK_MAIN_LOOP,
+                () -> memory.peekByte(BLOCK_MAIN_LOOP) == 0xFE, 1000);
+        injector = new CodeInjector(memory, ADDRESSES, barrier);
+    }
+
+    @Test
+    void firstInjectionInstallsTheRoutinesOnce() {
+        assertTrue(injector.spawnZombie(2, 3, 8));
+
+        assertEquals(1, memory.allocations());
+        assertEquals(1, memory.remoteThreads());
+        // Rutina de zombies, rutina de plantas, parámetros, parche y liberación
+        assertEquals(5, memory.writeCalls());
+    }
+
+    @Test
+    void laterInjectionsOnlyRewriteParameters() {
+        assertTrue(injector.spawnZombie(2, 3, 8));
+        memory.resetCounters();
+
+        assertTrue(injector.spawnZombie(4, 1, 9));
+        List<ByteArrayMemory.Write> writes = memory.writes();
+
+        assertEquals(0, memory.allocations());
+        assertEquals(1, memory.remoteThreads());
+        assertEquals(3, writes.size());
+        assertEquals(12, writes.get(0).length());
+        assertEquals(new ByteArrayMemory.Write(BLOCK_MAIN_LOOP, 1), writes.get(1));
+        assertEquals(new ByteArrayMemory.Write(BLOCK_MAIN_LOOP, 1), writes.get(2));
+        assertEquals(0xC8, memory.peekByte(BLOCK_MAIN_LOOP));
+
+        // [p+0]=row, [p+4]=zombieType, [p+8]=col
+        long params = writes.get(0).address();
+        assertEquals(1, memory.peekInt(params));
+        assertEquals(4, memory.peekInt(params + 4));
+        assertEquals(9, memory.peekInt(params + 8));
+
+        memory.resetCounters();
+        assertTrue(injector.plantPlant(5, 2, 4));
+        assertEquals(3, memory.writeCalls());
+        assertEquals(16, memory.writes().get(0).length());
+        assertEquals(1, memory.remoteThreads());
+    }
+
+    @Test
+    void failedRemoteThreadStillReleasesTheMainLoop() {
+        memory.onRemoteThread((code, param) -> false);
+
+        assertFalse(injector.spawnZombie(2, 3, 8));
+        assertEquals(0xC8, memory.peekByte(BLOCK_MAIN_LOOP));
+    }
+
+    @Test
+    void batchCostsOneWriteAndOneThreadPerChunk() {
+        assertTrue(injector.spawnZombie(2, 3, 8));
+
+        // La rutina "crea" todas las entidades salvo la tercera de cada chunk
+        List<Integer> chunkSizes = new ArrayList<>(List.of(CodeInjector.MAX_BATCH_ENTRIES, 4));
+        memory.onRemoteThread((code, param) -> {
+            int entries = chunkSizes.remove(0);
+            long results = code + ((3 + entries * 45 + 3) & ~3);
+            for (int i = 0; i < entries; i++) {
+                memory.poke(results + i * 4L, i == 2 ? 0 : 0x5000 + i);
+            }
+            return true;
+        });
+        memory.resetCounters();
+
+        List<Placement> zombies = new ArrayList<>();
+        for (int i = 0; i < CodeInjector.MAX_BATCH_ENTRIES + 4; i++) {
+            zombies.add(new Placement(2, i % 6, 9));
+        }
+        boolean[] results = injector.spawnZombies(zombies);
+
+        assertEquals(2, memory.remoteThreads());
+        // Por chunk: código + resultados en cero, parche y liberación
+        assertEquals(6, memory.writeCalls());
+        assertEquals(2, memory.readCalls());
+        assertEquals(0, memory.allocations());
+        for (int i = 0; i < results.length; i++) {
+            int indexInChunk = i % CodeInjector.MAX_BATCH_ENTRIES;
+            assertEquals(indexInChunk != 2, results[i], "entrada " + i);
+        }
+    }
+
+    @Test
+    void testInjectionReturnsItsSlotToTheCave() {
+        assertTrue(injector.testInjection());
+        assertTrue(injector.testInjection());
+        assertEquals(1, memory.allocations());
+    }
+
+    @Test
+    void releaseFreesTheCaveOnce() {
+        assertTrue(injector.spawnZombie(2, 3, 8));
+
+        injector.release();
+        injector.release();
+
+        assertEquals(1, memory.frees());
+    }
+
+    @Test
+    void backendsWithoutRemoteExecutionFailWithoutWriting() {
+        ByteArrayMemory readOnly = new ByteArrayMemory(BASE, 0x10000) {
+            @Override
+            public boolean supportsRemoteExecution() {
+                return false;
+            }
+        };
+        CodeInjector unsupported = new CodeInjector(readOnly, ADDRESSES, null);
+
+        assertFalse(unsupported.spawnZombie(2, 3, 8));
+        assertArrayEquals(new boolean[2], unsupported.plantPlants(List.of(
+                new Placement(0, 0, 1), new Placement(0, 1, 1))));
+        assertEquals(0, readOnly.allocations());
+        assertEquals(0, readOnly.writeCalls());
+    }
+}
@@ -0,0 +1,164 @@
+package com.pvz.controller.memory;
+
+import com.pvz.controller.memory.CodeInjector.Placement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandRingTest {
+
+    private static final long BASE = 0x10000;
+
+    private ByteArrayMemory memory;
+    private CommandRing ring;
+
+    @BeforeEach
+    void setUp() {
+        memory = new ByteArrayMemory(BASE, 4096);
+        ring = new CommandRing(memory, BASE, 4);
+        assertTrue(ring.initialize());
+        memory.resetCounters();
+    }
+
+    @Test
+    void initializeWritesHeaderInOneWrite() {
+        memory.poke(BASE + CommandRing.HEAD_OFFSET, 99);
+        memory.resetCounters();
+
+        assertTrue(ring.initialize());
+
+        assertEquals(List.of(new ByteArrayMemory.Write(BASE, CommandRing.HEADER_SIZE)), memory.writes());
+        assertEquals(0, memory.peekInt(ring.headAddress()));
+        assertEquals(0, memory.peekInt(ring.ackAddress()));
+        assertEquals(0, memory.peekInt(ring.stopAddress()));
+        assertEquals(4, memory.peekInt(BASE + CommandRing.CAPACITY_OFFSET));
+    }
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandRing(memory, BASE, 6));
+        assertThrows(IllegalArgumentException.class, () -> new CommandRing(memory, BASE, 0));
+    }
+
+    @Test
+    void regionSizeCoversHeaderRecordsAndResults() {
+        assertEquals(16 + 32 * 16 + 32 * 4, CommandRing.regionSize(32));
+        assertEquals(ring.recordsAddress() + 4 * CommandRing.RECORD_SIZE, ring.resultsAddress());
+    }
+
+    @Test
+    void publishEncodesRecordsLittleEndianAndWritesHeadLast() {
+        Integer first = ring.publish(CommandRing.OP_ZOMBIE, List.of(
+                new Placement(3, 1, 5),
+                new Placement(-1, 2, 0x01020304)));
+
+        assertEquals(0, first);
+        long record = ring.recordsAddress();
+        assertEquals(CommandRing.OP_ZOMBIE, memory.peekInt(record));
+        assertEquals(3, memory.peekInt(record + 4));
+        assertEquals(1, memory.peekInt(record + 8));
+        assertEquals(5, memory.peekInt(record + 12));
+        assertEquals(-1, memory.peekInt(record + 16 + 4));
+        assertEquals(0x04, memory.peekByte(record + 16 + 12));
+        assertEquals(0x01, memory.peekByte(record + 16 + 15));
+
+        // Un bloque para los registros y head al final
+        assertEquals(List.of(
+                new ByteArrayMemory.Write(record, 2 * CommandRing.RECORD_SIZE),
+                new ByteArrayMemory.Write(ring.headAddress(), 4)), memory.writes());
+        assertEquals(2, memory.peekInt(ring.headAddress()));
+    }
+
+    @Test
+    void publishSplitsTheWriteWhenTheRingWrapsAround() {
+        assertEquals(0, ring.publish(CommandRing.OP_PLANT, placements(3)));
+        memory.poke(ring.ackAddress(), 3);
+        memory.resetCounters();
+
+        Integer first = ring.publish(CommandRing.OP_ZOMBIE, placements(3));
+
+        assertEquals(3, first);
+        long records = ring.recordsAddress();
+        assertEquals(List.of(
+                new ByteArrayMemory.Write(records + 3 * CommandRing.RECORD_SIZE, CommandRing.RECORD_SIZE),
+                new ByteArrayMemory.Write(records, 2 * CommandRing.RECORD_SIZE),
+                new ByteArrayMemory.Write(ring.headAddress(), 4)), memory.writes());
+        assertEquals(6, memory.peekInt(ring.headAddress()));
+        // Registro de la secuencia 4 (índice 0) y 5 (índice 1), del lote nuevo
+        assertEquals(CommandRing.OP_ZOMBIE, memory.peekInt(records));
+        assertEquals(1, memory.peekInt(records + 4));
+        assertEquals(2, memory.peekInt(records + CommandRing.RECORD_SIZE + 4));
+        // El índice 2 sigue siendo del lote anterior
+        assertEquals(CommandRing.OP_PLANT, memory.peekInt(records + 2 * CommandRing.RECORD_SIZE));
+    }
+
+    @Test
+    void publishReturnsNullWithoutWritingWhenTheRingIsFull() {
+        assertEquals(0, ring.publish(CommandRing.OP_ZOMBIE, placements(3)));
+        memory.resetCounters();
+
+        assertNull(ring.publish(CommandRing.OP_ZOMBIE, placements(2)));
+        assertTrue(memory.writes().isEmpty());
+        assertEquals(3, memory.peekInt(ring.headAddress()));
+
+        // Con el ack al día vuelve a haber lugar
+        memory.poke(ring.ackAddress(), 3);
+        assertEquals(3, ring.publish(CommandRing.OP_ZOMBIE, placements(2)));
+        assertNull(ring.publish(CommandRing.OP_ZOMBIE, placements(5)));
+        assertNull(ring.publish(CommandRing.OP_ZOMBIE, List.of()));
+    }
+
+    @Test
+    void awaitAckComparesSequencesAcrossIntOverflow() {
+        int beforeWrap = Integer.MAX_VALUE - 1;
+        int afterWrap = Integer.MAX_VALUE + 3; // negativo
+
+        memory.poke(ring.ackAddress(), afterWrap);
+        assertTrue(ring.awaitAck(beforeWrap, 0));
+        assertTrue(ring.awaitAck(afterWrap, 0));
+
+        memory.poke(ring.ackAddress(), beforeWrap);
+        assertFalse(ring.awaitAck(afterWrap, 5));
+    }
+
+    @Test
+    void awaitAckReturnsOnceTheRoutineCatchesUp() throws InterruptedException {
+        Thread routine = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            memory.poke(ring.ackAddress(), 2);
+        });
+        routine.start();
+
+        assertTrue(ring.awaitAck(2, 2000));
+        routine.join();
+    }
+
+    @Test
+    void readResultsMapsSequencesToSlotsAcrossTheWrap() {
+        long results = ring.resultsAddress();
+        memory.poke(results, 0x1000);        // índice 0
+        memory.poke(results + 4, 0);         // índice 1: falló
+        memory.poke(results + 8, 0x2000);    // índice 2
+        memory.poke(results + 12, 0x01000000); // índice 3: solo el byte alto
+
+        // -2 y -1 caen en los índices 2 y 3; 0 y 1 en los índices 0 y 1
+        assertArrayEquals(new boolean[]{true, true, true, false}, ring.readResults(-2, 4));
+        assertArrayEquals(new boolean[]{true, true}, ring.readResults(Integer.MIN_VALUE + 2, 2));
+        assertEquals(2, memory.readCalls());
+    }
+
+    private static List<Placement> placements(int count) {
+        Placement[] placements = new Placement[count];
+        for (int i = 0; i < count; i++) {
+            placements[i] = new Placement(i, i, i + 1);
+        }
+        return List.of(placements);
+    }
+}
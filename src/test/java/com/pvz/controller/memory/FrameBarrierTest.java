@@ -0,0 +1,154 @@
+package com.pvz.controller.memory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Handshake de la barrera contra un "juego" simulado: un hilo que corre frames sobre la
+ * memoria de prueba, se estaciona en el salto parcheado cuando ve 0xFE y publica su EIP
+ * en una celda que lee la sonda (como GameThreadProbe con el contexto del hilo).
+ */
+class FrameBarrierTest {
+
+    private static final long BASE = 0x400000;
+    private static final long BLOCK = 0x401000;
+    private static final long EIP_CELL = 0x402000;
+    private static final long FRAME_LOOP_EIP = 0x401234;
+    private static final long FRAME_MS = 5;
+
+    private ByteArrayMemory memory;
+    private Thread game;
+    private volatile boolean running = true;
+
+    @BeforeEach
+    void setUp() {
+        memory = new ByteArrayMemory(BASE, 0x4000);
+        memory.pokeByte(BLOCK, 0xC8);
+        memory.poke(EIP_CELL, (int) FRAME_LOOP_EIP);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        running = false;
+        if (game != null) game.join(1000);
+    }
+
+    private void startGame() {
+        game = new Thread(() -> {
+            while (running) {
+                // El parche se ve recién al final del frame en curso
+                sleep(FRAME_MS);
+                boolean blocked = memory.peekByte(BLOCK) == 0xFE;
+                memory.poke(EIP_CELL, (int) (blocked ? FrameBarrier.parkedInstructionAddress(BLOCK) : FRAME_LOOP_EIP));
+            }
+        }, "fake-game");
+        game.setDaemon(true);
+        game.start();
+    }
+
+    private FrameBarrier.ParkProbe eipProbe() {
+        return () -> memory.peekInt(EIP_CELL) == (int) FrameBarrier.parkedInstructionAddress(BLOCK);
+    }
+
+    @Test
+    void parkWaitsForTheGameToReachThePatchedJump() {
+        startGame();
+        FrameBarrier barrier = new FrameBarrier(memory, BLOCK, eipProbe(), 1000);
+
+        assertTrue(barrier.park());
+
+        assertEquals(FrameBarrier.State.PARKED, barrier.getState());
+        assertEquals(0xFE, memory.peekByte(BLOCK));
+        assertTrue(eipProbe().isParked());
+        assertTrue(barrier.getLastParkNanos() > 0);
+        assertEquals(List.of(new ByteArrayMemory.Write(BLOCK, 1)), memory.writes());
+    }
+
+    @Test
+    void releaseUnpatchesAndTheGameResumes() throws InterruptedException {
+        startGame();
+        FrameBarrier barrier = new FrameBarrier(memory, BLOCK, eipProbe(), 1000);
+        assertTrue(barrier.park());
+
+        barrier.release();
+
+        assertEquals(FrameBarrier.State.RELEASED, barrier.getState());
+        assertEquals(0xC8, memory.peekByte(BLOCK));
+        Thread.sleep(FRAME_MS * 4);
+        assertFalse(eipProbe().isParked());
+    }
+
+    @Test
+    void probeIsOnlyPolledAfterThePatchIsRequested() {
+        AtomicInteger polls = new AtomicInteger();
+        FrameBarrier[] barrier = new FrameBarrier[1];
+        barrier[0] = new FrameBarrier(memory, BLOCK, () -> {
+            assertEquals(0xFE, memory.peekByte(BLOCK));
+            assertEquals(FrameBarrier.State.REQUESTED, barrier[0].getState());
+            // El juego tarda unos polls en llegar al salto
+            return polls.incrementAndGet() > 40;
+        }, 1000);
+
+        assertTrue(barrier[0].park());
+        assertEquals(41, polls.get());
+    }
+
+    @Test
+    void parkTimesOutAndReleasesWhenTheGameNeverParks() {
+        // Sin hilo de juego: el EIP nunca llega al salto
+        FrameBarrier barrier = new FrameBarrier(memory, BLOCK, eipProbe(), 30);
+
+        long start = System.nanoTime();
+        assertFalse(barrier.park());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs >= 30, "esperó " + elapsedMs + " ms");
+        assertEquals(FrameBarrier.State.RELEASED, barrier.getState());
+        assertEquals(0xC8, memory.peekByte(BLOCK));
+        assertEquals(List.of(new ByteArrayMemory.Write(BLOCK, 1), new ByteArrayMemory.Write(BLOCK, 1)), memory.writes());
+    }
+
+    @Test
+    void parkFailsWithoutPollingWhenThePatchCannotBeWritten() {
+        AtomicInteger polls = new AtomicInteger();
+        long outside = BASE - 0x1000;
+        FrameBarrier barrier = new FrameBarrier(memory, outside, () -> polls.incrementAndGet() > 0, 1000);
+
+        assertFalse(barrier.park());
+
+        assertEquals(0, polls.get());
+        assertEquals(FrameBarrier.State.RELEASED, barrier.getState());
+    }
+
+    @Test
+    void withoutProbeParkFallsBackToAFixedWait() {
+        FrameBarrier barrier = new FrameBarrier(memory, BLOCK, null);
+
+        assertTrue(barrier.park());
+
+        assertEquals(FrameBarrier.State.PARKED, barrier.getState());
+        assertTrue(barrier.getLastParkNanos() >= 20_000_000L);
+        barrier.release();
+        assertEquals(0xC8, memory.peekByte(BLOCK));
+    }
+
+    @Test
+    void parkedInstructionIsTheJumpBeforeTheBlockByte() {
+        // EB FE: el byte parcheado es el operando del jmp que empieza un byte antes
+        assertEquals(0x5DD25D, FrameBarrier.parkedInstructionAddress(0x5DD25E));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
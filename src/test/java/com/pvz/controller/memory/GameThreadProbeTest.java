@@ -0,0 +1,20 @@
+package com.pvz.controller.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * La sonda real necesita un proceso WOW64; el handshake se prueba en {@link FrameBarrierTest}
+ * con una sonda simulada. Aquí solo el camino sin hilo: CodeInjector cae al park de 20 ms.
+ */
+@EnabledOnOs(OS.WINDOWS)
+class GameThreadProbeTest {
+
+    @Test
+    void openReturnsNullWhenTheProcessHasNoThreads() {
+        assertNull(GameThreadProbe.open(0x7FFFFFF0, FrameBarrier.parkedInstructionAddress(0x5DD25E)));
+    }
+}
@@ -0,0 +1,187 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Native;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link LinuxProcessMemory} contra un proceso real ({@link MemoryTarget}). Las páginas
+ * del hijo empiezan con {@code i & 0xFF}; las lecturas usan la primera mitad y las
+ * escrituras la segunda, para que el orden de los tests no importe.
+ *
+ * Se saltea si el kernel no deja leer al hijo (ptrace_scope, seccomp de contenedores).
+ */
+@EnabledOnOs(OS.LINUX)
+class LinuxProcessMemoryTest {
+
+    private static final int WRITES = MemoryTarget.PAGE / 2;
+
+    private static Process child;
+    private static PrintWriter commands;
+    private static BufferedReader replies;
+    private static long data;
+    private static long readOnly;
+    private static LinuxProcessMemory memory;
+
+    @BeforeAll
+    static void startChild() throws IOException, URISyntaxException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        // Las clases de test y JNA, estén donde estén (surefire, IDE, launcher de consola)
+        String classpath = location(MemoryTarget.class) + File.pathSeparator + location(Native.class);
+        child = new ProcessBuilder(java, "-cp", classpath, MemoryTarget.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        commands = new PrintWriter(child.getOutputStream(), true);
+        replies = new BufferedReader(new InputStreamReader(child.getInputStream()));
+
+        String[] ready = replies.readLine().split(" ");
+        data = Long.parseLong(ready[1]);
+        readOnly = Long.parseLong(ready[2]);
+
+        memory = new LinuxProcessMemory((int) child.pid());
+        assumeTrue(memory.readBytes(data, 4) != null, "process_vm_readv not permitted on the child");
+    }
+
+    @AfterAll
+    static void stopChild() throws InterruptedException {
+        if (memory != null) memory.close();
+        if (child != null) {
+            commands.close();
+            if (!child.waitFor(5, TimeUnit.SECONDS)) child.destroyForcibly();
+        }
+    }
+
+    private static String location(Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private static byte[] dump(long address, int length) throws IOException {
+        commands.println("DUMP " + address + " " + length);
+        return HexFormat.of().parseHex(replies.readLine());
+    }
+
+    private static byte[] pattern(int from, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) bytes[i] = (byte) (from + i);
+        return bytes;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LECTURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void readsIntsAndBytesLittleEndian() {
+        assertEquals(0x07060504, memory.readInt(data + 4));
+        assertArrayEquals(pattern(16, 100), memory.readBytes(data + 16, 100));
+        assertArrayEquals(pattern(0, 64), memory.readBytes(readOnly, 64));
+    }
+
+    @Test
+    void readBlockFillsADirectBufferWithoutMovingIt() {
+        ByteBuffer target = ByteBuffer.allocateDirect(300);
+        target.position(10).limit(210);
+
+        assertTrue(memory.readBlock(data + 100, target));
+
+        assertEquals(10, target.position());
+        byte[] read = new byte[200];
+        target.get(read);
+        assertArrayEquals(pattern(100, 200), read);
+        assertThrows(IllegalArgumentException.class, () -> memory.readBlock(data, ByteBuffer.allocate(8)));
+    }
+
+    @Test
+    void readRegionsGathersMoreThanOneCallWorthOfIovecs() {
+        int regions = LinuxLibC.IOV_MAX + 200;
+        long[] addresses = new long[regions];
+        int[] lengths = new int[regions];
+        ByteBuffer expected = ByteBuffer.allocate(regions * 3);
+        for (int i = 0; i < regions; i++) {
+            int offset = (i * 7) % (WRITES - 3);
+            addresses[i] = (i % 2 == 0 ? data : readOnly) + offset;
+            lengths[i] = 3;
+            expected.put(pattern(offset, 3));
+        }
+        ByteBuffer target = ByteBuffer.allocateDirect(regions * 3);
+
+        assertTrue(memory.readRegions(addresses, lengths, target));
+
+        assertEquals(0, target.position());
+        assertEquals(expected.flip(), target);
+    }
+
+    @Test
+    void readingUnmappedMemoryFails() {
+        assertNull(memory.readBytes(0x10, 4));
+        assertEquals(0, memory.readInt(0x10));
+        assertFalse(memory.readRegions(new long[]{data, 0x10}, new int[]{4, 4}, ByteBuffer.allocateDirect(8)));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // ESCRITURA
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void writesLandInTheChild() throws IOException {
+        long at = data + WRITES;
+
+        assertTrue(memory.writeInt(at, 0xCAFEBABE));
+        assertTrue(memory.writeBytes(at + 4, new byte[]{1, 2, 3}));
+        ByteBuffer block = ByteBuffer.allocateDirect(16).put(pattern(200, 16)).flip();
+        assertTrue(memory.writeBlock(at + 8, block));
+
+        assertEquals(0, block.position());
+        byte[] seen = dump(at, 24);
+        assertEquals(0xCAFEBABE, ByteBuffer.wrap(seen).order(ByteOrder.LITTLE_ENDIAN).getInt());
+        assertArrayEquals(new byte[]{1, 2, 3}, Arrays.copyOfRange(seen, 4, 7));
+        assertArrayEquals(pattern(200, 16), Arrays.copyOfRange(seen, 8, 24));
+    }
+
+    @Test
+    void writesToReadOnlyPagesFallBackToProcMem() throws IOException {
+        long at = readOnly + WRITES;
+
+        // El parche del main loop: un byte sobre una página de código
+        assertTrue(memory.writeBytes(at, new byte[]{(byte) 0xFE}));
+
+        assertArrayEquals(new byte[]{(byte) 0xFE, (byte) (WRITES + 1)}, dump(at, 2));
+        assertEquals(0xFE, memory.readBytes(at, 1)[0] & 0xFF);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PROCESO
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void reportsItsProcessAndNoRemoteExecution() {
+        assertEquals(child.pid(), memory.getProcessId());
+        assertTrue(memory.isValid());
+        assertFalse(memory.supportsRemoteExecution());
+        assertEquals(0, memory.allocateMemory(64, true));
+    }
+
+    @Test
+    void refusesProcessesThatDoNotExist() {
+        assertThrows(RuntimeException.class, () -> new LinuxProcessMemory(Integer.MAX_VALUE));
+    }
+}
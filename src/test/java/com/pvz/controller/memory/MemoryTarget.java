@@ -0,0 +1,63 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.HexFormat;
+
+/**
+ * Proceso hijo para {@link LinuxProcessMemoryTest}: mapea una página de lectura/escritura
+ * y una de solo lectura (como el código del juego), las llena con {@code i & 0xFF} y
+ * publica sus direcciones. Después responde "DUMP &lt;dirección&gt; &lt;largo&gt;" leyendo su
+ * propia memoria, para confirmar lo que escribió el padre. Termina al cerrarse stdin.
+ */
+public final class MemoryTarget {
+
+    public static final int PAGE = 4096;
+
+    private interface LibC extends Library {
+        LibC INSTANCE = Native.load("c", LibC.class);
+
+        int PROT_READ = 1;
+        int PROT_WRITE = 2;
+        int MAP_PRIVATE_ANONYMOUS = 0x22;
+
+        Pointer mmap(Pointer address, long length, int prot, int flags, int fd, long offset);
+
+        int mprotect(Pointer address, long length, int prot);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Pointer data = map();
+        Pointer readOnly = map();
+        if (LibC.INSTANCE.mprotect(readOnly, PAGE, LibC.PROT_READ) != 0) {
+            throw new IllegalStateException("mprotect failed");
+        }
+        System.out.println("READY " + Pointer.nativeValue(data) + " " + Pointer.nativeValue(readOnly));
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] parts = line.split(" ");
+            if (parts[0].equals("DUMP")) {
+                Pointer at = new Pointer(Long.parseLong(parts[1]));
+                System.out.println(HexFormat.of().formatHex(at.getByteArray(0, Integer.parseInt(parts[2]))));
+            }
+        }
+    }
+
+    private static Pointer map() {
+        Pointer page = LibC.INSTANCE.mmap(null, PAGE, LibC.PROT_READ | LibC.PROT_WRITE,
+                LibC.MAP_PRIVATE_ANONYMOUS, -1, 0);
+        if (Pointer.nativeValue(page) == -1) {
+            throw new IllegalStateException("mmap failed");
+        }
+        for (int i = 0; i < PAGE; i++) {
+            page.setByte(i, (byte) i);
+        }
+        return page;
+    }
+}
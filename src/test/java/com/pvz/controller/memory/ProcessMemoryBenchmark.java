@@ -0,0 +1,160 @@
+package com.pvz.controller.memory;
+
+import com.sun.jna.Library;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: lecturas de {@link LinuxProcessMemory} contra {@link MemoryTarget}, el proceso hijo
+ * que hace de juego en los tests (sus páginas empiezan con {@code i & 0xFF}). Cada
+ * operación paga su process_vm_readv como contra el juego real.
+ *
+ * {@code readIntBefore} es el camino de antes: un {@code Memory} y un
+ * {@code IntByReference} nuevos por llamada y la función por la interfaz Library de JNA.
+ * Con {@code -prof gc} el resto debería dar ~0 B/op (gc.alloc.rate.norm).
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main ProcessMemoryBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessMemoryBenchmark {
+
+    private static final int BLOCK = 2048;
+    private static final int REGIONS = 64;
+    private static final int REGION_SIZE = 16;
+
+    /**
+     * process_vm_readv como estaba antes del mapeo directo
+     */
+    private interface ProxyLibC extends Library {
+        ProxyLibC INSTANCE = Native.load("c", ProxyLibC.class);
+
+        long process_vm_readv(int pid, Pointer localIov, long localCount,
+                              Pointer remoteIov, long remoteCount, long flags);
+    }
+
+    private Process child;
+    private LinuxProcessMemory memory;
+    private int pid;
+    private long data;
+
+    private final ByteBuffer block = ByteBuffer.allocateDirect(BLOCK);
+    private final ByteBuffer region = ByteBuffer.allocateDirect(REGION_SIZE);
+    private final ByteBuffer gather = ByteBuffer.allocateDirect(REGIONS * REGION_SIZE);
+    private final long[] addresses = new long[REGIONS];
+    private final int[] lengths = new int[REGIONS];
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = location(MemoryTarget.class) + File.pathSeparator + location(Native.class);
+        child = new ProcessBuilder(java, "-cp", classpath, MemoryTarget.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        String[] ready = new BufferedReader(new InputStreamReader(child.getInputStream())).readLine().split(" ");
+        data = Long.parseLong(ready[1]);
+        pid = (int) child.pid();
+        memory = new LinuxProcessMemory(pid);
+
+        for (int i = 0; i < REGIONS; i++) {
+            addresses[i] = data + i * 48L;
+            lengths[i] = REGION_SIZE;
+        }
+        if (memory.readInt(data + 28) != 0x1F1E1D1C || readIntBefore() == 0) {
+            throw new IllegalStateException("No se pudo leer al hijo (ptrace_scope, seccomp?)");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        memory.close();
+        child.getOutputStream().close();
+        child.waitFor(5, TimeUnit.SECONDS);
+        child.destroy();
+    }
+
+    private static String location(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private long nextInt() {
+        int i = next;
+        next = (i + 1) & 0xFF;
+        return data + i * 4L;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // UN INT
+    // ═══════════════════════════════════════════════════════════
+
+    @Benchmark
+    public int readIntBefore() {
+        Memory buffer = new Memory(4);
+        IntByReference transferred = new IntByReference();
+        Memory local = new Memory(LinuxLibC.IOVEC_SIZE);
+        Memory remote = new Memory(LinuxLibC.IOVEC_SIZE);
+        local.setPointer(0, buffer);
+        local.setLong(LinuxLibC.IOVEC_LENGTH_OFFSET, 4);
+        remote.setLong(0, nextInt());
+        remote.setLong(LinuxLibC.IOVEC_LENGTH_OFFSET, 4);
+        transferred.setValue((int) ProxyLibC.INSTANCE.process_vm_readv(pid, local, 1, remote, 1, 0));
+        return transferred.getValue() == 4 ? buffer.getInt(0) : 0;
+    }
+
+    @Benchmark
+    public int readInt() {
+        return memory.readInt(nextInt());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // BLOQUES Y REGIONES
+    // ═══════════════════════════════════════════════════════════
+
+    @Benchmark
+    public byte readBlock() {
+        memory.readBlock(data, block);
+        return block.get(next++ & (BLOCK - 1));
+    }
+
+    @Benchmark
+    public byte separateReads() {
+        byte sum = 0;
+        for (int r = 0; r < REGIONS; r++) {
+            memory.readBlock(addresses[r], region);
+            sum += region.get(r & (REGION_SIZE - 1));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public byte readRegions() {
+        memory.readRegions(addresses, lengths, gather);
+        return gather.get(next++ & (REGIONS * REGION_SIZE - 1));
+    }
+}
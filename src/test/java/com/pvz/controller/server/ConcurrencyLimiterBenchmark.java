@@ -0,0 +1,136 @@
+package com.pvz.controller.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latencia del overlay con los comandos saturados: {@code bots} clientes mandan /command
+ * sin parar (cada uno bloquea 300 ms, como executeRemoteThread) mientras 8 viewers piden
+ * un asset de 20 KB durante {@code segundos}. Compara el servidor de antes (pool fijo de
+ * 4 hilos, sin cupos) con el de ahora (un hilo virtual por petición y cupos separados).
+ * Por defecto 40 bots y 5 segundos por caso.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pvz.controller.server.ConcurrencyLimiterBenchmark -Dexec.args="40 5"
+ */
+public final class ConcurrencyLimiterBenchmark {
+
+    private static final long COMMAND_MS = 300;
+    private static final int VIEWERS = 8;
+    private static final byte[] ASSET = new byte[20 * 1024];
+    private static final byte[] OK = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        // Calentamiento
+        run(null, Executors.newVirtualThreadPerTaskExecutor(), true, bots, 1);
+
+        System.out.printf("Overlay con %d bots saturando /command (%d ms cada uno), %d s por caso%n",
+                bots, COMMAND_MS, seconds);
+        run("Pool fijo de 4 hilos, sin cupos (antes)", Executors.newFixedThreadPool(4), false, bots, seconds);
+        run("Hilos virtuales, cupos 4 / 64 (ahora)", Executors.newVirtualThreadPerTaskExecutor(), true, bots, seconds);
+    }
+
+    private static void run(String name, ExecutorService executor, boolean limited, int bots, int seconds)
+            throws Exception {
+        ConcurrencyLimiter commands = new ConcurrencyLimiter("Comandos", 4, 10_000);
+        ConcurrencyLimiter reads = new ConcurrencyLimiter("Lecturas", 64, 2000);
+        HttpHandler command = exchange -> {
+            try {
+                Thread.sleep(COMMAND_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            send(exchange, OK);
+        };
+        HttpHandler overlay = exchange -> send(exchange, ASSET);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        server.createContext("/command", limited ? commands.wrap(command) : command);
+        server.createContext("/overlay", limited ? reads.wrap(overlay) : overlay);
+        server.setExecutor(executor);
+        server.start();
+
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+        URI commandUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/command");
+        URI assetUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/overlay/assets/index.js");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try {
+            AtomicInteger commandsServed = new AtomicInteger();
+            for (int i = 0; i < bots; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        if (get(http, commandUri).statusCode() == 200) commandsServed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            // Que los comandos ya ocupen el servidor antes de medir
+            Thread.sleep(2 * COMMAND_MS);
+
+            List<Long> latencies = new ArrayList<>();
+            List<Future<List<Long>>> viewers = new ArrayList<>();
+            for (int v = 0; v < VIEWERS; v++) {
+                viewers.add(clients.submit(() -> {
+                    List<Long> mine = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        HttpResponse<byte[]> response = get(http, assetUri);
+                        if (response.statusCode() != 200 || response.body().length != ASSET.length) {
+                            throw new IllegalStateException("Asset respondió " + response.statusCode());
+                        }
+                        mine.add(System.nanoTime() - start);
+                    }
+                    return mine;
+                }));
+            }
+            for (Future<List<Long>> viewer : viewers) {
+                latencies.addAll(viewer.get(seconds + 60L, TimeUnit.SECONDS));
+            }
+            if (name == null) return;
+
+            latencies.sort(null);
+            int n = latencies.size();
+            System.out.printf("  %-40s %,6d assets | p50 %7.1f ms | p99 %7.1f ms | máx %7.1f ms | %,d comandos%n",
+                    name, n, latencies.get(n / 2) / 1e6, latencies.get(Math.min(n - 1, n * 99 / 100)) / 1e6,
+                    latencies.get(n - 1) / 1e6, commandsServed.get());
+        } finally {
+            server.stop(0);
+            clients.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static HttpResponse<byte[]> get(HttpClient http, URI uri) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,155 @@
+package com.pvz.controller.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Misma forma que HttpCommandServer: un hilo virtual por petición, comandos que bloquean
+ * como executeRemoteThread y el overlay en un cupo aparte. Sin medir tiempos: los comandos
+ * quedan bloqueados hasta que el test los suelta. Las latencias están en
+ * {@link ConcurrencyLimiterBenchmark}.
+ */
+class ConcurrencyLimiterTest {
+
+    private static final byte[] ASSET = new byte[20 * 1024];
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ExecutorService clients;
+    private HttpClient http;
+    private CountDownLatch unblock;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+        unblock = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        if (server != null) server.stop(0);
+        clients.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void start(ConcurrencyLimiter commands, ConcurrencyLimiter reads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        server.createContext("/command", commands.wrap(exchange -> {
+            try {
+                // Una inyección esperando al juego, hasta que el test la suelte
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            send(exchange, "{\"success\":true}".getBytes(StandardCharsets.UTF_8));
+        }));
+        server.createContext("/overlay", reads.wrap(exchange -> send(exchange, ASSET)));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        return http.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private void awaitStats(ConcurrencyLimiter limiter, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!limiter.getStats().contains(expected)) {
+            if (System.nanoTime() > deadline) fail(limiter.getStats());
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void overlayIsServedWhileCommandsAreSaturated() throws Exception {
+        ConcurrencyLimiter commands = new ConcurrencyLimiter("Comandos", 4, 60_000);
+        ConcurrencyLimiter reads = new ConcurrencyLimiter("Lecturas", 64, 2000);
+        start(commands, reads);
+
+        // 40 bots: 4 comandos en curso y 36 esperando cupo
+        List<Future<HttpResponse<byte[]>>> bots = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            bots.add(clients.submit(() -> get("/command")));
+        }
+        awaitStats(commands, "4/4 en curso");
+
+        // Mientras tanto el overlay carga sus assets
+        int requests = 400;
+        List<Future<?>> viewers = new ArrayList<>();
+        AtomicInteger next = new AtomicInteger();
+        for (int v = 0; v < 8; v++) {
+            viewers.add(clients.submit(() -> {
+                while (next.getAndIncrement() < requests) {
+                    HttpResponse<byte[]> response = get("/overlay/assets/index.js");
+                    assertEquals(200, response.statusCode());
+                    assertEquals(ASSET.length, response.body().length);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> viewer : viewers) viewer.get(30, TimeUnit.SECONDS);
+
+        // Todo el overlay se sirvió sin que terminara un solo comando
+        assertTrue(commands.getStats().contains("4/4 en curso (máx 4) | Atendidas: 0"), commands.getStats());
+        assertTrue(reads.getStats().contains("Atendidas: " + requests + " | Rechazadas: 0"), reads.getStats());
+
+        unblock.countDown();
+        for (Future<HttpResponse<byte[]>> bot : bots) {
+            assertEquals(200, bot.get(30, TimeUnit.SECONDS).statusCode());
+        }
+        assertTrue(commands.getStats().contains("(máx 4) | Atendidas: 40 | Rechazadas: 0"), commands.getStats());
+    }
+
+    @Test
+    void rejectsWithRetryAfterOnceTheWaitRunsOut() throws Exception {
+        ConcurrencyLimiter commands = new ConcurrencyLimiter("Comandos", 1, 50);
+        start(commands, new ConcurrencyLimiter("Lecturas", 1, 50));
+
+        Future<HttpResponse<byte[]>> first = clients.submit(() -> get("/command"));
+        awaitStats(commands, "1/1 en curso");
+
+        HttpResponse<byte[]> busy = get("/command");
+        assertEquals(503, busy.statusCode());
+        assertEquals("1", busy.headers().firstValue("Retry-After").orElse(null));
+        // El otro grupo no se entera
+        assertEquals(200, get("/overlay").statusCode());
+
+        unblock.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).statusCode());
+        assertTrue(commands.getStats().contains("Atendidas: 1 | Rechazadas: 1"), commands.getStats());
+    }
+}
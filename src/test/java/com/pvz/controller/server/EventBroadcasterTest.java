@@ -0,0 +1,174 @@
+package com.pvz.controller.server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * /events con muchos clientes reales sobre un HttpServer del JDK en un puerto libre
+ */
+class EventBroadcasterTest {
+
+    private HttpServer server;
+    private EventBroadcaster events;
+    private ExecutorService readers;
+    private HttpClient client;
+    private final List<Stream<String>> streams = Collections.synchronizedList(new ArrayList<>());
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        events = new EventBroadcaster(60_000);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.createContext("/events", events);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        readers = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        events.stop();
+        for (Socket socket : sockets) socket.close();
+        synchronized (streams) {
+            streams.forEach(Stream::close);
+        }
+        readers.shutdownNow();
+        server.stop(0);
+    }
+
+    /**
+     * Cliente SSE que junta los ids de los eventos {@code type}
+     */
+    private List<Long> connect(String query, String type, int expected, CountDownLatch done) {
+        List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/events" + query);
+        readers.execute(() -> {
+            try {
+                Stream<String> lines = client.send(HttpRequest.newBuilder(uri).build(),
+                        HttpResponse.BodyHandlers.ofLines()).body();
+                streams.add(lines);
+                long[] id = {-1};
+                String[] event = {null};
+                lines.takeWhile(line -> ids.size() < expected).forEach(line -> {
+                    if (line.startsWith("id: ")) id[0] = Long.parseLong(line.substring(4));
+                    else if (line.startsWith("event: ")) event[0] = line.substring(7);
+                    else if (line.startsWith("data: ") && type.equals(event[0])) {
+                        ids.add(id[0]);
+                        if (ids.size() == expected) done.countDown();
+                    }
+                });
+            } catch (IOException | InterruptedException e) {
+                // El test falla por timeout del latch
+            }
+        });
+        return ids;
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail(message);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void everyClientReceivesEveryEventInOrder() throws InterruptedException {
+        int clients = 200;
+        int published = 100;
+        CountDownLatch done = new CountDownLatch(clients);
+        List<List<Long>> received = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            received.add(connect("", "test", published, done));
+        }
+        await(() -> events.getSubscriberCount() == clients, "no se conectaron todos los clientes");
+
+        for (int i = 0; i < published; i++) {
+            events.publish("test", List.of(i));
+        }
+
+        assertTrue(done.await(20, TimeUnit.SECONDS), "algún cliente no recibió todos los eventos");
+        List<Long> expected = new ArrayList<>();
+        for (long id = 1; id <= published; id++) expected.add(id);
+        for (List<Long> ids : received) {
+            assertEquals(expected, ids);
+        }
+        assertTrue(events.getStats().contains("Lentos desconectados: 0"), events.getStats());
+    }
+
+    @Test
+    void slowClientIsDroppedWithoutStallingTheOthers() throws Exception {
+        // Un cliente que nunca lee: su socket se llena y después su cola
+        Socket slow = new Socket();
+        slow.setReceiveBufferSize(4096);
+        slow.connect(server.getAddress());
+        sockets.add(slow);
+        OutputStream request = slow.getOutputStream();
+        request.write("GET /events HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        request.flush();
+
+        int published = 600;
+        CountDownLatch done = new CountDownLatch(3);
+        List<List<Long>> fast = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fast.add(connect("", "big", published, done));
+        }
+        await(() -> events.getSubscriberCount() == 4, "no se conectaron todos los clientes");
+
+        // De a rondas que entran en la cola: los clientes que leen nunca se atrasan 256 frames
+        String payload = "x".repeat(32 * 1024);
+        for (int sent = 0; sent < published; ) {
+            for (int i = 0; i < 50; i++, sent++) {
+                events.publish("big", payload);
+            }
+            int round = sent;
+            await(() -> fast.stream().allMatch(ids -> ids.size() >= round), "un cliente lento frenó a los demás");
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        await(() -> events.getSubscriberCount() == 3, "el cliente lento sigue suscripto");
+        assertTrue(events.getStats().contains("Lentos desconectados: 1"), events.getStats());
+    }
+
+    @Test
+    void reconnectingClientOnlyGetsWhatItMissed() throws InterruptedException {
+        CountDownLatch first = new CountDownLatch(1);
+        connect("", "test", 5, first);
+        await(() -> events.getSubscriberCount() == 1, "no se conectó el cliente");
+        for (int i = 0; i < 5; i++) {
+            events.publish("test", i);
+        }
+        assertTrue(first.await(10, TimeUnit.SECONDS));
+
+        CountDownLatch resumed = new CountDownLatch(1);
+        List<Long> ids = connect("?lastEventId=3", "test", 2, resumed);
+
+        assertTrue(resumed.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(4L, 5L), ids);
+    }
+}
@@ -0,0 +1,141 @@
+package com.pvz.controller.tiktok;
+
+import com.pvz.controller.tiktok.TeamManager.PlayerInfo;
+import com.pvz.controller.tiktok.TeamManager.RankedPlayer;
+import com.pvz.controller.tiktok.TeamManager.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: {@link PlayerIndex} frente al mapa de {@link PlayerInfo} que reemplazó, con
+ * {@code jugadores} viewers registrados (por defecto 100k).
+ *
+ * Costo por operación de buscar un uniqueId, sumar una acción y leer el top 50 de un
+ * equipo (el mapa ordena el equipo entero, como hacía el overlay). Al armar cada
+ * estructura se imprime su heap retenido por jugador; los dos lados crean sus propios
+ * nicknames y comparten los uniqueIds, así se cuentan igual.
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main PlayerIndexBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerIndexBenchmark {
+
+    @Param("100000")
+    public int players;
+
+    private String[] uniqueIds;
+    private PlayerIndex index;
+    private Map<String, PlayerInfo> map;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        uniqueIds = new String[players];
+        for (int i = 0; i < players; i++) {
+            uniqueIds[i] = "viewer" + i;
+        }
+
+        long before = usedHeap();
+        index = new PlayerIndex();
+        for (int i = 0; i < players; i++) {
+            index.register(uniqueIds[i], team(i), "Nick " + i, 0, 0);
+        }
+        long indexBytes = usedHeap() - before;
+
+        before = usedHeap();
+        map = new ConcurrentHashMap<>();
+        for (int i = 0; i < players; i++) {
+            map.put(uniqueIds[i], new PlayerInfo(team(i), "Nick " + i));
+        }
+        long mapBytes = usedHeap() - before;
+
+        System.out.printf("%nHeap retenido con %,d jugadores: PlayerIndex %.0f bytes/jugador"
+                        + " | Map<String, PlayerInfo> %.0f bytes/jugador%n",
+                players, (double) indexBytes / players, (double) mapBytes / players);
+    }
+
+    private static Team team(int i) {
+        return i % 2 == 0 ? Team.PLANTAS : Team.ZOMBIES;
+    }
+
+    private String nextUniqueId() {
+        int i = next;
+        next = i + 1 == players ? 0 : i + 1;
+        return uniqueIds[i];
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // BÚSQUEDA
+    // ═══════════════════════════════════════════════════════════
+
+    @Benchmark
+    public int indexLookup() {
+        return index.idOf(nextUniqueId());
+    }
+
+    @Benchmark
+    public PlayerInfo mapLookup() {
+        return map.get(nextUniqueId());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // ACCIÓN (búsqueda + contador + top)
+    // ═══════════════════════════════════════════════════════════
+
+    @Benchmark
+    public int indexAction() {
+        return index.incrementActions(index.idOf(nextUniqueId()));
+    }
+
+    @Benchmark
+    public int mapAction() {
+        return ++map.get(nextUniqueId()).actions;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // TOP 50
+    // ═══════════════════════════════════════════════════════════
+
+    @Benchmark
+    public List<RankedPlayer> indexTop() {
+        return index.top(Team.PLANTAS, 50);
+    }
+
+    @Benchmark
+    public List<RankedPlayer> mapTop() {
+        return map.entrySet().stream()
+                .filter(e -> e.getValue().team == Team.PLANTAS)
+                .sorted((a, b) -> Integer.compare(b.getValue().actions, a.getValue().actions))
+                .limit(50)
+                .map(e -> new RankedPlayer(e.getKey(), e.getValue().nickname, e.getValue().actions))
+                .toList();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
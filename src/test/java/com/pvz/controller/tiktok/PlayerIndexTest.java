@@ -0,0 +1,139 @@
+package com.pvz.controller.tiktok;
+
+import com.pvz.controller.tiktok.TeamManager.RankedPlayer;
+import com.pvz.controller.tiktok.TeamManager.Team;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Agregados y top por equipo de {@link PlayerIndex} contra recorrer y ordenar a todos
+ */
+class PlayerIndexTest {
+
+    /**
+     * El top que corresponde según las filas del índice: acciones desc, luego quién llegó antes
+     */
+    private static List<RankedPlayer> expectedTop(PlayerIndex index, Team team, int limit) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < index.size(); id++) {
+            if (index.team(id) == team) ids.add(id);
+        }
+        ids.sort(Comparator.<Integer>comparingInt(index::actions).reversed().thenComparingInt(id -> id));
+        List<RankedPlayer> top = new ArrayList<>();
+        for (int id : ids.subList(0, Math.min(limit, ids.size()))) {
+            top.add(new RankedPlayer(index.uniqueId(id), index.nickname(id), index.actions(id)));
+        }
+        return top;
+    }
+
+    private static void assertConsistent(PlayerIndex index) {
+        for (Team team : Team.values()) {
+            int players = 0;
+            long actions = 0;
+            for (int id = 0; id < index.size(); id++) {
+                if (index.team(id) == team) {
+                    players++;
+                    actions += index.actions(id);
+                }
+            }
+            assertEquals(players, index.teamPlayers(team));
+            assertEquals(actions, index.teamActions(team));
+            assertEquals(expectedTop(index, team, 50), index.top(team, 50));
+        }
+    }
+
+    @Test
+    void topFollowsActionsSwitchesAndDemotions() {
+        PlayerIndex index = new PlayerIndex();
+        Random random = new Random(7);
+        int registered = 0;
+
+        for (int step = 0; step < 20_000; step++) {
+            int roll = random.nextInt(100);
+            if (registered < 40 || roll < 5) {
+                index.register("viewer" + registered, random.nextBoolean() ? Team.PLANTAS : Team.ZOMBIES,
+                        "Nick " + registered, step, 0);
+                registered++;
+            } else if (roll < 7) {
+                // Cambio de equipo, a veces de alguien del top
+                int id = random.nextBoolean() ? random.nextInt(index.size()) : index.idOf(index.top(Team.PLANTAS, 1).get(0).uniqueId());
+                Team other = index.team(id) == Team.PLANTAS ? Team.ZOMBIES : Team.PLANTAS;
+                index.register(index.uniqueId(id), other, index.nickname(id), index.joinedAt(id), index.actions(id));
+            } else if (roll < 8) {
+                // Replay del journal con un total menor
+                int id = random.nextInt(index.size());
+                index.setActions(id, index.actions(id) / 2);
+            } else {
+                // Los primeros 10 hacen casi todo, como en un stream real
+                int id = random.nextInt(100) < 70 ? random.nextInt(10) : random.nextInt(index.size());
+                index.incrementActions(id);
+            }
+            if (step % 500 == 0) {
+                assertConsistent(index);
+            }
+        }
+        assertConsistent(index);
+    }
+
+    @Test
+    void limitBeyondTheKeptTopSortsTheWholeTeam() {
+        PlayerIndex index = new PlayerIndex();
+        int players = PlayerIndex.TOP_CAPACITY * 3;
+        for (int i = 0; i < players; i++) {
+            int id = index.register("viewer" + i, Team.ZOMBIES, "Nick " + i, 0, 0);
+            index.setActions(id, i % 17);
+        }
+
+        List<RankedPlayer> all = index.top(Team.ZOMBIES, Integer.MAX_VALUE);
+
+        assertEquals(players, all.size());
+        assertEquals(expectedTop(index, Team.ZOMBIES, players), all);
+        assertEquals(all.subList(0, 10), index.top(Team.ZOMBIES, 10));
+        assertTrue(index.top(Team.PLANTAS, 10).isEmpty());
+    }
+
+    @Test
+    void reRegisteringWithTheSameDataKeepsTheTopAndThePool() {
+        PlayerIndex index = new PlayerIndex();
+        for (int i = 0; i < 300; i++) {
+            int id = index.register("viewer" + i, Team.PLANTAS, "Nick " + i, i, 0);
+            index.setActions(id, 300 - i);
+        }
+        List<RankedPlayer> before = index.top(Team.PLANTAS, 50);
+        long footprint = index.footprintBytes();
+
+        for (int i = 0; i < 300; i++) {
+            int id = index.idOf("viewer" + i);
+            index.register("viewer" + i, Team.PLANTAS, "Nick " + i, i, index.actions(id));
+        }
+
+        assertEquals(before, index.top(Team.PLANTAS, 50));
+        assertEquals(footprint, index.footprintBytes());
+    }
+
+    @Test
+    void clearEmptiesEverything() {
+        PlayerIndex index = new PlayerIndex();
+        index.incrementActions(index.register("a", Team.PLANTAS, "A", 0, 0));
+        index.register("b", Team.ZOMBIES, "B", 0, 3);
+
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertEquals(-1, index.idOf("a"));
+        for (Team team : Team.values()) {
+            assertEquals(0, index.teamPlayers(team));
+            assertEquals(0, index.teamActions(team));
+            assertTrue(index.top(team, 5).isEmpty());
+        }
+        int id = index.register("c", Team.ZOMBIES, "C", 0, 0);
+        assertEquals(List.of(new RankedPlayer("c", "C", 0)), index.top(Team.ZOMBIES, 5));
+        assertEquals(0, id);
+    }
+}
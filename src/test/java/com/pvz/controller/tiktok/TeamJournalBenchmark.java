@@ -0,0 +1,84 @@
+package com.pvz.controller.tiktok;
+
+import com.pvz.controller.tiktok.TeamManager.Team;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Costo de escribir el journal de equipos y de recuperarse de él al arrancar.
+ *
+ * Registra {@code jugadores} viewers y agrega {@code acciones} registros ACTION repartidos
+ * entre ellos (como un live largo sin compactar), y después reaplica el journal sobre un
+ * índice vacío. Por defecto 100k jugadores y 10M acciones; trabaja en un directorio
+ * temporal, no toca data/.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pvz.controller.tiktok.TeamJournalBenchmark -Dexec.args="100000 10000000"
+ */
+public final class TeamJournalBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long actions = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+
+        Path dir = Files.createTempDirectory("pvz-journal-bench");
+        try {
+            // Calentamiento: mismo recorrido a escala chica para que el JIT compile el camino caliente
+            run(dir, Math.min(players, 10_000), Math.min(actions, 500_000), false);
+            run(dir, players, actions, true);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void run(Path dir, int players, long actions, boolean report) throws IOException {
+        Path file = dir.resolve("teams.journal");
+        String[] uniqueIds = new String[players];
+        int[] totals = new int[players];
+        for (int i = 0; i < players; i++) {
+            uniqueIds[i] = "viewer" + i;
+        }
+
+        long start = System.nanoTime();
+        long size;
+        try (TeamJournal journal = TeamJournal.open(file, true)) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < players; i++) {
+                journal.appendRegister(false, uniqueIds[i], "Nick " + i, i % 2 == 0 ? Team.PLANTAS : Team.ZOMBIES, now, 0);
+            }
+            for (long a = 0; a < actions; a++) {
+                int id = (int) (a % players);
+                journal.appendAction(uniqueIds[id], ++totals[id]);
+            }
+            journal.flush();
+            size = journal.size();
+        }
+        long appendNanos = System.nanoTime() - start;
+
+        PlayerIndex index = new PlayerIndex();
+        start = System.nanoTime();
+        int applied = TeamJournal.replay(file, index);
+        long replayNanos = System.nanoTime() - start;
+
+        long expected = players + actions;
+        long replayedActions = index.teamActions(Team.PLANTAS) + index.teamActions(Team.ZOMBIES);
+        if (applied != expected || index.size() != players || replayedActions != actions) {
+            throw new IllegalStateException(String.format("Replay inconsistente: %d registros (esperados %d), %d jugadores, %d acciones",
+                    applied, expected, index.size(), replayedActions));
+        }
+        if (!report) return;
+
+        System.out.printf("Journal: %,d jugadores + %,d acciones = %,d registros, %,.1f MB (%.1f bytes/registro)%n",
+                players, actions, expected, size / 1e6, (double) size / expected);
+        System.out.printf("  Escritura:    %,.0f ms | %.0f ns/registro | %,.0f MB/s%n",
+                appendNanos / 1e6, (double) appendNanos / expected, size / 1e6 / (appendNanos / 1e9));
+        System.out.printf("  Recuperación: %,.0f ms | %.0f ns/registro | %,.0f MB/s%n",
+                replayNanos / 1e6, (double) replayNanos / expected, size / 1e6 / (replayNanos / 1e9));
+        System.out.printf("  Índice: %,d bytes estimados%n", index.footprintBytes());
+    }
+}